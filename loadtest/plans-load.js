@@ -0,0 +1,83 @@
+// *******************************************************
+// File: plans-load.js
+// Description: k6 load test for the plan API, used to compare the servlet and the reactive execution modes.
+// - Same mix of requests against both modes: listings, season / search queries, single lookups and counts.
+// - Run it once per mode against the same database and compare the k6 summaries
+//   (http_req_duration p95/p99, http_reqs rate, failed requests), see README "Load testing".
+// Usage:
+//   k6 run -e BASE_URL=http://localhost:9090 -e MODE=servlet  loadtest/plans-load.js
+//   k6 run -e BASE_URL=http://localhost:9090 -e MODE=reactive loadtest/plans-load.js
+// *******************************************************
+
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:9090';
+const MODE = __ENV.MODE || 'servlet';
+
+export const options = {
+    scenarios: {
+        ramp: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: 50 },
+                { duration: '1m', target: 200 },
+                { duration: '1m', target: 500 },
+                { duration: '30s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    tags: { mode: MODE },
+};
+
+const SEASONS = ['WINTER', 'SPRING', 'SUMMER', 'AUTUMN'];
+const KEYWORDS = ['tom', 'basil', 'rose', 'mint', 'pe'];
+
+// Seed a few plans so single lookups have something to hit
+export function setup() {
+    const ids = [];
+    for (let i = 0; i < 20; i++) {
+        const res = http.post(`${BASE_URL}/api/plans/add-plan`, JSON.stringify({
+            name: `Load test plant ${i}`,
+            plantingSeason: SEASONS[i % SEASONS.length],
+            sunlightNeeds: i % 2 === 0 ? 'Full Sun' : 'Partial Shade',
+            wateringFreq: i % 3 === 0 ? 'Daily' : 'Twice a week',
+            notes: 'Created by loadtest/plans-load.js',
+        }), { headers: { 'Content-Type': 'application/json' } });
+        if (res.status === 200) {
+            ids.push(res.json('id'));
+        }
+    }
+    return { ids };
+}
+
+export default function (data) {
+    const pick = (list) => list[Math.floor(Math.random() * list.length)];
+    const r = Math.random();
+
+    let res;
+    if (r < 0.20) {
+        res = http.get(`${BASE_URL}/api/plans/page?size=100`, { tags: { name: 'page' } });
+    } else if (r < 0.40) {
+        res = http.get(`${BASE_URL}/api/plans/season/${pick(SEASONS)}`, { tags: { name: 'season' } });
+    } else if (r < 0.60) {
+        res = http.get(`${BASE_URL}/api/plans/search?keyword=${pick(KEYWORDS)}`, { tags: { name: 'search' } });
+    } else if (r < 0.85 && data.ids.length > 0) {
+        res = http.get(`${BASE_URL}/api/plans/${pick(data.ids)}`, { tags: { name: 'byId' } });
+    } else {
+        res = http.get(`${BASE_URL}/api/plans/count/season/${pick(SEASONS)}`, { tags: { name: 'count' } });
+    }
+    check(res, { 'status is 2xx': (x) => x.status >= 200 && x.status < 300 });
+    sleep(0.1);
+}
+
+export function teardown(data) {
+    for (const id of data.ids) {
+        http.del(`${BASE_URL}/api/plans/${id}`);
+    }
+}
@@ -0,0 +1,74 @@
+#!/usr/bin/env bash
+# *******************************************************
+# File: startup-benchmark.sh
+# Description: Cold-start time and resident memory (RSS) of the packaged application, for the plain jar and for
+# the AOT + CDS build of the "cds" Maven profile.
+# - Each variant is started RUNS times in a fresh JVM. A run ends when the "Started GardenplannerApplication" line is
+#   logged; its RSS is read right then, before any request is served.
+# - The time is the "process running for" value Spring Boot logs, so it includes JVM startup and class loading.
+# - MongoDB does not need to be reachable: the client connects lazily, and startup tasks that need the database
+#   only log a warning.
+# Usage:
+#   mvn -Pcds -DskipTests package
+#   loadtest/startup-benchmark.sh [RUNS]          (default 5; run from the project directory)
+# *******************************************************
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-18090}"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+export MONGODB_URI="${MONGODB_URI:-mongodb://localhost:27017/?serverSelectionTimeoutMS=500}"
+
+JAR="$(ls target/gardenplanner-*.jar | grep -v '\.original$' | head -n 1)"
+CDS_JAR="target/cds/$(basename "$JAR")"
+CDS_ARCHIVE="target/cds/application.jsa"
+if [[ ! -f "$CDS_ARCHIVE" ]]; then
+    echo "No $CDS_ARCHIVE: build with 'mvn -Pcds -DskipTests package' first" >&2
+    exit 1
+fi
+
+LOG="$(mktemp)"
+trap 'rm -f "$LOG"' EXIT
+
+# Starts the command once, prints "<seconds> <rss KB>" when the application has started, then stops it
+run_once() {
+    "$@" --server.port="$PORT" > "$LOG" 2>&1 &
+    local pid=$!
+    for _ in $(seq 1 600); do
+        if grep -q "Started GardenplannerApplication" "$LOG"; then
+            local rss seconds
+            rss="$(ps -o rss= -p "$pid" | tr -d ' ')"
+            seconds="$(grep -o 'process running for [0-9.]*' "$LOG" | awk '{ print $4 }')"
+            kill "$pid"
+            wait "$pid" 2> /dev/null || true
+            echo "$seconds $rss"
+            return
+        fi
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Application exited before starting:" >&2
+            tail -n 20 "$LOG" >&2
+            exit 1
+        fi
+        sleep 0.1
+    done
+    kill "$pid"
+    echo "Application did not start within 60 s" >&2
+    exit 1
+}
+
+# Runs a variant RUNS times and prints the mean start time and RSS
+measure() {
+    local name="$1"
+    shift
+    run_once "$@" > /dev/null # warms the OS file cache, not counted
+    for _ in $(seq 1 "$RUNS"); do
+        run_once "$@"
+    done | awk -v name="$name" -v runs="$RUNS" '
+        { time += $1; rss += $2; if (NR == 1 || $1 < best) best = $1 }
+        END { printf "%-12s %8.2f s %8.2f s %10.0f MB\n", name, time / runs, best, rss / runs / 1024 }'
+}
+
+printf "%-12s %10s %10s %13s\n" "variant" "mean" "best" "mean RSS"
+measure "jar" "$JAVA" -jar "$JAR"
+measure "aot+cds" "$JAVA" -XX:SharedArchiveFile="$CDS_ARCHIVE" -Dspring.aot.enabled=true -jar "$CDS_JAR"
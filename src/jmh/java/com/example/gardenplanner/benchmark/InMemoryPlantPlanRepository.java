@@ -0,0 +1,182 @@
+package com.example.gardenplanner.benchmark;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanSearchKeys;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.benchmark
+ * File: InMemoryPlantPlanRepository.java
+ * Description: In-memory stand-in for {@link PlantPlanRepository}, used by the service and controller benchmarks.
+ * - Backed by a sorted map keyed by id, so keyset paging behaves like the '_id' index.
+ * - Seeded plans all belong to {@link PlantPlan#DEFAULT_OWNER}; owner-scoped methods filter on the owner.
+ * - Implemented as a dynamic proxy: only the methods the service calls are supported,
+ *   anything else throws {@link UnsupportedOperationException}.
+ * Objective: measure the cost of our own code paths without a MongoDB server in the loop.
+ * *******************************************************
+ */
+
+public final class InMemoryPlantPlanRepository implements InvocationHandler {
+
+    private final NavigableMap<String, PlantPlan> plans = new ConcurrentSkipListMap<>();
+
+    private InMemoryPlantPlanRepository() {
+    }
+
+    /**
+     * @return a new, empty in-memory repository
+     */
+    public static PlantPlanRepository create() {
+        return (PlantPlanRepository) Proxy.newProxyInstance(
+                PlantPlanRepository.class.getClassLoader(),
+                new Class<?>[]{PlantPlanRepository.class},
+                new InMemoryPlantPlanRepository());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "insert", "save" -> store((PlantPlan) args[0], method.getName().equals("insert"));
+            case "findById" -> Optional.ofNullable(plans.get((String) args[0]));
+            case "findAll" -> new ArrayList<>(plans.values());
+            case "count" -> (long) plans.size();
+            case "deleteById" -> {
+                plans.remove((String) args[0]);
+                yield null;
+            }
+            case "findByIdAndOwnerId" -> Optional.ofNullable(plans.get((String) args[0]))
+                    .filter(plan -> plan.getOwnerId().equals(args[1]));
+            case "findAndRemove" -> {
+                PlantPlan plan = plans.get((String) args[0]);
+                yield plan != null && plan.getOwnerId().equals(args[1]) && plans.remove(plan.getId(), plan)
+                        ? Optional.of(plan)
+                        : Optional.empty();
+            }
+            case "replaceFields" -> replaceFields((PlantPlan) args[0], (Long) args[1], (Boolean) args[2]);
+            case "findByOwnerId" -> args.length == 2 && args[1] instanceof Pageable pageable
+                    ? page(owned(args[0], plans), pageable)
+                    : filter(args[0], plan -> true);
+            case "findByOwnerIdAndIdGreaterThan" ->
+                    page(owned(args[0], plans.tailMap((String) args[1], false)), (Pageable) args[2]);
+            case "countByOwnerId" -> (long) filter(args[0], plan -> true).size();
+            case "findByOwnerIdAndPlantingSeason" -> filter(args[0], plan -> plan.getPlantingSeason() == args[1]);
+            case "countByOwnerIdAndPlantingSeason" ->
+                    (long) filter(args[0], plan -> plan.getPlantingSeason() == args[1]).size();
+            case "countByOwnerAndSeason" -> countByOwnerAndSeason();
+            case "countByOwnerAndSeasonOf" -> countByOwnerAndSeason().stream()
+                    .filter(group -> ((Collection<?>) args[0]).contains(group.ownerId()))
+                    .toList();
+            case "findByOwnerIdAndSunlightNeeds" -> filter(args[0], plan -> Objects.equals(plan.getSunlightNeeds(), args[1]));
+            case "findByOwnerIdAndNameGramsAll" ->
+                    filter(args[0], plan -> plan.getNameGrams().containsAll((Collection<String>) args[1]));
+            case "findByOwnerIdAndNameKeyContaining" -> filter(args[0], plan -> plan.getNameKey().contains((String) args[1]));
+            case "findByOwnerIdAndWateringFreqGramsAll" ->
+                    filter(args[0], plan -> plan.getWateringFreqGrams().containsAll((Collection<String>) args[1]));
+            case "findByOwnerIdAndWateringFreqKeyContaining" ->
+                    filter(args[0], plan -> plan.getWateringFreqKey() != null
+                            && plan.getWateringFreqKey().contains((String) args[1]));
+            case "streamByOwnerId" -> filter(args[0], plan -> true).stream();
+            case "streamAllBy" -> new ArrayList<>(plans.values()).stream();
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryPlantPlanRepository(" + plans.size() + " plans)";
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+
+    private PlantPlan store(PlantPlan plan, boolean generateId) {
+        if (generateId && plan.getId() == null) {
+            plan.setId(new ObjectId().toHexString());
+        }
+        // Mirrors PlantPlanSearchKeysCallback, which MongoTemplate would run before writing
+        PlantPlanSearchKeys.apply(plan);
+        plans.put(plan.getId(), plan);
+        return plan;
+    }
+
+    // Mirrors PlantPlanWritesImpl: an upsert on id and owner that increments the version and returns the previous plan
+    private Optional<PlantPlan> replaceFields(PlantPlan plan, Long expectedVersion, boolean mustExist) {
+        PlantPlan previous = plans.get(plan.getId());
+        if (previous != null && !previous.getOwnerId().equals(plan.getOwnerId())) {
+            throw new DuplicateKeyException("PlantPlan " + plan.getId() + " belongs to another owner");
+        }
+        if (expectedVersion != null && (previous == null || !expectedVersion.equals(previous.getVersion()))) {
+            throw new OptimisticLockingFailureException("PlantPlan " + plan.getId() + " is not at version " + expectedVersion);
+        }
+        if (mustExist && previous == null) {
+            throw new OptimisticLockingFailureException("PlantPlan " + plan.getId() + " does not exist");
+        }
+        PlantPlan stored = new PlantPlan();
+        BeanUtils.copyProperties(plan, stored);
+        stored.setVersion(previous == null || previous.getVersion() == null ? 1L : previous.getVersion() + 1);
+        store(stored, false);
+        return Optional.ofNullable(previous);
+    }
+
+    // Projections (a trailing Class argument) are not supported: the benchmarks only read full plans
+    private List<PlantPlan> filter(Object ownerId, Predicate<PlantPlan> predicate) {
+        return plans.values().stream().filter(plan -> plan.getOwnerId().equals(ownerId)).filter(predicate).toList();
+    }
+
+    private static Map<String, PlantPlan> owned(Object ownerId, Map<String, PlantPlan> source) {
+        Map<String, PlantPlan> owned = new LinkedHashMap<>();
+        source.forEach((id, plan) -> {
+            if (plan.getOwnerId().equals(ownerId)) {
+                owned.put(id, plan);
+            }
+        });
+        return owned;
+    }
+
+    private List<PlantPlanRepository.OwnerSeasonCount> countByOwnerAndSeason() {
+        Map<List<Object>, Long> counts = new HashMap<>();
+        plans.values().forEach(plan -> counts.merge(List.of(plan.getOwnerId(), plan.getPlantingSeason()), 1L, Long::sum));
+        List<PlantPlanRepository.OwnerSeasonCount> result = new ArrayList<>();
+        counts.forEach((key, count) ->
+                result.add(new PlantPlanRepository.OwnerSeasonCount((String) key.get(0), (Season) key.get(1), count)));
+        return result;
+    }
+
+    private static List<PlantPlan> page(Map<String, PlantPlan> source, Pageable pageable) {
+        return source.values().stream().limit(pageable.getPageSize()).toList();
+    }
+
+    /**
+     * Fills a repository with a reproducible set of plans.
+     *
+     * @param repository the repository to fill
+     * @param count      number of plans to insert
+     */
+    public static void seed(PlantPlanRepository repository, int count) {
+        String[] names = {"Tomato", "Basil", "Rose", "Lavender", "Mint", "Pepper", "Lettuce", "Sunflower"};
+        String[] sunlight = {"Full Sun", "Partial Shade", "Shade"};
+        String[] watering = {"Daily", "Twice a week", "Weekly", "Every 3 days"};
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            PlantPlan plan = new PlantPlan();
+            plan.setOwnerId(PlantPlan.DEFAULT_OWNER);
+            plan.setName(names[random.nextInt(names.length)] + " " + i);
+            plan.setPlantingSeason(Season.values()[random.nextInt(Season.values().length)]);
+            plan.setSunlightNeeds(sunlight[random.nextInt(sunlight.length)]);
+            plan.setWateringFreq(watering[random.nextInt(watering.length)]);
+            plan.setNotes("Keep the soil moist and mulch in hot weather. Plant " + i + " of the benchmark garden.");
+            repository.insert(plan);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.gardenplanner.benchmark;
+
+
+import com.example.gardenplanner.config.CacheConfig;
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanCalendar;
+import com.example.gardenplanner.model.WateringSchedule;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import com.example.gardenplanner.service.PlantPlanCalendarService;
+import com.example.gardenplanner.service.WateringScheduleParser;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.benchmark
+ * File: PlantPlanCalendarBenchmark.java
+ * Description: JMH benchmarks for the {@link PlantPlanCalendarService} "this week" calendar against
+ * {@link InMemoryPlantPlanRepository}.
+ * - {@code thisWeekMemoized} is the hot path; {@code thisWeekCold} reloads and re-parses the season's plans first;
+ *   {@code autumnFromSeason} assembles a range too long to be memoized from the memoized season schedules.
+ * Objective:
+ * *******************************************************
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlantPlanCalendarBenchmark {
+
+    /** Number of plans in the repository. */
+    @Param({"1000", "10000"})
+    public int plans;
+
+    // A week inside one season, so the three benchmarks touch the same plans
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+    private static final LocalDate SUNDAY = MONDAY.plusDays(6);
+    // Longer than PlantPlanCalendarService.MEMOIZED_DAYS: assembled from the memoized season on every call
+    private static final LocalDate AUTUMN_START = LocalDate.of(2026, 9, 1);
+    private static final LocalDate AUTUMN_END = LocalDate.of(2026, 11, 30);
+
+    private PlantPlanCalendarService service;
+    private Cache cache;
+
+    @Setup
+    public void setUp() {
+        PlantPlanRepository repository = InMemoryPlantPlanRepository.create();
+        InMemoryPlantPlanRepository.seed(repository, plans);
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(CacheConfig.PLAN_CALENDAR);
+        service = new PlantPlanCalendarService(repository, cacheManager, "north");
+        cache = cacheManager.getCache(CacheConfig.PLAN_CALENDAR);
+        service.getCalendar(PlantPlan.DEFAULT_OWNER, MONDAY, SUNDAY);
+    }
+
+    @Benchmark
+    public PlantPlanCalendar thisWeekMemoized() {
+        return service.getCalendar(PlantPlan.DEFAULT_OWNER, MONDAY, SUNDAY);
+    }
+
+    @Benchmark
+    public PlantPlanCalendar autumnFromSeason() {
+        return service.getCalendar(PlantPlan.DEFAULT_OWNER, AUTUMN_START, AUTUMN_END);
+    }
+
+    @Benchmark
+    public PlantPlanCalendar thisWeekCold() {
+        cache.clear();
+        return service.getCalendar(PlantPlan.DEFAULT_OWNER, MONDAY, SUNDAY);
+    }
+
+    @Benchmark
+    public Optional<WateringSchedule> parseWateringFreq() {
+        return WateringScheduleParser.parse("Twice a week");
+    }
+}
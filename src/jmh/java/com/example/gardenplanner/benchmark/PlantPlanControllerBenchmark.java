@@ -0,0 +1,102 @@
+package com.example.gardenplanner.benchmark;
+
+
+import com.example.gardenplanner.controller.OwnerIdArgumentResolver;
+import com.example.gardenplanner.controller.PlantPlanController;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import com.example.gardenplanner.service.PlantPlanCounters;
+import com.example.gardenplanner.service.PlantPlanService;
+import com.example.gardenplanner.service.PlantPlanWriteBehindQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.benchmark
+ * File: PlantPlanControllerBenchmark.java
+ * Description: JMH benchmarks for full {@link PlantPlanController} round trips through MockMvc.
+ * - Covers request mapping, argument binding, validation, the service and JSON serialization,
+ *   on top of {@link InMemoryPlantPlanRepository}.
+ * Objective:
+ * *******************************************************
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlantPlanControllerBenchmark {
+
+    private static final String NEW_PLAN = """
+            {"name":"Basil","plantingSeason":"summer","sunlightNeeds":"Full Sun",
+             "wateringFreq":"Daily","notes":"Pinch off flowers to keep the leaves coming."}
+            """;
+
+    private MockMvc mockMvc;
+    private String knownId;
+
+    @Setup
+    public void setUp() {
+        PlantPlanRepository repository = InMemoryPlantPlanRepository.create();
+        InMemoryPlantPlanRepository.seed(repository, 1000);
+        PlantPlanCounters counters = new PlantPlanCounters(repository);
+        counters.reconcile();
+
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        // Bulk import, PATCH, /query, /changes and /suggest are not benchmarked here, so they need no service;
+        // writes go straight to the repository (write-behind disabled)
+        PlantPlanController controller = new PlantPlanController(
+                new PlantPlanService(repository, counters, event -> { }, new NoOpCacheManager()), null, null, null, null, null,
+                new PlantPlanWriteBehindQueue(null, null, counters, null, event -> { }, false, 1, 1, Duration.ofSeconds(1),
+                        Duration.ZERO, new SimpleMeterRegistry()),
+                mapper);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setCustomArgumentResolvers(new OwnerIdArgumentResolver())
+                .build();
+        knownId = repository.findAll().get(500).getId();
+    }
+
+    @Benchmark
+    public MvcResult getById() throws Exception {
+        return mockMvc.perform(get("/api/plans/{id}", knownId)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getBySeason() throws Exception {
+        return mockMvc.perform(get("/api/plans/season/SUMMER")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult searchByName() throws Exception {
+        return mockMvc.perform(get("/api/plans/search").param("keyword", "basil")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult firstPage() throws Exception {
+        return mockMvc.perform(get("/api/plans/page").param("size", "50")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult countBySeason() throws Exception {
+        return mockMvc.perform(get("/api/plans/count/season/summer")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult addPlan() throws Exception {
+        return mockMvc.perform(post("/api/plans/add-plan")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(NEW_PLAN)).andReturn();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.gardenplanner.benchmark;
+
+
+import com.example.gardenplanner.config.BinaryFormatsConfig;
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.Season;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.benchmark
+ * File: PlantPlanJsonBenchmark.java
+ * Description: JMH benchmarks for PlantPlan JSON (de)serialization and {@link Season#fromString(String)}.
+ * - Uses an ObjectMapper built the same way Spring Boot builds the application's mapper.
+ * - {@code format} compares JSON with the Smile and CBOR encodings offered by {@link BinaryFormatsConfig};
+ *   the size of each encoding is printed once per trial.
+ * Objective:
+ * *******************************************************
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PlantPlanJsonBenchmark {
+
+    /** Number of plans in the serialized list. */
+    @Param({"1", "100"})
+    public int listSize;
+
+    /** Encoding of the list: json, smile or cbor. */
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    private ObjectWriter listWriter;
+    private ObjectReader listReader;
+    private List<PlantPlan> plans;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        BinaryFormatsConfig formats = new BinaryFormatsConfig();
+        ObjectMapper mapper = switch (format) {
+            case "smile" -> formats.smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+            case "cbor" -> formats.cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        listWriter = mapper.writerFor(new TypeReference<List<PlantPlan>>() { });
+        listReader = mapper.readerFor(new TypeReference<List<PlantPlan>>() { });
+
+        var repository = InMemoryPlantPlanRepository.create();
+        InMemoryPlantPlanRepository.seed(repository, listSize);
+        plans = repository.findAll();
+        encoded = listWriter.writeValueAsBytes(plans);
+        System.out.printf("%n%s, %d plans: %d bytes%n", format, listSize, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serializePlans() throws Exception {
+        return listWriter.writeValueAsBytes(plans);
+    }
+
+    @Benchmark
+    public List<PlantPlan> deserializePlans() throws Exception {
+        return listReader.readValue(encoded);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public Season[] seasonFromString() {
+        // Mixed casing and padding, as clients actually send it
+        return new Season[]{
+                Season.fromString("summer"),
+                Season.fromString(" Winter "),
+                Season.fromString("SPRING"),
+                Season.fromString("autumn")
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.gardenplanner.benchmark;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanSuggestion;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import com.example.gardenplanner.service.PlantPlanChangeFeed;
+import com.example.gardenplanner.service.PlantPlanSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.benchmark
+ * File: PlantPlanSearchIndexBenchmark.java
+ * Description: JMH benchmarks for {@link PlantPlanSearchIndex} lookups (GET /api/plans/suggest).
+ * - The index is loaded from {@link InMemoryPlantPlanRepository}; compare with
+ *   PlantPlanServiceBenchmark.searchByName, which has to go to the repository.
+ * Objective:
+ * *******************************************************
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlantPlanSearchIndexBenchmark {
+
+    /** Number of plans in the index. */
+    @Param({"1000", "10000"})
+    public int plans;
+
+    private PlantPlanSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        PlantPlanRepository repository = InMemoryPlantPlanRepository.create();
+        InMemoryPlantPlanRepository.seed(repository, plans);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PlantPlanChangeFeed feed = new PlantPlanChangeFeed(0, Duration.ofMinutes(1), 256, registry);
+        index = new PlantPlanSearchIndex(repository, feed, 0.3, registry);
+        index.load();
+    }
+
+    @Benchmark
+    public List<PlantPlanSuggestion> prefix() {
+        return index.search(PlantPlan.DEFAULT_OWNER, "lav", 10);
+    }
+
+    @Benchmark
+    public List<PlantPlanSuggestion> misspelled() {
+        return index.search(PlantPlan.DEFAULT_OWNER, "tomatoe", 10);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.gardenplanner.benchmark;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanPage;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import com.example.gardenplanner.service.PlantPlanCounters;
+import com.example.gardenplanner.service.PlantPlanService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.benchmark
+ * File: PlantPlanServiceBenchmark.java
+ * Description: JMH benchmarks for the {@link PlantPlanService} methods against {@link InMemoryPlantPlanRepository}.
+ * - The service is created without Spring, so the cache proxy is not part of the measurement:
+ *   these numbers are the cost of a cache miss minus the MongoDB round trip.
+ * Objective:
+ * *******************************************************
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlantPlanServiceBenchmark {
+
+    // Every seeded plan belongs to the default owner
+    private static final String OWNER = PlantPlan.DEFAULT_OWNER;
+
+    /** Number of plans in the repository. */
+    @Param({"1000", "10000"})
+    public int plans;
+
+    private PlantPlanService service;
+    private String knownId;
+
+    @Setup
+    public void setUp() {
+        PlantPlanRepository repository = InMemoryPlantPlanRepository.create();
+        InMemoryPlantPlanRepository.seed(repository, plans);
+
+        PlantPlanCounters counters = new PlantPlanCounters(repository);
+        counters.reconcile();
+        service = new PlantPlanService(repository, counters, event -> { }, new NoOpCacheManager());
+        knownId = repository.findAll().get(plans / 2).getId();
+    }
+
+    @Benchmark
+    public Optional<PlantPlan> getById() {
+        return service.getPlantPlanById(OWNER, knownId);
+    }
+
+    @Benchmark
+    public List<PlantPlan> findBySeason() {
+        return service.findByPlantingSeason(OWNER, Season.SUMMER);
+    }
+
+    @Benchmark
+    public List<PlantPlan> searchByName() {
+        return service.searchByName(OWNER, "tomato 1");
+    }
+
+    @Benchmark
+    public List<PlantPlan> searchByWateringFreq() {
+        return service.searchByWateringFreq(OWNER, "week");
+    }
+
+    @Benchmark
+    public PlantPlanPage firstPage() {
+        return service.getPlantPlanPage(OWNER, null, PlantPlanService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public long countBySeason() {
+        return service.countByPlantingSeason(OWNER, Season.WINTER);
+    }
+
+    @Benchmark
+    public PlantPlan updatePlan() {
+        PlantPlan update = new PlantPlan();
+        update.setName("Tomato updated");
+        update.setPlantingSeason(Season.SPRING);
+        update.setSunlightNeeds("Full Sun");
+        update.setWateringFreq("Daily");
+        return service.updatePlantPlan(OWNER, knownId, update, null, false);
+    }
+}
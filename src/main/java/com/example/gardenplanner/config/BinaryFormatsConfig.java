@@ -0,0 +1,45 @@
+package com.example.gardenplanner.config;
+
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.config
+ * File: BinaryFormatsConfig.java
+ * Description: Registers Smile ({@value #APPLICATION_SMILE_VALUE}) and CBOR ({@code application/cbor}) message
+ * converters next to JSON, so clients choose the format with {@code Accept} / {@code Content-Type}.
+ * - Both mappers are built from Spring Boot's {@link Jackson2ObjectMapperBuilder}, so they carry the same
+ *   modules and {@code spring.jackson.*} settings as the application's JSON mapper.
+ * - Spring Boot puts converter beans in place of its own default converters of the same type.
+ * Objective: binary encodings skip repeated field names and number/text conversion, which makes large plan lists
+ * smaller and cheaper to (de)serialize for mobile and sync clients.
+ * *******************************************************
+ */
+
+@Configuration
+public class BinaryFormatsConfig {
+
+    /** Media type of Jackson's Smile format (binary JSON). */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /** Media type of CBOR (RFC 8949). */
+    public static final String APPLICATION_CBOR_VALUE = MediaType.APPLICATION_CBOR_VALUE;
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.gardenplanner.config;
+
+
+import com.example.gardenplanner.model.Season;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.config
+ * File: CacheConfig.java
+ * Description: Enables the in-process read-through cache in front of PlantPlanService lookups.
+ * - The cache manager itself is Spring Boot's Caffeine auto-configuration; size, TTL and statistics
+ *   are set by {@code spring.cache.caffeine.spec} in application.properties.
+ * - Plans are scoped to an owner, so every key starts with the owner id (e.g. {@code "public:SUMMER"}).
+ * - {@link #PLAN_FACETS} holds one aggregation result per owner and gets its own, much shorter TTL
+ *   ({@code gardenplanner.facets.cache-ttl}).
+ * - A write evicts only the {@link #PLANS_BY_SEASON} listings of its owner that it changed ({@link #evictSeasons}).
+ * - {@link #PLAN_CALENDAR} holds the per-season schedules and recent calendars of the calendar engine
+ *   ({@code gardenplanner.calendar.cache-ttl}). A write evicts only its owner's entries ({@link #evictOwner}).
+ * - Hit/miss/eviction statistics are published through Actuator as the {@code cache.*} metrics.
+ * Objective:
+ * *******************************************************
+ */
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Single plans keyed by owner and id. */
+    public static final String PLAN_BY_ID = "planById";
+
+    /** Plan listings keyed by owner and planting season. */
+    public static final String PLANS_BY_SEASON = "plansBySeason";
+
+    /** Facet counts of an owner's plans, keyed by owner. */
+    public static final String PLAN_FACETS = "planFacets";
+
+    /** Per-season watering schedules and computed calendars, keyed by owner and season or date range. */
+    public static final String PLAN_CALENDAR = "planCalendar";
+
+    /**
+     * Registers the facets cache with its own TTL next to the caches configured by the Caffeine spec.
+     * Writes through this instance evict their owner's entry; the TTL bounds how long writes made elsewhere go unseen.
+     *
+     * @param ttl how long a facets result is served before it is recomputed
+     * @return the customizer applied by Spring Boot to the Caffeine cache manager
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> planFacetsCache(
+            @Value("${gardenplanner.facets.cache-ttl:PT30S}") Duration ttl) {
+        return cacheManager -> cacheManager.registerCustomCache(PLAN_FACETS, Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+    }
+
+    /**
+     * Registers the calendar cache: the per-season schedules and most recently requested date ranges of the
+     * most active owners.
+     * Writes through this instance evict their owner's entries; the TTL bounds how long writes made elsewhere
+     * go unseen.
+     *
+     * @param ttl how long a season schedule or calendar is served before it is recomputed
+     * @return the customizer applied by Spring Boot to the Caffeine cache manager
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> planCalendarCache(
+            @Value("${gardenplanner.calendar.cache-ttl:PT10M}") Duration ttl) {
+        return cacheManager -> cacheManager.registerCustomCache(PLAN_CALENDAR, Caffeine.newBuilder()
+                .maximumSize(2_000)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+    }
+
+    /**
+     * Evicts every entry of one owner from a cache keyed by {@code "<ownerId>:..."} strings, leaving the entries
+     * of other owners in place. The keys of a Caffeine cache are walked; any other cache is cleared.
+     *
+     * @param cacheManager the cache manager holding the cache
+     * @param cacheName    the cache to evict from; nothing happens if it is not configured
+     * @param ownerId      the owner whose entries are evicted
+     */
+    public static void evictOwner(CacheManager cacheManager, String cacheName, String ownerId) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            String prefix = ownerId + ":";
+            caffeine.asMap().keySet().removeIf(key -> key instanceof String name && name.startsWith(prefix));
+        } else {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Evicts an owner's {@link #PLANS_BY_SEASON} listings of the given seasons: those of a plan's season before and
+     * after a write.
+     *
+     * @param cacheManager the cache manager holding the cache
+     * @param ownerId      the owner whose listings are evicted
+     * @param seasons      the seasons to evict; null entries (no plan before an insert) are skipped
+     */
+    public static void evictSeasons(CacheManager cacheManager, String ownerId, Season... seasons) {
+        Cache cache = cacheManager.getCache(PLANS_BY_SEASON);
+        if (cache == null) {
+            return;
+        }
+        for (Season season : seasons) {
+            if (season != null) {
+                cache.evict(ownerId + ":" + season);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.gardenplanner.config;
+
+
+import io.github.cdimascio.dotenv.Dotenv;
+import io.github.cdimascio.dotenv.DotenvEntry;
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.config
+ * File: DotenvEnvironmentPostProcessor.java
+ * Description: Adds the variables of a local {@code .env} file (e.g. MONGODB_URI) to the Spring environment.
+ * - Registered in {@code META-INF/spring.factories}, so it runs while the environment is prepared, before
+ *   {@code application.properties} placeholders are resolved; nothing runs in a static initializer and no
+ *   system property is set.
+ * - The file is optional (there is none on Heroku), and only the variables it declares are added.
+ * - Added with the lowest precedence: real environment variables, system properties and command line
+ *   arguments override it.
+ * Objective:
+ * *******************************************************
+ */
+
+public class DotenvEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    /** Name of the property source holding the {@code .env} variables. */
+    public static final String PROPERTY_SOURCE_NAME = "dotenv";
+
+    // Logged once logging is initialized
+    private final Log log;
+
+    public DotenvEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(DotenvEnvironmentPostProcessor.class);
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        Dotenv dotenv = Dotenv.configure()
+                .ignoreIfMissing()
+                .load();
+
+        Map<String, Object> variables = new LinkedHashMap<>();
+        for (DotenvEntry entry : dotenv.entries(Dotenv.Filter.DECLARED_IN_ENV_FILE)) {
+            variables.put(entry.getKey(), entry.getValue());
+        }
+        if (variables.isEmpty()) {
+            log.debug("No .env file variables found");
+            return;
+        }
+        environment.getPropertySources().addLast(new MapPropertySource(PROPERTY_SOURCE_NAME, variables));
+        log.info("Loaded " + variables.size() + " variable(s) from .env");
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.gardenplanner.config;
+
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.config
+ * File: HttpCachingConfig.java
+ * Description: Weak ETags for the list and search responses of the plan API (servlet mode).
+ * - The ETag is a hash of the response body, so it comes from the data itself: it is the same on every instance
+ *   and across restarts, changes with writes made anywhere (other instances, imports, edits in the database),
+ *   and differs between JSON, Smile and CBOR bodies of the same list.
+ * - The list is still read from MongoDB; a matching {@code If-None-Match} saves sending the body (304).
+ * - Responses that set their own ETag (a single plan's version) keep it. Streamed responses (NDJSON, SSE)
+ *   are not buffered and get no ETag.
+ * - Every response of the plan API carries {@code Vary: Accept}: the same URL answers JSON, Smile or CBOR, so a
+ *   shared cache must not hand one client's format to another ({@code Accept-Encoding} is added by the server's
+ *   compression).
+ * Objective:
+ * *******************************************************
+ */
+
+@Configuration
+@Profile("!reactive")
+public class HttpCachingConfig {
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> planListETagFilter() {
+        ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter();
+        filter.setWriteWeakETag(true);
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/plans/*");
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<Filter> planVaryAcceptFilter() {
+        FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>((request, response, chain) -> {
+            // Set before the body is written, so 304 responses carry it as well
+            ((HttpServletResponse) response).addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            chain.doFilter(request, response);
+        });
+        registration.addUrlPatterns("/api/plans/*");
+        return registration;
+    }
+}
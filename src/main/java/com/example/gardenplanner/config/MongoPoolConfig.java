@@ -0,0 +1,41 @@
+package com.example.gardenplanner.config;
+
+
+import com.example.gardenplanner.repository.MongoPoolBulkhead;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.config
+ * File: MongoPoolConfig.java
+ * Description: Sizes the MongoDB driver connection pool and makes it the bulkhead of every database call.
+ * - {@code gardenplanner.mongo.max-pool-size} connections; takes precedence over a {@code maxPoolSize} option
+ *   in MONGODB_URI.
+ * - Callers wait at most {@code gardenplanner.mongo.bulkhead.max-wait} for a connection.
+ * - Registers the {@link MongoPoolBulkhead} listener, which tracks the callers waiting for a connection.
+ * - Applies to every MongoClient Spring Boot builds: the blocking one, and in the reactive mode the reactive one
+ *   too (each with its own pool of that size); the servlet mode excludes the reactive client (application.properties).
+ * Objective:
+ * *******************************************************
+ */
+
+@Configuration
+public class MongoPoolConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolSizeCustomizer(
+            @Value("${gardenplanner.mongo.max-pool-size:100}") int maxPoolSize,
+            @Value("${gardenplanner.mongo.bulkhead.max-wait:2s}") Duration maxWait,
+            MongoPoolBulkhead bulkhead) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxPoolSize)
+                .maxWaitTime(maxWait.toMillis(), TimeUnit.MILLISECONDS)
+                .addConnectionPoolListener(bulkhead));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.gardenplanner.config;
+
+
+import com.example.gardenplanner.controller.OwnerId;
+import com.example.gardenplanner.controller.OwnerIdArgumentResolver;
+import com.example.gardenplanner.controller.ReactiveOwnerIdArgumentResolver;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.config
+ * File: OwnerIdConfig.java
+ * Description: Registers the {@link OwnerId} argument resolvers with Spring MVC and with WebFlux.
+ * - Each stack has its own configurer: MVC by default, WebFlux with the "reactive" profile.
+ * Objective:
+ * *******************************************************
+ */
+
+@Configuration
+public class OwnerIdConfig {
+
+    // WebMvcConfigurer and WebFluxConfigurer share default method names, so each stack gets its own configurer
+
+    @Configuration
+    @Profile("!reactive")
+    static class Servlet implements WebMvcConfigurer {
+
+        @Override
+        public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+            resolvers.add(new OwnerIdArgumentResolver());
+        }
+    }
+
+    @Configuration
+    @Profile("reactive")
+    static class Reactive implements WebFluxConfigurer {
+
+        @Override
+        public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+            configurer.addCustomResolver(new ReactiveOwnerIdArgumentResolver());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.gardenplanner.config;
+
+
+import com.example.gardenplanner.controller.PlantPlanSnapshotEndpoint;
+import com.example.gardenplanner.model.*;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.config
+ * File: PlantPlanRuntimeHints.java
+ * Description: Reflection hints for an ahead-of-time processed build (see the {@code cds} Maven profile), which
+ * only keeps what the hints declare when compiled to a native image.
+ * - The MongoDB mapping reads and writes the fields of {@link PlantPlan} and builds projections and aggregation
+ *   results ({@link PlantPlanSummary}, {@link PlantPlanRepository.OwnerSeasonCount}) through their constructors.
+ * - Jackson calls the getters and setters Lombok generated at compile time; they are ordinary methods, so
+ *   binding hints on the model types (and the types they reference) cover them.
+ * - {@link DotenvEnvironmentPostProcessor} is instantiated from {@code spring.factories}.
+ * Objective:
+ * *******************************************************
+ */
+
+public class PlantPlanRuntimeHints implements RuntimeHintsRegistrar {
+
+    // Documents, projections, events and API payloads mapped by MongoDB or Jackson
+    private static final Class<?>[] MAPPED_TYPES = {
+            PlantPlan.class,
+            PlantPlanSummary.class,
+            PlantPlanRepository.OwnerSeasonCount.class,
+            PlantPlanChange.class,
+            PlantPlanPage.class,
+            PlantPlanQuery.class,
+            PlantPlanQueryPlan.class,
+            PlantPlanFacets.class,
+            PlantPlanSuggestion.class,
+            PlantPlanCalendar.class,
+            WateringTask.class,
+            WateringSchedule.class,
+            PlantPlanSnapshotJob.class,
+            PlantPlanSnapshotEndpoint.Snapshots.class,
+            BulkWriteReport.class,
+            BulkItemResult.class,
+            Season.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), MAPPED_TYPES);
+        hints.reflection().registerType(DotenvEnvironmentPostProcessor.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.gardenplanner.config;
+
+
+import com.example.gardenplanner.repository.PlantPlanIndexInitializer;
+import com.example.gardenplanner.service.PlantPlanCounters;
+import com.example.gardenplanner.service.PlantPlanSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.config
+ * File: PlantPlanStartupTasks.java
+ * Description: Runs the MongoDB work needed after startup on a background thread, and reports its progress as the
+ * {@code plantPlanStartupTasks} health indicator (part of the readiness group).
+ * - In order: index creation and back-fills ({@link PlantPlanIndexInitializer}), the counter seed
+ *   ({@link PlantPlanCounters}) and the search index load ({@link PlantPlanSearchIndex}).
+ * - The application is ready to serve at once, even when MongoDB is slow or unreachable; until the tasks are done
+ *   counts fall back to MongoDB and suggestions may be incomplete.
+ * - The indicator is OUT_OF_SERVICE while the tasks run and UP afterwards; each task shows as
+ *   {@code pending}, {@code done} or {@code failed}. Failed counters are retried by the periodic reconcile.
+ * Objective:
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class PlantPlanStartupTasks implements HealthIndicator {
+
+    private final PlantPlanIndexInitializer indexInitializer;
+    private final PlantPlanCounters counters;
+    private final PlantPlanSearchIndex searchIndex;
+
+    // Task name -> pending, done or failed
+    private final Map<String, String> states = new ConcurrentHashMap<>();
+    private volatile boolean finished;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param indexInitializer creates the indexes and back-fills old documents
+     * @param counters         the in-memory plan counters to seed
+     * @param searchIndex      the in-memory search index to load
+     */
+    @Autowired
+    public PlantPlanStartupTasks(PlantPlanIndexInitializer indexInitializer,
+                                 PlantPlanCounters counters,
+                                 PlantPlanSearchIndex searchIndex) {
+        this.indexInitializer = indexInitializer;
+        this.counters = counters;
+        this.searchIndex = searchIndex;
+        states.put("indexes", "pending");
+        states.put("counters", "pending");
+        states.put("searchIndex", "pending");
+    }
+
+    /**
+     * Starts the tasks once the application is ready, without holding up the main thread.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread.ofPlatform().name("plantplan-startup").daemon(true).start(this::run);
+    }
+
+    /**
+     * Runs every task in turn; a failing task does not stop the next ones.
+     */
+    void run() {
+        try {
+            run("indexes", indexInitializer::initialize);
+            run("counters", counters::seed);
+            run("searchIndex", searchIndex::load);
+        } finally {
+            finished = true;
+        }
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = finished ? Health.up() : Health.outOfService();
+        return health.withDetails(Map.copyOf(states)).build();
+    }
+
+    private void run(String name, BooleanSupplier task) {
+        boolean done;
+        try {
+            done = task.getAsBoolean();
+        } catch (RuntimeException e) {
+            log.warn("Startup task '{}' failed: {}", name, e.getMessage());
+            done = false;
+        }
+        states.put(name, done ? "done" : "failed");
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.gardenplanner.config;
+
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.config
+ * File: SchedulingConfig.java
+ * Description: Enables {@code @Scheduled} background jobs (e.g. the periodic PlantPlan counter reconcile).
+ * Objective:
+ * *******************************************************
+ */
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
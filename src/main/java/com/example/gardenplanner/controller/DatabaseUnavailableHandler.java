@@ -0,0 +1,35 @@
+package com.example.gardenplanner.controller;
+
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.controller
+ * File: DatabaseUnavailableHandler.java
+ * Description: Maps a MongoDB that cannot be reached in time to HTTP 503 Service Unavailable with a
+ * {@code Retry-After} header, for both the servlet and the reactive controllers.
+ * - Covers a caller that got no pooled connection within {@code gardenplanner.mongo.bulkhead.max-wait}
+ *   (see {@code MongoPoolBulkhead}) and a server that cannot be selected.
+ * Objective:
+ * *******************************************************
+ */
+
+@RestControllerAdvice
+public class DatabaseUnavailableHandler {
+
+    @ExceptionHandler(DataAccessResourceFailureException.class)
+    public ResponseEntity<ProblemDetail> handleDatabaseUnavailable(DataAccessResourceFailureException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                "The database is busy or unreachable, retry later");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(problem);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.gardenplanner.controller;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+
+import java.lang.annotation.*;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.controller
+ * File: OwnerId.java
+ * Description: Marks a controller parameter that receives the owner of the request: the user or garden whose
+ * plans are read and written.
+ * - Bound from the {@value #HEADER} header by {@link OwnerIdArgumentResolver} (servlet) and
+ *   {@link ReactiveOwnerIdArgumentResolver} (reactive profile).
+ * - Requests without the header act on the {@value PlantPlan#DEFAULT_OWNER} plans.
+ * - The header is trusted as sent: deployments with several users set it in the gateway that authenticates them.
+ * Objective:
+ * *******************************************************
+ */
+
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OwnerId {
+
+    /** Request header naming the owner. */
+    String HEADER = "X-Owner-Id";
+}
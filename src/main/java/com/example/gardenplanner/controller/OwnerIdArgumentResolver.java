@@ -0,0 +1,59 @@
+package com.example.gardenplanner.controller;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.regex.Pattern;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.controller
+ * File: OwnerIdArgumentResolver.java
+ * Description: Resolves {@link OwnerId} parameters of Spring MVC controllers from the {@value OwnerId#HEADER} header.
+ * - A missing or blank header resolves to {@value PlantPlan#DEFAULT_OWNER}.
+ * - Owner ids are 1 to 64 letters, digits, '.', '_', '@' or '-'; anything else is rejected with 400 Bad Request
+ *   before it reaches a query or a cache key.
+ * Objective:
+ * *******************************************************
+ */
+
+public class OwnerIdArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final Pattern VALID_OWNER_ID = Pattern.compile("[A-Za-z0-9._@-]{1,64}");
+
+    /**
+     * Validates the owner sent by a client.
+     *
+     * @param header the header value, or null if it was not sent
+     * @return the owner id
+     * @throws ResponseStatusException (400) if the value is not a valid owner id
+     */
+    public static String resolve(String header) {
+        if (header == null || header.isBlank()) {
+            return PlantPlan.DEFAULT_OWNER;
+        }
+        String ownerId = header.trim();
+        if (!VALID_OWNER_ID.matcher(ownerId).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + OwnerId.HEADER + " header");
+        }
+        return ownerId;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(OwnerId.class) && parameter.getParameterType() == String.class;
+    }
+
+    @Override
+    public String resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        return resolve(webRequest.getHeader(OwnerId.HEADER));
+    }
+}
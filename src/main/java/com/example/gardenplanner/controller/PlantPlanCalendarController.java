@@ -0,0 +1,67 @@
+package com.example.gardenplanner.controller;
+
+
+import com.example.gardenplanner.model.PlantPlanCalendar;
+import com.example.gardenplanner.service.PlantPlanCalendarService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.controller
+ * File: PlantPlanCalendarController.java
+ * Description: REST endpoint of the planting calendar: plans in season and watering tasks over a date range.
+ * - Without parameters it returns the current week (Monday to Sunday), the memoized hot path.
+ * - Servlet (blocking) mode only.
+ * Objective:
+ * *******************************************************
+ */
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/plans/calendar")
+public class PlantPlanCalendarController {
+
+    // Dependency on the calendar engine
+    private final PlantPlanCalendarService calendarService;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param calendarService the calendar engine
+     */
+    @Autowired
+    public PlantPlanCalendarController(PlantPlanCalendarService calendarService) {
+        this.calendarService = calendarService;
+    }
+
+    /**
+     * Returns what to plant and what to water between two dates.
+     * Example: GET /api/plans/calendar?from=2026-10-19&to=2026-10-25
+     *
+     * @param ownerId the owner whose plans are scheduled
+     * @param from    first day (ISO date); defaults to the Monday of the current week
+     * @param to      last day, inclusive (ISO date); defaults to six days after {@code from}
+     * @return the {@link PlantPlanCalendar}, or 400 Bad Request if the range is empty or longer than
+     *         {@value PlantPlanCalendarService#MAX_DAYS} days
+     */
+    @GetMapping
+    public ResponseEntity<PlantPlanCalendar> getCalendar(
+            @OwnerId String ownerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now().with(DayOfWeek.MONDAY);
+        LocalDate end = to != null ? to : start.plusDays(6);
+        try {
+            return ResponseEntity.ok(calendarService.getCalendar(ownerId, start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,15 +1,47 @@
 package com.example.gardenplanner.controller;
 
 
+import com.example.gardenplanner.config.BinaryFormatsConfig;
+import com.example.gardenplanner.model.BulkWriteReport;
 import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanFacets;
+import com.example.gardenplanner.model.PlantPlanPage;
+import com.example.gardenplanner.model.PlantPlanQuery;
+import com.example.gardenplanner.model.PlantPlanSuggestion;
+import com.example.gardenplanner.model.PlantPlanSummary;
 import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.service.InvalidPatchException;
+import com.example.gardenplanner.service.PlantPlanBulkService;
+import com.example.gardenplanner.service.PlantPlanChangeFeed;
+import com.example.gardenplanner.service.PlantPlanPatchService;
+import com.example.gardenplanner.service.PlantPlanQueryService;
+import com.example.gardenplanner.service.PlantPlanSearchIndex;
 import com.example.gardenplanner.service.PlantPlanService;
+import com.example.gardenplanner.service.PlantPlanWriteBehindQueue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * *******************************************************
@@ -20,25 +52,84 @@ import java.util.List;
  * Description:  REST Controller for mapping HTTP's Requests' URL's with Java methods.
  * - Used for managing Plant planner data.
  * - Talks to Web Client and Service layer.
+ * - Every endpoint acts on the plans of one owner, named by the {@value OwnerId#HEADER} header (see {@link OwnerId}).
+ * - Servlet (blocking) mode; the "reactive" profile replaces it with {@link ReactivePlantPlanController}.
+ * - Single plans carry their version as a strong ETag (conditional GET with If-None-Match, If-Match on PUT);
+ *   list endpoints get a weak ETag of their response body (see {@link com.example.gardenplanner.config.HttpCachingConfig}).
+ * - With write-behind enabled ({@link PlantPlanWriteBehindQueue}), creates and updates without If-Match are queued
+ *   and answered with 202 Accepted and the plan's id, before they reach MongoDB. Deletes drop, and PATCH and
+ *   conditional PUT first write, the plan's queued write, so it cannot overwrite them later.
  * Objective:
  * *******************************************************
  */
 
+@Slf4j
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/plans")
 public class PlantPlanController {
+    // Values of the "view" request parameter on list endpoints
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_SUMMARY = "summary";
+
+    // Upper bound on the number of /suggest results
+    private static final int MAX_SUGGESTIONS = 50;
+
     // Dependency on the PlantPlanService to delegate business logic
     private final PlantPlanService service;
 
+    // Dependency on the bulk import service for batched writes
+    private final PlantPlanBulkService bulkService;
+
+    // Dependency on the partial update service for PATCH
+    private final PlantPlanPatchService patchService;
+
+    // Dependency on the combined query service for /query
+    private final PlantPlanQueryService queryService;
+
+    // Dependency on the change feed for /changes
+    private final PlantPlanChangeFeed changeFeed;
+
+    // Dependency on the in-memory search index for /suggest
+    private final PlantPlanSearchIndex searchIndex;
+
+    // Dependency on the write-behind queue, used for creates and updates when it is enabled
+    private final PlantPlanWriteBehindQueue writeBehind;
+
+    // Writer used to serialize plans one by one for the NDJSON stream
+    private final ObjectWriter planWriter;
+
     /**
      * Constructor-based dependency injection for the PlantPlanService.
      * Spring will automatically inject the required bean at runtime.
      *
-     * @param service the service handling PlantPlan-related operations
+     * @param service      the service handling PlantPlan-related operations
+     * @param bulkService  the service handling bulk imports
+     * @param patchService the service handling partial updates
+     * @param queryService the service handling combined queries
+     * @param changeFeed   the feed of plan changes streamed to SSE clients
+     * @param searchIndex  the in-memory typo-tolerant name index
+     * @param writeBehind  the queue of writes acknowledged before they reach MongoDB
+     * @param objectMapper the application's Jackson mapper, reused for NDJSON streaming
      */
     @Autowired
-    public PlantPlanController(PlantPlanService service) {
+    public PlantPlanController(PlantPlanService service,
+                               PlantPlanBulkService bulkService,
+                               PlantPlanPatchService patchService,
+                               PlantPlanQueryService queryService,
+                               PlantPlanChangeFeed changeFeed,
+                               PlantPlanSearchIndex searchIndex,
+                               PlantPlanWriteBehindQueue writeBehind,
+                               ObjectMapper objectMapper) {
         this.service = service;
+        this.bulkService = bulkService;
+        this.patchService = patchService;
+        this.queryService = queryService;
+        this.changeFeed = changeFeed;
+        this.searchIndex = searchIndex;
+        this.writeBehind = writeBehind;
+        this.planWriter = objectMapper.writerFor(PlantPlan.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     /**-------------------------------------------------------------
@@ -49,60 +140,203 @@ public class PlantPlanController {
     /**
      * Adds a new PlantPlan to the database.
      *
-     * @param plan The PlantPlan object received in the request body.
-     * @return The saved {@link PlantPlan} object.
+     * @param ownerId The owner the plan is added for.
+     * @param plan    The PlantPlan object received in the request body.
+     * @return The saved {@link PlantPlan} object, 409 Conflict if a plan with its id already exists,
+     *         or with write-behind 202 Accepted and the queued plan (its id, no version yet),
+     *         or 503 Service Unavailable if the write-behind queue is full.
      */
     @PostMapping("/add-plan")
-    public PlantPlan addPlan(@Valid @RequestBody PlantPlan plan){
-        return service.addPlantPlans(plan);
+    public ResponseEntity<PlantPlan> addPlan(@OwnerId String ownerId, @Valid @RequestBody PlantPlan plan){
+        if (writeBehind.isEnabled()) {
+            return ResponseEntity.accepted().body(writeBehind.add(ownerId, plan));
+        }
+        return ResponseEntity.ok(service.addPlantPlans(ownerId, plan));
+    }
+
+    /**
+     * Adds or replaces many PlantPlans in one request, using unordered MongoDB bulk writes.
+     * <p>
+     * The body is either a JSON array ({@code application/json}) or one plan per line
+     * ({@code application/x-ndjson}); Smile and CBOR clients send an array or a sequence of plans in their format.
+     * It is read as a stream, so very large imports do not need to fit in memory.
+     * Plans without an id are inserted, plans with an id are upserted; of two items with the same id in one batch,
+     * the later is written.
+     * Example: POST /bulk
+     *
+     * @param ownerId     the owner of every imported plan
+     * @param body        the raw request body
+     * @param contentType the media type of the body
+     * @return a {@link BulkWriteReport} with totals, {@code {index, id, status}} per item and the items that were
+     *         not written, in request order
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            BinaryFormatsConfig.APPLICATION_SMILE_VALUE, BinaryFormatsConfig.APPLICATION_CBOR_VALUE})
+    public BulkWriteReport addPlansInBulk(@OwnerId String ownerId,
+                                          InputStream body,
+                                          @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) throws IOException {
+        return bulkService.importPlans(ownerId, body, contentType);
     }
 
     /**
      * Retrieves all PlantPlans from the database.
+     * <p>
+     * Example: GET ?view=summary returns {@link PlantPlanSummary} objects (id, name, plantingSeason) only.
      *
-     * @return A list of all {@link PlantPlan} objects.
+     * @param ownerId the owner whose plans are listed
+     * @param view    {@code summary} for the summary projection; anything else returns full plans
+     * @return A list of all {@link PlantPlan} (or {@link PlantPlanSummary}) objects.
      */
     @GetMapping
-    public List<PlantPlan> getAllPlans(){
-        return service.getAllPlantPlans();
+    public List<?> getAllPlans(@OwnerId String ownerId,
+                               @RequestParam(defaultValue = VIEW_FULL) String view){
+        return isSummary(view) ? service.getAllPlantPlanSummaries(ownerId) : service.getAllPlantPlans(ownerId);
+    }
+
+    /**
+     * Retrieves one page of PlantPlans using keyset (cursor) pagination.
+     * <p>
+     * Example: GET /page?size=100, then GET /page?size=100&cursor={nextCursor} until nextCursor is null.
+     *
+     * @param ownerId the owner whose plans are listed
+     * @param cursor  the {@code nextCursor} returned with the previous page (omit for the first page)
+     * @param size    the number of plans per page (capped at {@link PlantPlanService#MAX_PAGE_SIZE})
+     * @return a {@link PlantPlanPage} with the plans and the cursor of the next page
+     */
+    @GetMapping("/page")
+    public PlantPlanPage getPlansPage(@OwnerId String ownerId,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "" + PlantPlanService.DEFAULT_PAGE_SIZE) int size){
+        return service.getPlantPlanPage(ownerId, cursor, size);
+    }
+
+    /**
+     * Streams all PlantPlans as newline-delimited JSON (NDJSON), one plan per line.
+     * <p>
+     * Plans are written to the response as they are read from the MongoDB cursor,
+     * so server memory stays flat no matter how large the collection is.
+     * Example: GET /stream
+     *
+     * @param ownerId the owner whose plans are streamed
+     * @return a {@link StreamingResponseBody} writing {@code application/x-ndjson}
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAllPlans(@OwnerId String ownerId){
+        return outputStream -> {
+            try (Stream<PlantPlan> plans = service.streamAllPlantPlans(ownerId)) {
+                for (PlantPlan plan : (Iterable<PlantPlan>) plans::iterator) {
+                    planWriter.writeValue(outputStream, plan);
+                    outputStream.write('\n');
+                }
+            }
+        };
+    }
+
+    /**
+     * Streams plan inserts, updates and deletes as server-sent events, instead of polling GET /api/plans.
+     * <p>
+     * Each event is named {@code insert}, {@code update} or {@code delete} and carries a {@code PlantPlanChange}.
+     * Browsers' EventSource reconnects with {@code Last-Event-ID} and receives the changes it missed;
+     * a {@code reset} event means they are no longer available and the client should reload.
+     * Example: GET /changes
+     *
+     * @param ownerId     the owner whose plan changes are streamed
+     * @param lastEventId the id of the last event the client received, when reconnecting
+     * @return the {@link SseEmitter} streaming {@code text/event-stream}
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@OwnerId String ownerId,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId){
+        return changeFeed.subscribe(ownerId, lastEventId);
     }
 
     /**
      * Retrieves a specific PlantPlan by its unique ID.
      *
-     * @param id The unique identifier of the PlantPlan.
-     * @return A {@link ResponseEntity} containing the PlantPlan if found,
-     *         or a 404 Not Found status if not.
+     * @param ownerId The owner of the PlantPlan.
+     * @param id      The unique identifier of the PlantPlan.
+     * @return A {@link ResponseEntity} containing the PlantPlan if found, with its version as ETag
+     *         (304 Not Modified, without a body, if it matches {@code If-None-Match}),
+     *         or a 404 Not Found status if not (also for another owner's plan).
      */
     @GetMapping("/{id}")
-    public ResponseEntity<PlantPlan> getPlanById(@PathVariable String id){
-        return service.getPlantPlanById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<PlantPlan> getPlanById(@OwnerId String ownerId, @PathVariable String id){
+        // Spring MVC compares the ETag with If-None-Match before the body is serialized
+        return service.getPlantPlanById(ownerId, id)
+                .map(plan -> ResponseEntity.ok().eTag(planETag(plan)).body(plan))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
      * Updates an existing PlantPlan by its unique identifier.
+     * <p>
+     * With {@code If-Match: "<version>"} (the ETag from a previous GET) the update is only applied
+     * if nobody changed the plan since; {@code If-Match: *} only updates a plan that exists.
+     * Example: PUT /{id} with If-Match: "3"
      *
-     * @param id   The unique identifier of the PlantPlan to update.
-     * @param plan The updated PlantPlan data received in the request body.
-     * @return The updated {@link PlantPlan} object after saving to the database.
+     * @param ownerId The owner of the PlantPlan.
+     * @param id      The unique identifier of the PlantPlan to update.
+     * @param plan    The updated PlantPlan data received in the request body.
+     * @param ifMatch the optional If-Match header
+     * @return The updated {@link PlantPlan} object after saving to the database, with its new ETag,
+     *         412 Precondition Failed if the If-Match condition does not hold,
+     *         or 404 Not Found if the id belongs to another owner's plan.
+     *         With write-behind and no If-Match: 202 Accepted and the queued plan (no version yet).
      */
     @PutMapping("/{id}")
-    public PlantPlan updatePlan(@PathVariable String id,
-                                @RequestBody PlantPlan plan){
-        return service.updatePlantPlan(id, plan);
+    public ResponseEntity<PlantPlan> updatePlan(@OwnerId String ownerId,
+                                                @PathVariable String id,
+                                                @RequestBody PlantPlan plan,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        if (ifMatch == null && writeBehind.isEnabled()) {
+            // Conditional updates need the stored version, so only unconditional ones are queued
+            return ResponseEntity.accepted().body(writeBehind.update(ownerId, id, plan));
+        }
+        writeBehind.flush(ownerId, id);
+        // Any If-Match, * included, only allows updating a plan that exists
+        PlantPlan saved = service.updatePlantPlan(ownerId, id, plan, ifMatchVersion(ifMatch), ifMatch != null);
+        return ResponseEntity.ok().eTag(planETag(saved)).body(saved);
+    }
+
+    /**
+     * Changes only the given fields of a PlantPlan (JSON Merge Patch): a value replaces the field,
+     * {@code null} removes it, and fields that are left out stay as they are.
+     * <p>
+     * Example: PATCH /{id} with {"wateringFreq": "Every 3 days"}, optionally with If-Match: "3"
+     *
+     * @param ownerId The owner of the PlantPlan.
+     * @param id      The unique identifier of the PlantPlan to patch.
+     * @param patch   The fields to change.
+     * @param ifMatch the optional If-Match header
+     * @return The patched {@link PlantPlan} with its new ETag, 404 Not Found if there is no such plan,
+     *         400 Bad Request with the list of problems if the patch is invalid,
+     *         or 412 Precondition Failed if the If-Match condition does not hold
+     *         (like PUT, also for any If-Match, {@code *} included, on a plan that does not exist).
+     */
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<PlantPlan> patchPlan(@OwnerId String ownerId,
+                                               @PathVariable String id,
+                                               @RequestBody ObjectNode patch,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        writeBehind.flush(ownerId, id);
+        return patchService.patchPlantPlan(ownerId, id, patch, ifMatchVersion(ifMatch))
+                .map(plan -> ResponseEntity.ok().eTag(planETag(plan)).body(plan))
+                .orElseGet(() -> ResponseEntity.status(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.NOT_FOUND)
+                        .build());
     }
 
     /**
      * Deletes a PlantPlan by its unique identifier.
      *
-     * @param id The unique identifier of the PlantPlan to delete.
+     * @param ownerId The owner of the PlantPlan.
+     * @param id      The unique identifier of the PlantPlan to delete.
      * @return A {@link ResponseEntity} with HTTP status 204 No Content.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletePlan(@PathVariable String id){
-        service.deletePlantPlan(id);
+    public ResponseEntity<Void> deletePlan(@OwnerId String ownerId, @PathVariable String id){
+        writeBehind.discard(ownerId, id);
+        service.deletePlantPlan(ownerId, id);
         return ResponseEntity.noContent().build();
     }
 
@@ -117,12 +351,18 @@ public class PlantPlanController {
      * <p>
      * Example: GET /season/SUMMER
      *
-     * @param season the planting season (must match the {@link Season} enum exactly or use case-insensitive mapping)
+     * @param ownerId the owner whose plans are listed
+     * @param season  the planting season (must match the {@link Season} enum exactly or use case-insensitive mapping)
+     * @param view    {@code summary} for the {@link PlantPlanSummary} projection; anything else returns full plans
      * @return a list of plant plans matching the specified season
      */
     @GetMapping("/season/{season}")
-    public List<PlantPlan> getByPlantingSeason(@PathVariable Season season){
-        return service.findByPlantingSeason(season);
+    public List<?> getByPlantingSeason(@OwnerId String ownerId,
+                                       @PathVariable Season season,
+                                       @RequestParam(defaultValue = VIEW_FULL) String view){
+        return isSummary(view)
+                ? service.findSummariesByPlantingSeason(ownerId, season)
+                : service.findByPlantingSeason(ownerId, season);
     }
 
     /**
@@ -130,12 +370,18 @@ public class PlantPlanController {
      * <p>
      * Example: GET /sunlight/Full%20Sun
      *
+     * @param ownerId  the owner whose plans are listed
      * @param sunlight the sunlight requirement (e.g., "Full Sun", "Partial Shade")
+     * @param view     {@code summary} for the {@link PlantPlanSummary} projection; anything else returns full plans
      * @return a list of plant plans matching the sunlight condition
      */
     @GetMapping("/sunlight/{sunlight}")
-    public List<PlantPlan> getBySunlightNeeds(@PathVariable String sunlight){
-        return service.findBySunlightNeeds(sunlight);
+    public List<?> getBySunlightNeeds(@OwnerId String ownerId,
+                                      @PathVariable String sunlight,
+                                      @RequestParam(defaultValue = VIEW_FULL) String view){
+        return isSummary(view)
+                ? service.findSummariesBySunlightNeeds(ownerId, sunlight)
+                : service.findBySunlightNeeds(ownerId, sunlight);
     }
 
     /**
@@ -143,12 +389,53 @@ public class PlantPlanController {
      * <p>
      * Example: GET /watering/search?keyword=weekly
      *
+     * @param ownerId the owner whose plans are searched
      * @param keyword the search term to look for within watering frequency
      * @return a list of plant plans with watering frequencies containing the keyword
      */
     @GetMapping("/watering/search")
-    public List<PlantPlan> searchByWateringFreq(@RequestParam String keyword){
-        return service.searchByWateringFreq(keyword);
+    public List<PlantPlan> searchByWateringFreq(@OwnerId String ownerId,
+                                                @RequestParam String keyword){
+        return service.searchByWateringFreq(ownerId, keyword);
+    }
+
+    /**
+     * Finds plans matching any combination of filters in a single MongoDB query, with sort and limit.
+     * <p>
+     * Example: GET /query?season=summer&sunlight=Full%20Sun&name=basil&sort=name&limit=20
+     * The query plan is available to operators only, from the {@link PlantPlanQueryEndpoint}.
+     *
+     * @param ownerId the owner whose plans are searched
+     * @param query   the filters (season, sunlight, watering, name), sort (name, season, sunlight, id;
+     *                "-" prefix for descending) and limit
+     * @param view    {@code summary} for the {@link PlantPlanSummary} projection; anything else returns full plans
+     * @return the matching plans, or 400 Bad Request if the season or sort field is unknown
+     */
+    @GetMapping("/query")
+    public ResponseEntity<?> queryPlans(@OwnerId String ownerId,
+                                        PlantPlanQuery query,
+                                        @RequestParam(defaultValue = VIEW_FULL) String view) {
+        try {
+            return ResponseEntity.ok(isSummary(view)
+                    ? queryService.findSummaries(ownerId, query)
+                    : queryService.find(ownerId, query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Returns the plan counts per planting season, sunlight requirement and watering frequency
+     * for dashboards, computed in one aggregation and cached briefly.
+     * <p>
+     * Example: GET /facets
+     *
+     * @param ownerId the owner whose plans are counted
+     * @return the {@link PlantPlanFacets}
+     */
+    @GetMapping("/facets")
+    public PlantPlanFacets getFacets(@OwnerId String ownerId) {
+        return queryService.facets(ownerId);
     }
 
     /**
@@ -156,13 +443,22 @@ public class PlantPlanController {
      * <p>
      * Example: GET /count/season/SUMMER
      *
-     * @param season the planting season (e.g., "SPRING", "AUTUMN")
-     * @return the number of plant plans for the given season
+     * @param ownerId the owner whose plans are counted
+     * @param season  the planting season, case-insensitive (e.g., "SPRING", "autumn")
+     * @return the number of plant plans for the given season,
+     *         or a 400 Bad Request status if the season is unknown
      */
     @GetMapping("/count/season/{season}")
-    public long countByPlantingSeason(@PathVariable String season) {
-        System.out.println( "Plant Count in " + season + ": ");
-        return  service.countByPlantingSeason(season);
+    public ResponseEntity<Long> countByPlantingSeason(@OwnerId String ownerId, @PathVariable String season) {
+        Season plantingSeason;
+        try {
+            plantingSeason = Season.fromString(season);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        long count = service.countByPlantingSeason(ownerId, plantingSeason);
+        log.debug("Plant count in {}: {}", plantingSeason, count);
+        return ResponseEntity.ok(count);
     }
 
     /**
@@ -170,25 +466,125 @@ public class PlantPlanController {
      * <p>
      * Example: GET /search?keyword=lavender
      *
+     * @param ownerId the owner whose plans are searched
      * @param keyword the search term to look for in the plant name
+     * @param view    {@code summary} for the {@link PlantPlanSummary} projection; anything else returns full plans
      * @return a list of matching plant plans
      */
     @GetMapping("/search")
-    public List<PlantPlan> searchByName(@RequestParam String keyword) {
-        return service.searchByName(keyword);
+    public List<?> searchByName(@OwnerId String ownerId,
+                                @RequestParam String keyword,
+                                @RequestParam(defaultValue = VIEW_FULL) String view) {
+        return isSummary(view)
+                ? service.searchSummariesByName(ownerId, keyword)
+                : service.searchByName(ownerId, keyword);
+    }
+
+    /**
+     * Ranked, typo-tolerant name suggestions for search-as-you-type, served from memory.
+     * <p>
+     * Example: GET /suggest?q=tomatoe&limit=5 (finds "Tomato"); notes are searched too, with a lower weight.
+     *
+     * @param ownerId the owner whose plans are searched
+     * @param q       the text typed so far
+     * @param limit   the maximum number of suggestions (at most {@value #MAX_SUGGESTIONS})
+     * @return the suggestions, best first
+     */
+    @GetMapping("/suggest")
+    public List<PlantPlanSuggestion> suggest(@OwnerId String ownerId,
+                                             @RequestParam String q,
+                                             @RequestParam(defaultValue = "10") int limit) {
+        return searchIndex.search(ownerId, q, Math.min(limit, MAX_SUGGESTIONS));
     }
 
     /**
-     * Returns the total number of {@link PlantPlan} entries available in the database.
+     * Returns the total number of {@link PlantPlan} entries of the owner available in the database.
      * <p>
      * Example: GET /count/all
      *
+     * @param ownerId the owner whose plans are counted
      * @return the total count of plant plans
      */
     @GetMapping("/count/all")
-    public long getTotalPlansCount() {
-        return service.getTotalPlansCount();
+    public long getTotalPlansCount(@OwnerId String ownerId) {
+        return service.getTotalPlansCount(ownerId);
+    }
+
+    /**
+     * Maps a version conflict to 412 Precondition Failed when the client sent If-Match,
+     * and to 409 Conflict otherwise.
+     *
+     * @param e       the conflict raised by the service or by MongoDB's version check
+     * @param request the current request
+     * @return an empty 412 or 409 response
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleVersionConflict(OptimisticLockingFailureException e, WebRequest request) {
+        log.debug("PlantPlan version conflict: {}", e.getMessage());
+        HttpStatus status = request.getHeader(HttpHeaders.IF_MATCH) != null
+                ? HttpStatus.PRECONDITION_FAILED
+                : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).build();
+    }
+
+    /**
+     * Maps an insert under an id that is already taken (POST /add-plan with an existing id) to 409 Conflict.
+     * A PUT to an id of another owner's plan is answered 404 Not Found instead ({@link PlanIdTakenException}).
+     *
+     * @param e the duplicate key error raised by the insert
+     * @return an empty 409 response
+     */
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<Void> handleDuplicateId(DuplicateKeyException e) {
+        log.debug("PlantPlan id already taken: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Reports every problem of an invalid patch.
+     *
+     * @param e the rejected patch
+     * @return 400 Bad Request with one "field: message" entry per problem
+     */
+    @ExceptionHandler(InvalidPatchException.class)
+    public ResponseEntity<List<String>> handleInvalidPatch(InvalidPatchException e) {
+        return ResponseEntity.badRequest().body(e.getErrors());
+    }
+
+    // Strong ETag of a single plan: its version; also used by ReactivePlantPlanController
+    static String planETag(PlantPlan plan) {
+        return "\"" + plan.getVersion() + "\"";
     }
 
+    /**
+     * Reads the version a write is conditional on from the If-Match header.
+     *
+     * @param ifMatch the header value, or null if it was not sent
+     * @return the expected version, or null if there is no header or it is {@code *}
+     * @throws OptimisticLockingFailureException if the header can never match a plan version
+     *                                           (weak or non-numeric ETag), which is answered with 412
+     */
+    static Long ifMatchVersion(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        ETag condition = ETag.parse(ifMatch).stream().findFirst().orElse(null);
+        if (condition != null && condition.isWildcard()) {
+            return null;
+        }
+        // If-Match uses the strong comparison: weak tags never match
+        try {
+            if (condition != null && !condition.weak()) {
+                return Long.valueOf(condition.tag());
+            }
+        } catch (NumberFormatException e) {
+            // falls through to the failure below
+        }
+        throw new OptimisticLockingFailureException("If-Match " + ifMatch + " does not name a plan version");
+    }
 
+    // True if the client asked for the PlantPlanSummary projection
+    private static boolean isSummary(String view) {
+        return VIEW_SUMMARY.equalsIgnoreCase(view);
+    }
 }
@@ -0,0 +1,71 @@
+package com.example.gardenplanner.controller;
+
+
+import com.example.gardenplanner.model.PlantPlanQuery;
+import com.example.gardenplanner.model.PlantPlanQueryPlan;
+import com.example.gardenplanner.service.PlantPlanQueryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.controller
+ * File: PlantPlanQueryEndpoint.java
+ * Description: Admin-only actuator endpoint explaining how a combined plan query is executed.
+ * - {@code GET /actuator/planquery/{ownerId}?season=..&sunlight=..&watering=..&name=..&sort=..&limit=..} returns the
+ *   {@link PlantPlanQueryPlan}: the hinted index, the filter and sort sent to MongoDB and MongoDB's query planner
+ *   output, which names indexes and other internals not meant for API clients.
+ * - Not exposed by default; add {@code planquery} to {@code management.endpoints.web.exposure.include}, on a
+ *   management port or behind authentication that only operators can reach.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+@Endpoint(id = "planquery")
+public class PlantPlanQueryEndpoint {
+
+    private final PlantPlanQueryService queryService;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param queryService the service planning and explaining combined queries
+     */
+    @Autowired
+    public PlantPlanQueryEndpoint(PlantPlanQueryService queryService) {
+        this.queryService = queryService;
+    }
+
+    /**
+     * Explains the combined query of an owner, without returning any plans.
+     *
+     * @param ownerId  the owner whose plans would be searched
+     * @param season   planting season filter
+     * @param sunlight sunlight requirement filter
+     * @param watering keyword the watering frequency must contain
+     * @param name     keyword the name must contain
+     * @param sort     sort field, "-" prefix for descending
+     * @param limit    maximum number of plans
+     * @return the query plan; 400 Bad Request if the season or sort field is unknown
+     */
+    @ReadOperation
+    public PlantPlanQueryPlan explain(@Selector String ownerId,
+                                      @Nullable String season,
+                                      @Nullable String sunlight,
+                                      @Nullable String watering,
+                                      @Nullable String name,
+                                      @Nullable String sort,
+                                      @Nullable Integer limit) {
+        try {
+            return queryService.explain(ownerId, new PlantPlanQuery(season, sunlight, watering, name, sort, limit));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.gardenplanner.controller;
+
+
+import com.example.gardenplanner.service.PlantPlanRateLimiter;
+import com.example.gardenplanner.service.PlantPlanRateLimiter.Decision;
+import com.example.gardenplanner.service.PlantPlanRateLimiter.Tier;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.controller
+ * File: PlantPlanRateLimitFilter.java
+ * Description: Applies the {@link PlantPlanRateLimiter} to every {@code /api/plans} request.
+ * - The client is the {@value #API_KEY_HEADER} header when it names one of {@code gardenplanner.rate-limit.api-keys},
+ *   otherwise the client IP address (behind Heroku's router or another proxy, Spring Boot takes it from
+ *   {@code X-Forwarded-For}). Unknown keys are ignored, so sending a new key on every request gets no fresh bucket.
+ * - Routes matching {@code gardenplanner.rate-limit.expensive-paths} (full listings, searches, bulk imports)
+ *   use the expensive budget; all others the cheap one.
+ * - Rejected requests get 429 Too Many Requests with {@code Retry-After} (seconds) before reaching a controller.
+ * - Request latencies feed load shedding. Responses whose duration grows with their size or stays open for minutes
+ *   (/changes, /stream, /bulk) are left out, so they do not shed the short requests.
+ * - Servlet (blocking) mode only; disable with {@code gardenplanner.rate-limit.enabled=false}.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "gardenplanner.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class PlantPlanRateLimitFilter extends OncePerRequestFilter {
+
+    /** Header identifying a client by API key. */
+    public static final String API_KEY_HEADER = "X-Api-Key";
+
+    private static final String API_PREFIX = "/api/plans";
+
+    // Long-lived or size-bound responses say nothing about how loaded the instance is
+    private static final List<PathPattern> UNTIMED = List.of(
+            PathPatternParser.defaultInstance.parse(API_PREFIX + "/changes"),
+            PathPatternParser.defaultInstance.parse(API_PREFIX + "/stream"),
+            PathPatternParser.defaultInstance.parse(API_PREFIX + "/bulk"));
+
+    private final PlantPlanRateLimiter rateLimiter;
+    private final List<PathPattern> expensivePaths;
+    private final Set<String> apiKeys;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param rateLimiter    the limiter deciding on each request
+     * @param expensivePaths path patterns of the routes using the expensive budget
+     * @param apiKeys        API keys that get a bucket of their own; any other key is rate limited by address
+     */
+    @Autowired
+    public PlantPlanRateLimitFilter(PlantPlanRateLimiter rateLimiter,
+                                    @Value("${gardenplanner.rate-limit.expensive-paths}") List<String> expensivePaths,
+                                    @Value("${gardenplanner.rate-limit.api-keys:}") Set<String> apiKeys) {
+        this.rateLimiter = rateLimiter;
+        this.expensivePaths = expensivePaths.stream()
+                .map(String::trim)
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        this.apiKeys = apiKeys.stream()
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        Tier tier = matches(expensivePaths, path) ? Tier.EXPENSIVE : Tier.CHEAP;
+
+        Decision decision = rateLimiter.tryAcquire(client(request), tier);
+        if (!decision.allowed()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "shed".equals(decision.reason())
+                    ? "The service is overloaded, please retry later"
+                    : "Too many requests, please retry later");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (!matches(UNTIMED, path)) {
+                rateLimiter.recordLatency(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private String client(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        return apiKey != null && apiKeys.contains(apiKey)
+                ? "key:" + apiKey
+                : "ip:" + request.getRemoteAddr();
+    }
+
+    private static boolean matches(List<PathPattern> patterns, PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
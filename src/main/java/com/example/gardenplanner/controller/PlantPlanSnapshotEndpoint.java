@@ -0,0 +1,111 @@
+package com.example.gardenplanner.controller;
+
+
+import com.example.gardenplanner.model.PlantPlanSnapshotJob;
+import com.example.gardenplanner.service.PlantPlanSnapshotService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.controller
+ * File: PlantPlanSnapshotEndpoint.java
+ * Description: Admin-only actuator endpoint starting and following snapshot (backup / restore) jobs of the
+ * plantplans collection. Snapshots cover every owner, so they are not part of the public plan API.
+ * - {@code GET /actuator/plansnapshots} lists the snapshot files and the jobs.
+ * - {@code POST /actuator/plansnapshots} with {@code {"action": "export"}} or
+ *   {@code {"action": "import", "file": "..."}} starts a job in the background and answers 202 Accepted with it.
+ * - {@code GET /actuator/plansnapshots/{jobId}} returns the status and progress of a job.
+ * - Not exposed by default; add {@code plansnapshots} to {@code management.endpoints.web.exposure.include}, on a
+ *   management port or behind authentication that only operators can reach.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+@WebEndpoint(id = "plansnapshots")
+public class PlantPlanSnapshotEndpoint {
+
+    /** Action starting an export. */
+    public static final String EXPORT = "export";
+
+    /** Action starting an import. */
+    public static final String IMPORT = "import";
+
+    // Dependency on the snapshot service running the jobs
+    private final PlantPlanSnapshotService snapshotService;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param snapshotService the service running export and import jobs
+     */
+    @Autowired
+    public PlantPlanSnapshotEndpoint(PlantPlanSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    /**
+     * Lists the snapshot files available for import and the known jobs.
+     *
+     * @return the file names, newest first, and the jobs, most recent first
+     * @throws IOException if the snapshots cannot be listed
+     */
+    @ReadOperation
+    public Snapshots snapshots() throws IOException {
+        return new Snapshots(snapshotService.listSnapshots(), snapshotService.getJobs());
+    }
+
+    /**
+     * Returns the status and progress of a job.
+     *
+     * @param jobId the job id
+     * @return the job, or 404 Not Found if it is unknown (or finished long ago)
+     */
+    @ReadOperation
+    public WebEndpointResponse<PlantPlanSnapshotJob> job(@Selector String jobId) {
+        return snapshotService.getJob(jobId)
+                .map(WebEndpointResponse::new)
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    /**
+     * Starts an export of the whole collection, or an import of a snapshot file (every document upserted by id).
+     *
+     * @param action {@value #EXPORT} or {@value #IMPORT}
+     * @param file   for an import, the snapshot file name as listed by {@link #snapshots()}
+     * @return 202 Accepted with the job, or 400 Bad Request for an unknown action or snapshot
+     */
+    @WriteOperation
+    public WebEndpointResponse<PlantPlanSnapshotJob> start(String action, @Nullable String file) {
+        try {
+            PlantPlanSnapshotJob job = switch (action) {
+                case EXPORT -> snapshotService.startExport();
+                case IMPORT -> snapshotService.startImport(file);
+                default -> throw new IllegalArgumentException("Unknown snapshot action: " + action);
+            };
+            return new WebEndpointResponse<>(job, HttpStatus.ACCEPTED.value());
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Snapshot files and jobs.
+     *
+     * @param files the snapshot file names, newest first
+     * @param jobs  the running, queued and recently finished jobs, most recent first
+     */
+    public record Snapshots(List<String> files, List<PlantPlanSnapshotJob> jobs) {
+    }
+}
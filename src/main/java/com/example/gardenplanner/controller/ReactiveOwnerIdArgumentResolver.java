@@ -0,0 +1,33 @@
+package com.example.gardenplanner.controller;
+
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.reactive.BindingContext;
+import org.springframework.web.reactive.result.method.HandlerMethodArgumentResolver;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.controller
+ * File: ReactiveOwnerIdArgumentResolver.java
+ * Description: Resolves {@link OwnerId} parameters of WebFlux controllers ("reactive" profile), with the same rules
+ * as {@link OwnerIdArgumentResolver}.
+ * Objective:
+ * *******************************************************
+ */
+
+public class ReactiveOwnerIdArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(OwnerId.class) && parameter.getParameterType() == String.class;
+    }
+
+    @Override
+    public Mono<Object> resolveArgument(MethodParameter parameter, BindingContext bindingContext,
+                                        ServerWebExchange exchange) {
+        return Mono.fromCallable(() -> OwnerIdArgumentResolver.resolve(
+                exchange.getRequest().getHeaders().getFirst(OwnerId.HEADER)));
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.gardenplanner.controller;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanPage;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.service.PlantPlanService;
+import com.example.gardenplanner.service.ReactivePlantPlanService;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.controller
+ * File: ReactivePlantPlanController.java
+ * Description: WebFlux REST Controller for the plan API, active with the "reactive" profile.
+ * - Exposes the core routes of {@link PlantPlanController}, which is disabled in that profile: add-plan, list, /page,
+ *   /stream, get, PUT and DELETE by id, and the season, sunlight, watering, search and count queries. These answer
+ *   with the same statuses and ETags, honour {@code If-Match} on PUT, and publish the same change events.
+ * - List and search endpoints return a {@link Flux}: plans are written to the response as they arrive
+ *   from MongoDB, and a slow client slows down the cursor instead of buffering the whole result.
+ * - Every endpoint acts on the plans of the owner named by the {@value OwnerId#HEADER} header (see {@link OwnerId}).
+ * - Servlet mode only: /bulk, /changes, PATCH, /query, /facets, /suggest, /calendar, {@code ?view=summary},
+ *   write-behind, the Smile and CBOR encodings, weak ETags on lists, the rate limiter and the plan caches.
+ * Objective:
+ * *******************************************************
+ */
+
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/plans")
+public class ReactivePlantPlanController {
+    // Dependency on the ReactivePlantPlanService to delegate business logic
+    private final ReactivePlantPlanService service;
+
+    /**
+     * Constructor-based dependency injection for the ReactivePlantPlanService.
+     *
+     * @param service the service handling PlantPlan-related operations
+     */
+    @Autowired
+    public ReactivePlantPlanController(ReactivePlantPlanService service) {
+        this.service = service;
+    }
+
+    /**
+     * Adds a new PlantPlan to the database.
+     *
+     * @param ownerId The owner the plan is added for.
+     * @param plan    The PlantPlan object received in the request body.
+     * @return The saved {@link PlantPlan} object, or 409 Conflict if a plan with its id already exists.
+     */
+    @PostMapping("/add-plan")
+    public Mono<PlantPlan> addPlan(@OwnerId String ownerId, @Valid @RequestBody PlantPlan plan) {
+        return service.addPlantPlans(ownerId, plan);
+    }
+
+    /**
+     * Retrieves all PlantPlans, streamed as a JSON array.
+     *
+     * @param ownerId the owner whose plans are listed
+     * @return A {@link Flux} of all {@link PlantPlan} objects.
+     */
+    @GetMapping
+    public Flux<PlantPlan> getAllPlans(@OwnerId String ownerId) {
+        return service.getAllPlantPlans(ownerId);
+    }
+
+    /**
+     * Retrieves one page of PlantPlans using keyset (cursor) pagination.
+     *
+     * @param ownerId the owner whose plans are listed
+     * @param cursor  the {@code nextCursor} returned with the previous page (omit for the first page)
+     * @param size    the number of plans per page
+     * @return a {@link PlantPlanPage} with the plans and the cursor of the next page
+     */
+    @GetMapping("/page")
+    public Mono<PlantPlanPage> getPlansPage(@OwnerId String ownerId,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "" + PlantPlanService.DEFAULT_PAGE_SIZE) int size) {
+        return service.getPlantPlanPage(ownerId, cursor, size);
+    }
+
+    /**
+     * Streams all PlantPlans as newline-delimited JSON (NDJSON), one plan per line, with backpressure.
+     *
+     * @param ownerId the owner whose plans are streamed
+     * @return a {@link Flux} written as {@code application/x-ndjson}
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PlantPlan> streamAllPlans(@OwnerId String ownerId) {
+        return service.getAllPlantPlans(ownerId);
+    }
+
+    /**
+     * Retrieves a specific PlantPlan by its unique ID.
+     *
+     * @param ownerId The owner of the PlantPlan.
+     * @param id      The unique identifier of the PlantPlan.
+     * @return the PlantPlan if found, with its version as ETag (304 Not Modified if it matches {@code If-None-Match}),
+     *         or a 404 Not Found status if not (also for another owner's plan).
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<PlantPlan>> getPlanById(@OwnerId String ownerId, @PathVariable String id) {
+        return service.getPlantPlanById(ownerId, id)
+                .map(plan -> ResponseEntity.ok().eTag(PlantPlanController.planETag(plan)).body(plan))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Updates an existing PlantPlan by its unique identifier, or creates it if there is none.
+     * With {@code If-Match} carrying the ETag of a previous GET, the update only happens
+     * if nobody changed the plan since; {@code If-Match: *} only updates a plan that exists.
+     *
+     * @param ownerId The owner of the PlantPlan.
+     * @param id      The unique identifier of the PlantPlan to update.
+     * @param plan    The updated PlantPlan data received in the request body.
+     * @param ifMatch the optional If-Match header
+     * @return The updated {@link PlantPlan} object after saving to the database, with its new ETag,
+     *         412 Precondition Failed if the If-Match condition does not hold,
+     *         or 404 Not Found if the id belongs to another owner's plan.
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<PlantPlan>> updatePlan(@OwnerId String ownerId,
+                                                      @PathVariable String id,
+                                                      @RequestBody PlantPlan plan,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // Any If-Match, * included, only allows updating a plan that exists
+        return Mono.fromSupplier(() -> PlantPlanController.ifMatchVersion(ifMatch))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(expectedVersion -> service.updatePlantPlan(ownerId, id, plan, expectedVersion.orElse(null),
+                        ifMatch != null))
+                .map(saved -> ResponseEntity.ok().eTag(PlantPlanController.planETag(saved)).body(saved));
+    }
+
+    /**
+     * Deletes a PlantPlan by its unique identifier.
+     *
+     * @param ownerId The owner of the PlantPlan.
+     * @param id      The unique identifier of the PlantPlan to delete.
+     * @return HTTP status 204 No Content.
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deletePlan(@OwnerId String ownerId, @PathVariable String id) {
+        return service.deletePlantPlan(ownerId, id)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+
+    /**-------------------------------------------------------------
+     * --------------------------------------------------------------
+     * Custom query endpoints
+     --------------------------------------------------------------
+     --------------------------------------------------------------*/
+
+    /**
+     * Streams the {@link PlantPlan} entries for a given planting season.
+     *
+     * @param ownerId the owner whose plans are listed
+     * @param season  the planting season
+     * @return the plant plans matching the specified season
+     */
+    @GetMapping("/season/{season}")
+    public Flux<PlantPlan> getByPlantingSeason(@OwnerId String ownerId, @PathVariable Season season) {
+        return service.findByPlantingSeason(ownerId, season);
+    }
+
+    /**
+     * Streams the {@link PlantPlan} entries that require the specified sunlight condition.
+     *
+     * @param ownerId  the owner whose plans are listed
+     * @param sunlight the sunlight requirement (e.g., "Full Sun", "Partial Shade")
+     * @return the plant plans matching the sunlight condition
+     */
+    @GetMapping("/sunlight/{sunlight}")
+    public Flux<PlantPlan> getBySunlightNeeds(@OwnerId String ownerId, @PathVariable String sunlight) {
+        return service.findBySunlightNeeds(ownerId, sunlight);
+    }
+
+    /**
+     * Searches {@link PlantPlan} entries based on a keyword in their watering frequency field (case-insensitive).
+     *
+     * @param ownerId the owner whose plans are searched
+     * @param keyword the search term to look for within watering frequency
+     * @return the plant plans with watering frequencies containing the keyword
+     */
+    @GetMapping("/watering/search")
+    public Flux<PlantPlan> searchByWateringFreq(@OwnerId String ownerId, @RequestParam String keyword) {
+        return service.searchByWateringFreq(ownerId, keyword);
+    }
+
+    /**
+     * Counts how many {@link PlantPlan} entries exist for a specific planting season.
+     *
+     * @param ownerId the owner whose plans are counted
+     * @param season  the planting season, case-insensitive (e.g., "SPRING", "autumn")
+     * @return the number of plant plans for the given season, or 400 Bad Request if the season is unknown
+     */
+    @GetMapping("/count/season/{season}")
+    public Mono<ResponseEntity<Long>> countByPlantingSeason(@OwnerId String ownerId, @PathVariable String season) {
+        Season plantingSeason;
+        try {
+            plantingSeason = Season.fromString(season);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return service.countByPlantingSeason(ownerId, plantingSeason).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Searches {@link PlantPlan} entries by a keyword in the plant name (case-insensitive).
+     *
+     * @param ownerId the owner whose plans are searched
+     * @param keyword the search term to look for in the plant name
+     * @return the matching plant plans
+     */
+    @GetMapping("/search")
+    public Flux<PlantPlan> searchByName(@OwnerId String ownerId, @RequestParam String keyword) {
+        return service.searchByName(ownerId, keyword);
+    }
+
+    /**
+     * Returns the total number of {@link PlantPlan} entries of the owner available in the database.
+     *
+     * @param ownerId the owner whose plans are counted
+     * @return the total count of plant plans
+     */
+    @GetMapping("/count/all")
+    public Mono<Long> getTotalPlansCount(@OwnerId String ownerId) {
+        return service.getTotalPlansCount(ownerId);
+    }
+
+    /**
+     * Maps a version conflict to 412 Precondition Failed when the client sent If-Match,
+     * and to 409 Conflict otherwise, as {@link PlantPlanController} does.
+     *
+     * @param e        the conflict raised by the service
+     * @param exchange the current exchange
+     * @return an empty 412 or 409 response
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleVersionConflict(OptimisticLockingFailureException e, ServerWebExchange exchange) {
+        log.debug("PlantPlan version conflict: {}", e.getMessage());
+        HttpStatus status = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_MATCH) != null
+                ? HttpStatus.PRECONDITION_FAILED
+                : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).build();
+    }
+
+    /**
+     * Maps an insert under an id that is already taken to 409 Conflict.
+     *
+     * @param e the duplicate key error raised by MongoDB
+     * @return an empty 409 response
+     */
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<Void> handleDuplicateId(DuplicateKeyException e) {
+        log.debug("PlantPlan id already taken: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.gardenplanner.model;
+
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: BulkItemResult.java
+ * Description: Outcome of one item of a bulk plan import (POST /api/plans/bulk).
+ * - Written items serialize compactly as {@code {index, id, status}}; only items that were not written list errors.
+ * Objective:
+ * *******************************************************
+ */
+
+
+/**
+ * Lombok annotations:
+ * - {@code @Data} generates getters, setters, toString, equals, and hashCode.
+ * - {@code @NoArgsConstructor} creates a no-argument constructor.
+ * - {@code @AllArgsConstructor} creates a constructor with all fields as parameters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResult {
+
+    /** What happened to a single item of the bulk request. */
+    public enum Status {
+        /** A new document was written (plain insert, or an upsert that found no existing document). */
+        CREATED,
+        /** An existing document with the given id was replaced. */
+        UPDATED,
+        /** The item could not be parsed or failed Bean Validation; nothing was written. */
+        INVALID,
+        /** MongoDB rejected the write (e.g. a duplicate key). */
+        FAILED,
+        /** A later item of the same batch had the same id; only that one was sent to MongoDB. */
+        SUPERSEDED
+    }
+
+    /** Zero-based position of the item in the request body. */
+    private int index;
+
+    /** The '_id' of the plan (generated for new plans), or null if the item could not be parsed. */
+    private String id;
+
+    /** The outcome of the item. */
+    private Status status;
+
+    /** Validation or write errors; empty (and left out of the JSON) when the item was written. */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> errors;
+}
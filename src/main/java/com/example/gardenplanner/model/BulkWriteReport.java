@@ -0,0 +1,112 @@
+package com.example.gardenplanner.model;
+
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: BulkWriteReport.java
+ * Description: Response of a bulk plan import: totals, a compact {@link BulkItemResult} per item (index, id such as
+ * the one generated for a new plan, and status) and the items that were not written, in request order.
+ * - {@link #getItems()} holds the first {@link #MAX_ITEMS} items of the request and {@link #getFailures()} up to
+ *   {@link #MAX_FAILURES} items that were not written, wherever they are; the totals count every item, so the report
+ *   stays bounded however large the import is.
+ * Objective:
+ * *******************************************************
+ */
+
+
+/**
+ * Lombok annotations:
+ * - {@code @Data} generates getters, setters, toString, equals, and hashCode.
+ * - {@code @NoArgsConstructor} creates a no-argument constructor.
+ */
+@Data
+@NoArgsConstructor
+public class BulkWriteReport {
+
+    /** Number of leading items of the request listed in {@link #getItems()}. */
+    public static final int MAX_ITEMS = 10_000;
+
+    /** Maximum number of failed or invalid items listed in {@link #getFailures()}. */
+    public static final int MAX_FAILURES = 1000;
+
+    /** Number of items read from the request body. */
+    private int received;
+
+    /** Number of items written as new documents. */
+    private int created;
+
+    /** Number of items that replaced an existing document. */
+    private int updated;
+
+    /** Number of items rejected before reaching MongoDB. */
+    private int invalid;
+
+    /** Number of items MongoDB refused to write. */
+    private int failed;
+
+    /** Number of items not written because a later item of the same batch had the same id. */
+    private int superseded;
+
+    /** The items with an index below {@link #MAX_ITEMS}, ordered by {@link BulkItemResult#getIndex()}. */
+    private List<BulkItemResult> items = new ArrayList<>();
+
+    /** Up to {@link #MAX_FAILURES} invalid or failed items, ordered by {@link BulkItemResult#getIndex()}. */
+    private List<BulkItemResult> failures = new ArrayList<>();
+
+    /**
+     * Records an item that was written, or superseded by a later one with the same id, and updates the totals.
+     *
+     * @param result the item outcome, {@link BulkItemResult.Status#CREATED}, {@link BulkItemResult.Status#UPDATED}
+     *               or {@link BulkItemResult.Status#SUPERSEDED}
+     */
+    public void written(BulkItemResult result) {
+        received++;
+        switch (result.getStatus()) {
+            case UPDATED -> updated++;
+            case SUPERSEDED -> superseded++;
+            default -> created++;
+        }
+        listItem(result);
+    }
+
+    /**
+     * Records an item that was not written and updates the totals.
+     *
+     * @param result the item outcome, {@link BulkItemResult.Status#INVALID} or {@link BulkItemResult.Status#FAILED}
+     */
+    public void rejected(BulkItemResult result) {
+        received++;
+        if (result.getStatus() == BulkItemResult.Status.INVALID) {
+            invalid++;
+        } else {
+            failed++;
+        }
+        if (failures.size() < MAX_FAILURES) {
+            failures.add(result);
+        }
+        listItem(result);
+    }
+
+    /**
+     * Puts the listed items and failures in request order, once every item has been recorded.
+     */
+    public void sort() {
+        items.sort(Comparator.comparingInt(BulkItemResult::getIndex));
+        failures.sort(Comparator.comparingInt(BulkItemResult::getIndex));
+    }
+
+    // Items are recorded out of order (invalid ones right away, valid ones when their batch is written), so the
+    // cap is on the index: the list is the same whatever the batch size
+    private void listItem(BulkItemResult result) {
+        if (result.getIndex() < MAX_ITEMS) {
+            items.add(result);
+        }
+    }
+}
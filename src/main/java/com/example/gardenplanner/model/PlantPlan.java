@@ -1,10 +1,16 @@
 package com.example.gardenplanner.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
 import lombok.*;
 import org.springframework.data.annotation.*;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+
+import java.util.Set;
 
 /**
  * *******************************************************
@@ -25,16 +31,68 @@ import org.springframework.data.mongodb.core.mapping.Document;
  * - {@code @AllArgsConstructor} creates a constructor with all fields as parameters.
  * MongoDB:
  * - {@code @Document(collection = "plantplans")} indicates this class maps to the "plantplans" collection.
+ * - Every plan belongs to one owner (a user or garden, see {@link #ownerId}) and every query is scoped to it,
+ *   so every {@code @CompoundIndex} leads with {@code ownerId}: a query only ever scans the keys of one owner.
+ *   They are created at startup by the PlantPlanIndexInitializer.
+ * - The season / sunlight indexes serve combined filters (/api/plans/query): owner and equality fields first,
+ *   then the name, so the name filter and the name sort are answered from the index keys.
+ * - {@code @Sharded}: the shard key is {@code {ownerId, _id}}, so one owner's plans live on one shard (queries are
+ *   targeted, not broadcast) while a very large owner can still be split across chunks by id. The owner never
+ *   changes, which lets saves add it to their filter without reading the stored document first.
+ * - The {@code ...Key} / {@code ...Grams} fields are derived search keys (see {@link PlantPlanSearchKeys}).
+ *   They are filled in before every save, are never sent to or accepted from API clients,
+ *   and let name / watering searches use an index instead of a case-insensitive regex scan.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "plantplans")
+@Sharded(shardKey = {"ownerId", "id"}, immutableKey = true)
+@CompoundIndex(name = PlantPlan.INDEX_OWNER_ID, def = "{'ownerId': 1, '_id': 1}")
+@CompoundIndex(name = PlantPlan.INDEX_OWNER_SEASON_SUNLIGHT_NAME,
+        def = "{'ownerId': 1, 'plantingSeason': 1, 'sunlightNeeds': 1, 'nameKey': 1}")
+@CompoundIndex(name = PlantPlan.INDEX_OWNER_SUNLIGHT_NAME, def = "{'ownerId': 1, 'sunlightNeeds': 1, 'nameKey': 1}")
+@CompoundIndex(name = PlantPlan.INDEX_OWNER_NAME, def = "{'ownerId': 1, 'nameKey': 1}")
+@CompoundIndex(name = "owner_name_grams", def = "{'ownerId': 1, 'nameGrams': 1}")
+@CompoundIndex(name = PlantPlan.INDEX_OWNER_WATERING, def = "{'ownerId': 1, 'wateringFreqKey': 1}")
+@CompoundIndex(name = "owner_watering_grams", def = "{'ownerId': 1, 'wateringFreqGrams': 1}")
 public class PlantPlan {
+    /** Owner of the plans written before plans had owners, and of requests that do not name one. */
+    public static final String DEFAULT_OWNER = "public";
+
+    /** Name of the compound index on ownerId, _id (keyset paging; also the index of the shard key). */
+    public static final String INDEX_OWNER_ID = "owner_id";
+
+    /** Name of the compound index on ownerId, plantingSeason, sunlightNeeds, nameKey. */
+    public static final String INDEX_OWNER_SEASON_SUNLIGHT_NAME = "owner_season_sunlight_name";
+
+    /** Name of the compound index on ownerId, sunlightNeeds, nameKey. */
+    public static final String INDEX_OWNER_SUNLIGHT_NAME = "owner_sunlight_name";
+
+    /** Name of the compound index on ownerId, nameKey. */
+    public static final String INDEX_OWNER_NAME = "owner_name";
+
+    /** Name of the compound index on ownerId, wateringFreqKey. */
+    public static final String INDEX_OWNER_WATERING = "owner_watering";
+
     /** Unique identifier for the plant plan.*/
     @Id
     private String id;
 
+    /**
+     * The user or garden the plan belongs to. Set by the server from the {@code X-Owner-Id} request header;
+     * sent to clients but never accepted from a request body.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String ownerId;
+
+    /**
+     * Optimistic-locking version, incremented by MongoDB on every write.
+     * Sent to clients as the plan's ETag; a save with an outdated version is rejected.
+     */
+    @Version
+    private Long version;
+
     /** The name of the plant (e.g., "Tomato", "Rose"). */
     @NotBlank(message = "Name is required")
     private String name;
@@ -53,5 +111,20 @@ public class PlantPlan {
     /** Any additional notes or care instructions. */
     private String notes;
 
+    /** Normalized (trimmed, lower-case) name, used for short name searches. */
+    @JsonIgnore
+    private String nameKey;
+
+    /** Trigrams of the normalized name, used for indexed "name contains" searches. */
+    @JsonIgnore
+    private Set<String> nameGrams;
+
+    /** Normalized (trimmed, lower-case) watering frequency. */
+    @JsonIgnore
+    private String wateringFreqKey;
+
+    /** Trigrams of the normalized watering frequency, used for indexed "watering contains" searches. */
+    @JsonIgnore
+    private Set<String> wateringFreqGrams;
 
 }
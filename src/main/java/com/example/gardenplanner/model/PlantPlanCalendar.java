@@ -0,0 +1,47 @@
+package com.example.gardenplanner.model;
+
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: PlantPlanCalendar.java
+ * Description: What to plant and what to water over a range of days (GET /api/plans/calendar).
+ * - A plan is in season when one of the days falls in its planting season.
+ * - Watering tasks are listed for the plans in season on each day, from their parsed {@link WateringSchedule}.
+ * Objective:
+ * *******************************************************
+ */
+
+
+/**
+ * Lombok annotations:
+ * - {@code @Data} generates getters, setters, toString, equals, and hashCode.
+ * - {@code @NoArgsConstructor} creates a no-argument constructor.
+ */
+@Data
+@NoArgsConstructor
+public class PlantPlanCalendar {
+    /** First day of the range. */
+    private LocalDate from;
+
+    /** Last day of the range (inclusive). */
+    private LocalDate to;
+
+    /** Seasons the days of the range fall in, in calendar order. */
+    private List<Season> seasons = new ArrayList<>();
+
+    /** Plans whose planting season overlaps the range, by name. */
+    private List<PlantPlanSummary> inSeason = new ArrayList<>();
+
+    /** Watering tasks, by date then name. */
+    private List<WateringTask> watering = new ArrayList<>();
+
+    /** Plans in season whose watering frequency could not be understood, so they have no tasks. */
+    private List<PlantPlanSummary> unscheduled = new ArrayList<>();
+}
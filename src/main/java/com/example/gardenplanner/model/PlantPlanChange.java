@@ -0,0 +1,51 @@
+package com.example.gardenplanner.model;
+
+
+import lombok.*;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: PlantPlanChange.java
+ * Description: One insert, update or delete of a PlantPlan, as sent on the change feed (GET /api/plans/changes).
+ * - Published by the write paths of the services as an application event, and read from the
+ *   MongoDB change stream when that is the configured source.
+ * Objective:
+ * *******************************************************
+ */
+
+
+/**
+ * Lombok annotations:
+ * - {@code @Data} generates getters, setters, toString, equals, and hashCode.
+ * - {@code @NoArgsConstructor} creates a no-argument constructor.
+ * - {@code @AllArgsConstructor} creates a constructor with all fields as parameters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlantPlanChange {
+
+    /** Kind of change. */
+    public enum Operation {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+
+    /** What happened to the plan. */
+    private Operation operation;
+
+    /** Id of the changed plan. */
+    private String planId;
+
+    /**
+     * Owner of the changed plan; subscribers only receive the changes of their owner.
+     * Null for deletes read from an unsharded collection's change stream without pre-images, which only carry
+     * the id; those are not sent to subscribers.
+     */
+    private String ownerId;
+
+    /** The plan after the change; null for deletes. */
+    private PlantPlan plan;
+}
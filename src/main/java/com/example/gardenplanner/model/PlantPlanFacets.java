@@ -0,0 +1,43 @@
+package com.example.gardenplanner.model;
+
+
+import lombok.*;
+
+import java.util.Map;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: PlantPlanFacets.java
+ * Description: Plan counts broken down by planting season, sunlight needs and watering frequency.
+ * - Every map is ordered by count, largest first; plans without a value are counted under {@link #NONE}.
+ * Objective:
+ * *******************************************************
+ */
+
+
+/**
+ * Lombok annotations:
+ * - {@code @Data} generates getters, setters, toString, equals, and hashCode.
+ * - {@code @NoArgsConstructor} creates a no-argument constructor.
+ * - {@code @AllArgsConstructor} creates a constructor with all fields as parameters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlantPlanFacets {
+    /** Key under which plans without a value for the field are counted. */
+    public static final String NONE = "none";
+
+    /** Total number of plans. */
+    private long total;
+
+    /** Number of plans per planting season. */
+    private Map<String, Long> bySeason;
+
+    /** Number of plans per sunlight requirement. */
+    private Map<String, Long> bySunlight;
+
+    /** Number of plans per watering frequency. */
+    private Map<String, Long> byWateringFreq;
+}
@@ -0,0 +1,33 @@
+package com.example.gardenplanner.model;
+
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: PlantPlanPage.java
+ * Description: One page of a keyset (cursor) paginated {@link PlantPlan} listing.
+ * Objective:
+ * *******************************************************
+ */
+
+
+/**
+ * Lombok annotations:
+ * - {@code @Data} generates getters, setters, toString, equals, and hashCode.
+ * - {@code @NoArgsConstructor} creates a no-argument constructor.
+ * - {@code @AllArgsConstructor} creates a constructor with all fields as parameters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlantPlanPage {
+    /** The plans on this page, ordered by their '_id'. */
+    private List<PlantPlan> items;
+
+    /** The '_id' to pass as {@code cursor} for the next page, or {@code null} if this is the last page. */
+    private String nextCursor;
+}
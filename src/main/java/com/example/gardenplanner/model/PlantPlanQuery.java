@@ -0,0 +1,45 @@
+package com.example.gardenplanner.model;
+
+
+import lombok.*;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: PlantPlanQuery.java
+ * Description: Filters, sort and limit of a combined plan query (GET /api/plans/query).
+ * - Every filter is optional; the ones given are combined with AND into a single MongoDB query.
+ * - Bound from request parameters, so the values are kept as sent and parsed when the query is planned.
+ * Objective:
+ * *******************************************************
+ */
+
+
+/**
+ * Lombok annotations:
+ * - {@code @Data} generates getters, setters, toString, equals, and hashCode.
+ * - {@code @NoArgsConstructor} creates a no-argument constructor.
+ * - {@code @AllArgsConstructor} creates a constructor with all fields as parameters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlantPlanQuery {
+    /** Planting season, case-insensitive (e.g., "summer"). */
+    private String season;
+
+    /** Exact sunlight requirement (e.g., "Full Sun"). */
+    private String sunlight;
+
+    /** Keyword the watering frequency must contain, case-insensitive. */
+    private String watering;
+
+    /** Keyword the name must contain, case-insensitive. */
+    private String name;
+
+    /** Sort field: name, season, sunlight or id; prefix with "-" for descending (e.g., "-name"). */
+    private String sort;
+
+    /** Maximum number of plans returned. */
+    private Integer limit;
+}
@@ -0,0 +1,44 @@
+package com.example.gardenplanner.model;
+
+
+import lombok.*;
+
+import java.util.Map;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: PlantPlanQueryPlan.java
+ * Description: How a combined plan query is executed, returned by the admin-only {@code planquery} actuator endpoint.
+ * - {@code index} is the compound index the application picked and hinted, or null if MongoDB chooses.
+ * - {@code queryPlanner} is MongoDB's own explain output, including the winning and rejected plans.
+ * Objective:
+ * *******************************************************
+ */
+
+
+/**
+ * Lombok annotations:
+ * - {@code @Data} generates getters, setters, toString, equals, and hashCode.
+ * - {@code @NoArgsConstructor} creates a no-argument constructor.
+ * - {@code @AllArgsConstructor} creates a constructor with all fields as parameters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlantPlanQueryPlan {
+    /** Name of the hinted index, or null if no compound index matched the filters. */
+    private String index;
+
+    /** The MongoDB filter document sent to the server. */
+    private Map<String, Object> filter;
+
+    /** The MongoDB sort document sent to the server. */
+    private Map<String, Object> sort;
+
+    /** The limit sent to the server. */
+    private int limit;
+
+    /** The "queryPlanner" section of MongoDB's explain output. */
+    private Map<String, Object> queryPlanner;
+}
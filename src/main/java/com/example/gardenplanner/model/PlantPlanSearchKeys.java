@@ -0,0 +1,69 @@
+package com.example.gardenplanner.model;
+
+
+import java.util.*;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: PlantPlanSearchKeys.java
+ * Description: Builds the normalized search keys stored alongside every {@link PlantPlan}.
+ * - A normalized key is the trimmed, lower-cased value with runs of whitespace collapsed.
+ * - The grams are all 3-character substrings (trigrams) of the normalized key.
+ * Objective: "contains" searches become an indexed {@code $all} lookup on the trigrams,
+ *  instead of an unanchored case-insensitive regex that always scans the whole collection.
+ * *******************************************************
+ */
+
+public final class PlantPlanSearchKeys {
+
+    /** Length of the n-grams stored for searching. Shorter keywords fall back to the normalized key. */
+    public static final int GRAM_SIZE = 3;
+
+    private PlantPlanSearchKeys() {
+    }
+
+    /**
+     * Normalizes a value for searching: trims it, lower-cases it and collapses whitespace.
+     *
+     * @param value the raw value (may be null)
+     * @return the normalized value, or {@code null} if the input was null
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits an already normalized value into its distinct trigrams.
+     *
+     * @param key the normalized value (may be null)
+     * @return the set of trigrams; empty if the value is shorter than {@link #GRAM_SIZE}
+     */
+    public static Set<String> grams(String key) {
+        if (key == null || key.length() < GRAM_SIZE) {
+            return new HashSet<>();
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= key.length(); i++) {
+            grams.add(key.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    /**
+     * Recomputes every derived search key of the given plan from its current field values.
+     *
+     * @param plan the plan to update in place
+     * @return the same plan, for chaining
+     */
+    public static PlantPlan apply(PlantPlan plan) {
+        plan.setNameKey(normalize(plan.getName()));
+        plan.setNameGrams(grams(plan.getNameKey()));
+        plan.setWateringFreqKey(normalize(plan.getWateringFreq()));
+        plan.setWateringFreqGrams(grams(plan.getWateringFreqKey()));
+        return plan;
+    }
+}
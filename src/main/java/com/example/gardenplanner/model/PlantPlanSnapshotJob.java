@@ -0,0 +1,79 @@
+package com.example.gardenplanner.model;
+
+
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: PlantPlanSnapshotJob.java
+ * Description: Status of a background export or import of the plantplans collection (a gzip NDJSON snapshot).
+ * - Updated by the job thread while it runs; operators poll it through GET /actuator/plansnapshots/{jobId}.
+ * Objective:
+ * *******************************************************
+ */
+
+
+/**
+ * Lombok annotations:
+ * - {@code @Data} generates getters, setters, toString, equals, and hashCode.
+ * - {@code @NoArgsConstructor} creates a no-argument constructor.
+ */
+@Data
+@NoArgsConstructor
+public class PlantPlanSnapshotJob {
+
+    /** What the job does. */
+    public enum Type {
+        EXPORT, IMPORT
+    }
+
+    /** Where the job is in its life cycle. */
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    /** Unique identifier of the job. */
+    private String id;
+
+    /** Export or import. */
+    private Type type;
+
+    /** Current state; fields below are final once it is COMPLETED or FAILED. */
+    private volatile Status status = Status.QUEUED;
+
+    /** Snapshot file name in the snapshot store. */
+    private String file;
+
+    /** Documents written to the file (export) or read from it (import) so far. */
+    private volatile long processed;
+
+    /** Documents inserted into the collection (import). */
+    private volatile long inserted;
+
+    /** Existing documents replaced (import). */
+    private volatile long replaced;
+
+    /** Lines that could not be parsed or documents MongoDB refused to write (import). */
+    private volatile long failed;
+
+    /** Share of the work done, from 0 to 1: documents of the collection (export) or bytes of the file (import). */
+    private volatile double progress;
+
+    /** Size of the snapshot file in bytes, once written (export) or when the job starts (import). */
+    private volatile long fileSize;
+
+    /** When the job was submitted. */
+    private Instant createdAt;
+
+    /** When the job started running. */
+    private volatile Instant startedAt;
+
+    /** When the job completed or failed. */
+    private volatile Instant finishedAt;
+
+    /** Why the job failed, or the first line or write error of an import. */
+    private volatile String error;
+}
@@ -0,0 +1,37 @@
+package com.example.gardenplanner.model;
+
+
+import lombok.*;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: PlantPlanSuggestion.java
+ * Description: One ranked result of the in-memory name search (GET /api/plans/suggest).
+ * Objective:
+ * *******************************************************
+ */
+
+
+/**
+ * Lombok annotations:
+ * - {@code @Data} generates getters, setters, toString, equals, and hashCode.
+ * - {@code @NoArgsConstructor} creates a no-argument constructor.
+ * - {@code @AllArgsConstructor} creates a constructor with all fields as parameters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlantPlanSuggestion {
+    /** Unique identifier of the plant plan. */
+    private String id;
+
+    /** The name of the plant. */
+    private String name;
+
+    /** Recommended planting season. */
+    private Season plantingSeason;
+
+    /** Relevance, higher is better; only meaningful for ordering results of the same search. */
+    private double score;
+}
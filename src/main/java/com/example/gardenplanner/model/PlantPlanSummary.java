@@ -0,0 +1,36 @@
+package com.example.gardenplanner.model;
+
+
+import lombok.*;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: PlantPlanSummary.java
+ * Description: Lightweight view of a {@link PlantPlan} for list screens: id, name and planting season only.
+ * - Used as a Spring Data DTO projection: MongoDB only returns these three fields,
+ *   so the free-text notes never leave the database for list views.
+ * Objective:
+ * *******************************************************
+ */
+
+
+/**
+ * Lombok annotations:
+ * - {@code @Data} generates getters, setters, toString, equals, and hashCode.
+ * - {@code @NoArgsConstructor} creates a no-argument constructor.
+ * - {@code @AllArgsConstructor} creates a constructor with all fields as parameters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlantPlanSummary {
+    /** Unique identifier of the plant plan. */
+    private String id;
+
+    /** The name of the plant. */
+    private String name;
+
+    /** Recommended planting season. */
+    private Season plantingSeason;
+}
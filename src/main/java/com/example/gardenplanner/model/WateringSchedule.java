@@ -0,0 +1,81 @@
+package com.example.gardenplanner.model;
+
+
+import lombok.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: WateringSchedule.java
+ * Description: Structured form of a {@link PlantPlan#getWateringFreq()} text: {@code times} waterings
+ * every {@code every} days, weeks or months ("Twice a week" = 2 / 1 / WEEK, "Every 3 days" = 1 / 3 / DAY).
+ * - Waterings are spread evenly over the period; weeks start on Monday.
+ * - Periods are counted from 1970-01-01, so "every 2 weeks" falls on the same weeks for every plan and every caller.
+ * Objective:
+ * *******************************************************
+ */
+
+
+/**
+ * Lombok annotations:
+ * - {@code @Data} generates getters, setters, toString, equals, and hashCode.
+ * - {@code @NoArgsConstructor} creates a no-argument constructor.
+ * - {@code @AllArgsConstructor} creates a constructor with all fields as parameters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WateringSchedule {
+
+    /** Length of the period a schedule repeats over. */
+    public enum Unit {
+        DAY, WEEK, MONTH
+    }
+
+    /** Waterings per period (at least 1). */
+    private int times;
+
+    /** Length of the period, in units (at least 1). */
+    private int every;
+
+    /** Unit of the period. */
+    private Unit unit;
+
+    /**
+     * Counts the waterings falling on a date.
+     *
+     * @param date the date
+     * @return how many times the plan is watered that day (0 if not at all)
+     */
+    public int timesOn(LocalDate date) {
+        return switch (unit) {
+            case DAY -> Math.floorMod(date.toEpochDay(), every) == 0 ? times : 0;
+            case WEEK -> {
+                LocalDate monday = date.with(DayOfWeek.MONDAY);
+                yield Math.floorMod(Math.floorDiv(monday.toEpochDay(), 7), every) == 0
+                        ? spreadOver(date.getDayOfWeek().getValue() - 1, 7)
+                        : 0;
+            }
+            case MONTH -> {
+                long month = date.getYear() * 12L + date.getMonthValue() - 1;
+                yield Math.floorMod(month, every) == 0
+                        ? spreadOver(date.getDayOfMonth() - 1, date.lengthOfMonth())
+                        : 0;
+            }
+        };
+    }
+
+    // Waterings i = 0..times-1 fall on day floor(i * days / times) of the period
+    private int spreadOver(int day, int days) {
+        int count = 0;
+        for (int i = 0; i < times; i++) {
+            if ((long) i * days / times == day) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
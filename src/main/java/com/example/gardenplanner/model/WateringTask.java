@@ -0,0 +1,39 @@
+package com.example.gardenplanner.model;
+
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.model
+ * File: WateringTask.java
+ * Description: One day's watering of one plan, as listed by the planting calendar.
+ * Objective:
+ * *******************************************************
+ */
+
+
+/**
+ * Lombok annotations:
+ * - {@code @Data} generates getters, setters, toString, equals, and hashCode.
+ * - {@code @NoArgsConstructor} creates a no-argument constructor.
+ * - {@code @AllArgsConstructor} creates a constructor with all fields as parameters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WateringTask {
+    /** Day of the watering. */
+    private LocalDate date;
+
+    /** Identifier of the plan to water. */
+    private String planId;
+
+    /** The name of the plant. */
+    private String name;
+
+    /** How many times the plan is watered that day. */
+    private int times;
+}
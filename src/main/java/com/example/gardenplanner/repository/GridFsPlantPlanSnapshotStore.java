@@ -0,0 +1,117 @@
+package com.example.gardenplanner.repository;
+
+
+import com.example.gardenplanner.service.PlantPlanSnapshotStore;
+import com.mongodb.MongoException;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.GridFSUploadStream;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: GridFsPlantPlanSnapshotStore.java
+ * Description: Keeps snapshot files in a GridFS bucket of the application's MongoDB database
+ * ({@code gardenplanner.snapshots.store=gridfs}, the default).
+ * - Bucket {@code gardenplanner.snapshots.bucket}: collections {@code <bucket>.files} and {@code <bucket>.chunks}.
+ * - Snapshots survive restarts and redeploys, and every instance sees the same ones, unlike files on a dyno's
+ *   ephemeral disk. They live in the same cluster as the data, so they cover mistakes (a bad import or bulk
+ *   write), not the loss of the cluster; Atlas backups cover that.
+ * - A snapshot is uploaded in chunks while it is written; a failed upload is aborted, which deletes its chunks.
+ *   If a name was stored twice, the latest upload wins.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+@ConditionalOnProperty(name = "gardenplanner.snapshots.store", havingValue = "gridfs", matchIfMissing = true)
+public class GridFsPlantPlanSnapshotStore implements PlantPlanSnapshotStore {
+
+    private final GridFSBucket bucket;
+
+    @Autowired
+    public GridFsPlantPlanSnapshotStore(MongoTemplate mongoTemplate,
+                                        @Value("${gardenplanner.snapshots.bucket:plansnapshots}") String bucketName) {
+        this.bucket = GridFSBuckets.create(mongoTemplate.getDb(), bucketName);
+    }
+
+    @Override
+    public List<String> list() {
+        return List.copyOf(bucket.find().map(GridFSFile::getFilename).into(new LinkedHashSet<>()));
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return latest(name) != null;
+    }
+
+    @Override
+    public long size(String name) throws IOException {
+        GridFSFile file = latest(name);
+        if (file == null) {
+            throw new FileNotFoundException(name);
+        }
+        return file.getLength();
+    }
+
+    @Override
+    public long write(String name, SnapshotWriter writer) throws IOException {
+        GridFSUploadStream upload = bucket.openUploadStream(name);
+        try {
+            // The upload stream is closed here once the writer is done, so a failure can still abort it
+            writer.writeTo(new FilterOutputStream(upload) {
+                @Override
+                public void write(byte[] buffer, int offset, int length) {
+                    upload.write(buffer, offset, length);
+                }
+
+                @Override
+                public void close() {
+                    upload.flush();
+                }
+            });
+            upload.close();
+        } catch (IOException | RuntimeException e) {
+            try {
+                upload.abort();
+            } catch (RuntimeException abortFailure) {
+                // Already closed: the failure came from storing the last chunk or the file document
+                e.addSuppressed(abortFailure);
+            }
+            throw e;
+        }
+        GridFSFile stored = bucket.find(Filters.eq("_id", upload.getObjectId())).first();
+        return stored == null ? 0 : stored.getLength();
+    }
+
+    @Override
+    public InputStream open(String name) throws IOException {
+        try {
+            return bucket.openDownloadStream(name);
+        } catch (MongoException e) {
+            throw new IOException("Cannot open snapshot " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private GridFSFile latest(String name) {
+        return bucket.find(Filters.eq("filename", name))
+                .sort(Sorts.descending("uploadDate"))
+                .limit(1)
+                .first();
+    }
+}
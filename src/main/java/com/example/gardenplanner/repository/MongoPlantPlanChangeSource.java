@@ -0,0 +1,161 @@
+package com.example.gardenplanner.repository;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanChange;
+import com.example.gardenplanner.service.PlantPlanChangeFeed;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.*;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: MongoPlantPlanChangeSource.java
+ * Description: Feeds the {@link PlantPlanChangeFeed} from one MongoDB change stream on the plantplans collection
+ * ({@code gardenplanner.change-feed.source=mongo}, the default).
+ * - A single cursor per application instance, however many clients are subscribed; inserts, updates, replaces and
+ *   deletes from every instance (and manual edits) are seen.
+ * - The resume token of each change is its SSE event id. Tokens are the same on every instance, so a client can
+ *   reconnect to any instance with its Last-Event-ID.
+ * - If the cursor fails (e.g. during an election), it is re-opened after the last token seen, so no change is lost.
+ * - Deletes only carry the plan id, unless the collection is sharded on {ownerId, _id} or records pre-images
+ *   ({@code gardenplanner.change-feed.pre-images=true}, MongoDB 6.0+); without either, the feed cannot tell whose
+ *   plan was deleted and does not send the delete to subscribers.
+ * - Change streams need a replica set or sharded cluster (MongoDB Atlas, or a single-node replica set locally);
+ *   use {@code gardenplanner.change-feed.source=local} against a standalone server.
+ * Objective:
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gardenplanner.change-feed.source", havingValue = "mongo", matchIfMissing = true)
+public class MongoPlantPlanChangeSource {
+
+    // How long shutdown waits for the container to stop; cancelling a cursor that is still being opened waits for
+    // server selection, which takes its full timeout (30 s by default) while MongoDB is unreachable
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(2);
+
+    private final MongoTemplate mongoTemplate;
+    private final PlantPlanChangeFeed feed;
+    private final MessageListenerContainer container;
+    private final boolean preImages;
+
+    // Resume token of the last change forwarded to the feed
+    private volatile BsonValue lastToken;
+    private volatile Subscription subscription;
+
+    @Autowired
+    public MongoPlantPlanChangeSource(MongoTemplate mongoTemplate, PlantPlanChangeFeed feed,
+                                      @Value("${gardenplanner.change-feed.pre-images:false}") boolean preImages) {
+        this.mongoTemplate = mongoTemplate;
+        this.feed = feed;
+        this.preImages = preImages;
+        this.container = new DefaultMessageListenerContainer(mongoTemplate);
+    }
+
+    /**
+     * Opens the change stream once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        container.start();
+        subscribe();
+    }
+
+    /**
+     * Re-opens the change stream after the last token seen if the cursor has stopped.
+     */
+    @Scheduled(initialDelayString = "${gardenplanner.change-feed.retry-interval:PT10S}",
+            fixedDelayString = "${gardenplanner.change-feed.retry-interval:PT10S}")
+    public void ensureSubscribed() {
+        Subscription current = subscription;
+        if (container.isRunning() && current != null && !current.isActive()) {
+            container.remove(current);
+            subscribe();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread stopping = Thread.ofPlatform().name("plantplan-change-stream-stop").daemon(true).start(container::stop);
+        if (!stopping.join(STOP_TIMEOUT)) {
+            log.warn("plantplans change stream did not stop within {}, closing the client under it", STOP_TIMEOUT);
+        }
+    }
+
+    private synchronized void subscribe() {
+        ChangeStreamRequest.ChangeStreamRequestBuilder<PlantPlan> request = ChangeStreamRequest.builder(this::onMessage)
+                .collection(mongoTemplate.getCollectionName(PlantPlan.class))
+                .filter(newAggregation(match(where("operationType").in("insert", "update", "replace", "delete"))))
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+        if (preImages) {
+            // Enabled on the collection by PlantPlanIndexInitializer; only deletes use the pre-image
+            request.fullDocumentBeforeChangeLookup(FullDocumentBeforeChange.WHEN_AVAILABLE);
+        }
+        if (lastToken != null) {
+            request.resumeAfter(lastToken);
+        }
+        subscription = container.register(request.build(), PlantPlan.class,
+                e -> log.warn("plantplans change stream stopped, retrying: {}", e.getMessage()));
+    }
+
+    private void onMessage(Message<ChangeStreamDocument<Document>, PlantPlan> message) {
+        ChangeStreamDocument<Document> raw = message.getRaw();
+        if (raw == null || raw.getDocumentKey() == null) {
+            return;
+        }
+        PlantPlanChange.Operation operation = switch (raw.getOperationType()) {
+            case INSERT -> PlantPlanChange.Operation.INSERT;
+            case UPDATE, REPLACE -> PlantPlanChange.Operation.UPDATE;
+            case DELETE -> PlantPlanChange.Operation.DELETE;
+            default -> null;
+        };
+        if (operation == null) {
+            return;
+        }
+
+        BsonValue id = raw.getDocumentKey().get("_id");
+        String planId = id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+        PlantPlan plan = operation == PlantPlanChange.Operation.DELETE ? null : message.getBody();
+
+        // The document key holds the whole shard key once the collection is sharded on {ownerId, _id},
+        // so even deletes name their owner then; otherwise the pre-image does, when it is recorded
+        Document before = raw.getFullDocumentBeforeChange();
+        BsonValue owner = raw.getDocumentKey().get("ownerId");
+        String ownerId = plan != null ? plan.getOwnerId()
+                : owner != null && owner.isString() ? owner.asString().getValue()
+                : before != null ? before.getString("ownerId") : null;
+
+        lastToken = raw.getResumeToken();
+        feed.publish(toEventId(raw.getResumeToken()), new PlantPlanChange(operation, planId, ownerId, plan));
+    }
+
+    // The token's "_data" string is opaque and stable, which is all an SSE id needs to be
+    private static String toEventId(BsonDocument token) {
+        BsonValue data = token.get("_data");
+        return data != null && data.isString() ? data.asString().getValue() : token.toJson();
+    }
+
+}
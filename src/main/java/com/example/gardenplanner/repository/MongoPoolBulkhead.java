@@ -0,0 +1,106 @@
+package com.example.gardenplanner.repository;
+
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: MongoPoolBulkhead.java
+ * Description: Bulkhead on the MongoDB driver's connection pool, which every database call goes through:
+ * the repositories, MongoTemplate queries, aggregations and bulk writes, findAndModify, change streams,
+ * snapshot jobs and the write-behind flusher.
+ * - The pool holds {@code gardenplanner.mongo.max-pool-size} connections; that is the bound on concurrent calls.
+ * - A caller waits at most {@code gardenplanner.mongo.bulkhead.max-wait} for a connection (the pool's
+ *   {@code maxWaitTime}, set in {@code MongoPoolConfig}), then fails instead of piling up; requests get
+ *   HTTP 503 (see {@code DatabaseUnavailableHandler}).
+ * - The driver parks waiting threads on a lock condition, which does not pin virtual threads.
+ * - As a {@link ConnectionPoolListener} it tracks how many callers wait for a connection, the queue depth the
+ *   rate limiter sheds load on, and how many hold one. Both add up the pools of every MongoClient it is registered
+ *   with: the servlet mode runs the blocking client only, the reactive mode runs the reactive client next to it
+ *   (counters, snapshots and the change stream stay blocking), so there they cover both pools.
+ * Metrics:
+ * - {@code plantplan.mongo.bulkhead.inflight}  database calls holding a connection, out of max-pool-size
+ * - {@code plantplan.mongo.bulkhead.wait}      time spent waiting for a connection
+ * - {@code plantplan.mongo.bulkhead.rejected}  callers that got no connection within max-wait
+ * (the driver's own pool gauges, e.g. {@code mongodb.driver.pool.waitqueuesize} and {@code .checkedout},
+ * are published by Spring Boot)
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+public class MongoPoolBulkhead implements ConnectionPoolListener {
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger checkedOut = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    @Autowired
+    public MongoPoolBulkhead(MeterRegistry meterRegistry) {
+        Gauge.builder("plantplan.mongo.bulkhead.inflight", checkedOut, AtomicInteger::get)
+                .description("Database calls currently holding a pooled MongoDB connection")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("plantplan.mongo.bulkhead.wait")
+                .description("Time spent waiting for a pooled MongoDB connection")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("plantplan.mongo.bulkhead.rejected")
+                .description("Callers that got no pooled MongoDB connection within the maximum wait")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the number of database calls currently holding a pooled connection
+     */
+    public int inFlight() {
+        return checkedOut.get();
+    }
+
+    /**
+     * @return the number of callers currently waiting for a pooled connection
+     */
+    public int waiting() {
+        return waiting.get();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        waiting.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        waiting.decrementAndGet();
+        checkedOut.incrementAndGet();
+        waitTimer.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        waiting.decrementAndGet();
+        waitTimer.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        if (event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT) {
+            rejected.increment();
+        }
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        checkedOut.decrementAndGet();
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.gardenplanner.repository;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.Season;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.*;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: PlantPlanBatchWrites.java
+ * Description: Writes a batch of plans as one unordered bulk write and reports, per plan, what the write did to the
+ * stored plan, for the bulk import and the write-behind queue.
+ * - One query first reads the version and season of the batch's plans, scoped to their owners.
+ * - A plan with an id is upserted ({@link PlantPlanUpdates#replaceFields}) only if it is still at the version read,
+ *   so the previous season and the new version reported are those of the document actually written, as with
+ *   findAndModify on a single plan.
+ * - A plan another write changed or created in between cannot match; the upsert then fails on the existing id and
+ *   the plan is reported as {@link Status#CONFLICT}, to be written again. An id that belongs to another owner's plan
+ *   is {@link Status#FAILED}.
+ * - A plan without an id is inserted with a new id, at version 0.
+ * - If MongoDB fails the whole batch (unreachable, timeout), its {@code DataAccessException} is thrown; part of the
+ *   batch may have been written.
+ * Objective:
+ * *******************************************************
+ */
+
+public final class PlantPlanBatchWrites {
+
+    // Error code of a write that would duplicate a unique key, here the _id
+    private static final int DUPLICATE_KEY = 11000;
+
+    private PlantPlanBatchWrites() {
+    }
+
+    /** What the bulk write did to one plan. */
+    public enum Status {
+        /** The plan was inserted. */
+        CREATED,
+        /** The stored plan was replaced. */
+        UPDATED,
+        /** The stored plan changed between the read and the write; nothing was written. */
+        CONFLICT,
+        /** MongoDB refused the write, e.g. because the id belongs to another owner's plan. */
+        FAILED
+    }
+
+    /**
+     * Outcome of one plan of the batch.
+     *
+     * @param status         what was done
+     * @param previousSeason the season the plan had before an update, null otherwise
+     * @param version        the stored version after a write, null if nothing was written
+     * @param error          MongoDB's message for a conflict or failure, null otherwise
+     */
+    public record Outcome(Status status, Season previousSeason, Long version, String error) {
+    }
+
+    /**
+     * Writes the plans in one unordered bulk write.
+     *
+     * @param mongoTemplate template used for the read and the bulk write
+     * @param plans         plans with their owner set; plans without an id get one. Each (owner, id) at most once
+     * @return one outcome per plan, in the same order
+     * @throws org.springframework.dao.DataAccessException if MongoDB could not take the batch
+     */
+    public static List<Outcome> write(MongoTemplate mongoTemplate, List<PlantPlan> plans) {
+        Map<PlanKey, PlantPlan> previous = read(mongoTemplate, plans);
+
+        boolean[] inserts = new boolean[plans.size()];
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PlantPlan.class);
+        for (int i = 0; i < plans.size(); i++) {
+            PlantPlan plan = plans.get(i);
+            if (plan.getId() == null) {
+                // Assign the id up front so events and reports can name it; bulk inserts do not initialize versions
+                inserts[i] = true;
+                plan.setId(new ObjectId().toHexString());
+                plan.setVersion(0L);
+                bulk.insert(plan);
+            } else {
+                bulk.upsert(new Query(unchangedSince(plan, previous.get(PlanKey.of(plan)))),
+                        PlantPlanUpdates.replaceFields(plan));
+            }
+        }
+
+        BulkWriteResult result;
+        Map<Integer, BulkWriteError> errors = new HashMap<>();
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            result = e.getResult();
+            for (BulkWriteError error : e.getErrors()) {
+                errors.put(error.getIndex(), error);
+            }
+        }
+        Set<Integer> upserted = new HashSet<>();
+        result.getUpserts().forEach(upsert -> upserted.add(upsert.getIndex()));
+
+        // A plan that was not there but whose id is now taken: created by its owner meanwhile, or another owner's id
+        List<PlantPlan> taken = new ArrayList<>();
+        errors.forEach((index, error) -> {
+            PlantPlan plan = plans.get(index);
+            if (!inserts[index] && error.getCode() == DUPLICATE_KEY && !previous.containsKey(PlanKey.of(plan))) {
+                taken.add(plan);
+            }
+        });
+        Set<PlanKey> createdMeanwhile = taken.isEmpty() ? Set.of() : read(mongoTemplate, taken).keySet();
+
+        List<Outcome> outcomes = new ArrayList<>(plans.size());
+        for (int i = 0; i < plans.size(); i++) {
+            PlantPlan plan = plans.get(i);
+            PlantPlan old = previous.get(PlanKey.of(plan));
+            BulkWriteError error = errors.get(i);
+            if (error != null) {
+                boolean changed = !inserts[i] && error.getCode() == DUPLICATE_KEY
+                        && (old != null || createdMeanwhile.contains(PlanKey.of(plan)));
+                outcomes.add(new Outcome(changed ? Status.CONFLICT : Status.FAILED, null, null, error.getMessage()));
+            } else if (inserts[i]) {
+                outcomes.add(new Outcome(Status.CREATED, null, 0L, null));
+            } else if (upserted.contains(i)) {
+                // $inc on a new document starts the version at 1
+                outcomes.add(new Outcome(Status.CREATED, null, 1L, null));
+            } else {
+                Long version = old == null || old.getVersion() == null ? 1L : old.getVersion() + 1;
+                outcomes.add(new Outcome(Status.UPDATED, old == null ? null : old.getPlantingSeason(), version, null));
+            }
+        }
+        return outcomes;
+    }
+
+    // The owner is part of the filter, so an id taken by another owner fails instead of being overwritten; the
+    // version pins the document that was read. A plan that was not there may only be created, not matched
+    private static Criteria unchangedSince(PlantPlan plan, PlantPlan previous) {
+        Criteria criteria = where("id").is(plan.getId()).and("ownerId").is(plan.getOwnerId());
+        // $exists is not copied into an upserted document, unlike an equality on null
+        return previous == null || previous.getVersion() == null
+                ? criteria.and("version").exists(false)
+                : criteria.and("version").is(previous.getVersion());
+    }
+
+    // Owner, season and version of the plans that exist for their owner; one query, one $in per owner
+    private static Map<PlanKey, PlantPlan> read(MongoTemplate mongoTemplate, Collection<PlantPlan> plans) {
+        Map<String, List<String>> idsByOwner = new LinkedHashMap<>();
+        for (PlantPlan plan : plans) {
+            if (plan.getId() != null) {
+                idsByOwner.computeIfAbsent(plan.getOwnerId(), owner -> new ArrayList<>()).add(plan.getId());
+            }
+        }
+        if (idsByOwner.isEmpty()) {
+            return Map.of();
+        }
+        List<Criteria> byOwner = idsByOwner.entrySet().stream()
+                .map(owner -> where("ownerId").is(owner.getKey()).and("id").in(owner.getValue()))
+                .toList();
+        Query query = new Query(byOwner.size() == 1 ? byOwner.get(0) : new Criteria().orOperator(byOwner));
+        query.fields().include("ownerId").include("plantingSeason").include("version");
+
+        Map<PlanKey, PlantPlan> found = new HashMap<>();
+        for (PlantPlan plan : mongoTemplate.find(query, PlantPlan.class)) {
+            found.put(PlanKey.of(plan), plan);
+        }
+        return found;
+    }
+
+    /** A plan's identity: ids are only looked up within their owner's plans. */
+    private record PlanKey(String ownerId, String id) {
+        static PlanKey of(PlantPlan plan) {
+            return new PlanKey(plan.getOwnerId(), plan.getId());
+        }
+    }
+}
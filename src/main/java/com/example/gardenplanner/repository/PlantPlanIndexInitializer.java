@@ -0,0 +1,177 @@
+package com.example.gardenplanner.repository;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanSearchKeys;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: PlantPlanIndexInitializer.java
+ * Description: Creates the indexes declared on {@link PlantPlan} once the application has started.
+ * - Index definitions come from the {@code @CompoundIndex} annotations on the document class, so the model stays
+ *   the single place where indexes are declared.
+ * - Also back-fills the owner, the derived search keys and the version on documents written before those
+ *   fields existed.
+ * - With {@code gardenplanner.change-feed.pre-images=true}, also makes the collection record change-stream
+ *   pre-images (MongoDB 6.0+), so the change feed knows the owner of a deleted plan.
+ * - Indexes that are no longer declared (the single-field and season-first indexes from before plans had an owner)
+ *   are left in place; drop them by name once every instance runs this version.
+ * Objective:
+ * *******************************************************
+ */
+
+/**
+ * Spring Boot's {@code spring.data.mongodb.auto-index-creation} would create the same indexes, but it does so
+ * while the mapping context is being built, so an unreachable database would stop the application from starting.
+ * Running in the background once the application is ready ({@code PlantPlanStartupTasks}) keeps startup
+ * independent of MongoDB and only logs a warning.
+ * Creating an index that already exists is a no-op on the server, so this is safe to run on every start.
+ */
+@Slf4j
+@Component
+public class PlantPlanIndexInitializer {
+
+    // Number of documents back-filled per bulk write
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final boolean preImages;
+
+    @Autowired
+    public PlantPlanIndexInitializer(MongoTemplate mongoTemplate, MongoMappingContext mappingContext,
+                                     @Value("${gardenplanner.change-feed.pre-images:false}") boolean preImages) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.preImages = preImages;
+    }
+
+    /**
+     * Creates the declared indexes and back-fills missing search keys.
+     * Failures are logged and do not stop the application.
+     *
+     * @return true if the indexes were created and every back-fill ran
+     */
+    public boolean initialize() {
+        try {
+            backfillOwners();
+            ensureIndexes();
+            backfillSearchKeys();
+            backfillVersions();
+            if (preImages) {
+                enablePreImages();
+            }
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Could not initialize plantplans indexes: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Creates every index declared on {@link PlantPlan}.
+     */
+    public void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(PlantPlan.class);
+        IndexResolver.create(mappingContext)
+                .resolveIndexFor(PlantPlan.class)
+                .forEach(indexOps::createIndex);
+        log.info("plantplans indexes ensured");
+    }
+
+    /**
+     * Makes the collection record the document before each change, which change streams return to deletes.
+     * Pre-images are kept in the {@code config.system.preimages} collection until they expire
+     * (the cluster's {@code changeStreamOptions.preAndPostImages.expireAfterSeconds}, or the oplog window).
+     */
+    public void enablePreImages() {
+        if (!mongoTemplate.collectionExists(PlantPlan.class)) {
+            mongoTemplate.createCollection(PlantPlan.class);
+        }
+        mongoTemplate.executeCommand(new Document("collMod", mongoTemplate.getCollectionName(PlantPlan.class))
+                .append("changeStreamPreAndPostImages", new Document("enabled", true)));
+        log.info("plantplans change-stream pre-images enabled");
+    }
+
+    /**
+     * Gives every document without an owner to {@link PlantPlan#DEFAULT_OWNER}, so owner-scoped queries find it.
+     *
+     * @return the number of documents updated
+     */
+    public long backfillOwners() {
+        long updated = mongoTemplate.updateMulti(new Query(where("ownerId").exists(false)),
+                new Update().set("ownerId", PlantPlan.DEFAULT_OWNER), PlantPlan.class).getModifiedCount();
+        if (updated > 0) {
+            log.info("Back-filled owner '{}' on {} plantplans documents", PlantPlan.DEFAULT_OWNER, updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Sets version 0 on every document that has no version yet.
+     * Without it, save() would treat such a document as new and try to insert it again.
+     *
+     * @return the number of documents updated
+     */
+    public long backfillVersions() {
+        long updated = mongoTemplate.updateMulti(new Query(where("version").exists(false)),
+                new Update().set("version", 0L), PlantPlan.class).getModifiedCount();
+        if (updated > 0) {
+            log.info("Back-filled versions on {} plantplans documents", updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Computes the search keys for every document that does not have them yet, in unordered bulk writes.
+     *
+     * @return the number of documents updated
+     */
+    public long backfillSearchKeys() {
+        Query missingKeys = new Query(where("nameKey").exists(false));
+        long updated = 0;
+        int pending = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PlantPlan.class);
+
+        try (Stream<PlantPlan> plans = mongoTemplate.stream(missingKeys, PlantPlan.class)) {
+            for (PlantPlan plan : (Iterable<PlantPlan>) plans::iterator) {
+                PlantPlanSearchKeys.apply(plan);
+                bulk.updateOne(new Query(where("id").is(plan.getId())), new Update()
+                        .set("nameKey", plan.getNameKey())
+                        .set("nameGrams", plan.getNameGrams())
+                        .set("wateringFreqKey", plan.getWateringFreqKey())
+                        .set("wateringFreqGrams", plan.getWateringFreqGrams()));
+                if (++pending == BACKFILL_BATCH_SIZE) {
+                    updated += bulk.execute().getModifiedCount();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PlantPlan.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            updated += bulk.execute().getModifiedCount();
+        }
+        if (updated > 0) {
+            log.info("Back-filled search keys on {} plantplans documents", updated);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.gardenplanner.repository;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanQuery;
+import com.example.gardenplanner.model.PlantPlanSearchKeys;
+import com.example.gardenplanner.model.Season;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: PlantPlanQueryPlanner.java
+ * Description: Turns a {@link PlantPlanQuery} into one MongoDB {@link Query} lined up with the compound indexes.
+ * - Every query is scoped to one owner, the leading key of every compound index declared on {@link PlantPlan}.
+ * - Equality filters (owner, season, sunlight) are matched against the leading keys of each compound index;
+ *   the index with the longest matching prefix is chosen, preferring one whose next key serves a "contains"
+ *   filter (name, watering) or the requested sort. The query carries no hint: the caller hints the index only
+ *   once it knows the index exists, since MongoDB rejects a hint naming a missing index.
+ * - "Contains" filters use the trigram keys (indexed {@code $all}) plus an exact substring match on the
+ *   normalized key, so the result is exact and a limit can be applied on the server.
+ * - Criteria are added in the order of the chosen index, which keeps explain output easy to read
+ *   (MongoDB itself does not depend on the order of the filter document).
+ * Objective:
+ * *******************************************************
+ */
+
+public final class PlantPlanQueryPlanner {
+
+    // Compound indexes declared on PlantPlan, with their keys in index order
+    private static final Map<String, List<String>> COMPOUND_INDEXES = new LinkedHashMap<>();
+
+    // On a tie, the earlier index wins: a name or watering filter is usually more selective than the id order
+    static {
+        COMPOUND_INDEXES.put(PlantPlan.INDEX_OWNER_SEASON_SUNLIGHT_NAME,
+                List.of("ownerId", "plantingSeason", "sunlightNeeds", "nameKey"));
+        COMPOUND_INDEXES.put(PlantPlan.INDEX_OWNER_SUNLIGHT_NAME, List.of("ownerId", "sunlightNeeds", "nameKey"));
+        COMPOUND_INDEXES.put(PlantPlan.INDEX_OWNER_NAME, List.of("ownerId", "nameKey"));
+        COMPOUND_INDEXES.put(PlantPlan.INDEX_OWNER_WATERING, List.of("ownerId", "wateringFreqKey"));
+        COMPOUND_INDEXES.put(PlantPlan.INDEX_OWNER_ID, List.of("ownerId", "id"));
+    }
+
+    // Sort names accepted from clients, mapped to document fields
+    private static final Map<String, String> SORT_FIELDS = Map.of(
+            "name", "nameKey",
+            "season", "plantingSeason",
+            "sunlight", "sunlightNeeds",
+            "id", "id");
+
+    private PlantPlanQueryPlanner() {
+    }
+
+    /**
+     * Plans a combined query.
+     *
+     * @param ownerId the owner whose plans are searched
+     * @param request the filters, sort and limit sent by the client
+     * @param limit   the number of plans to return, already clamped by the caller
+     * @return the query and the name of the chosen index
+     * @throws IllegalArgumentException if the season or the sort field is unknown
+     */
+    public static PlannedQuery plan(String ownerId, PlantPlanQuery request, int limit) {
+        // Equality filters, keyed by document field
+        Map<String, Object> equalities = new LinkedHashMap<>();
+        equalities.put("ownerId", ownerId);
+        if (hasText(request.getSeason())) {
+            equalities.put("plantingSeason", Season.fromString(request.getSeason()));
+        }
+        if (hasText(request.getSunlight())) {
+            equalities.put("sunlightNeeds", request.getSunlight());
+        }
+        String nameKey = hasText(request.getName()) ? PlantPlanSearchKeys.normalize(request.getName()) : null;
+        String wateringKey = hasText(request.getWatering()) ? PlantPlanSearchKeys.normalize(request.getWatering()) : null;
+        Sort sort = toSort(request.getSort());
+
+        Set<String> containsFields = new HashSet<>();
+        if (nameKey != null) {
+            containsFields.add("nameKey");
+        }
+        if (wateringKey != null) {
+            containsFields.add("wateringFreqKey");
+        }
+        String index = chooseIndex(equalities, containsFields, sort);
+
+        // Criteria in index order first, then the remaining filters
+        Query query = new Query();
+        Set<String> added = new HashSet<>();
+        if (index != null) {
+            for (String key : COMPOUND_INDEXES.get(index)) {
+                if (equalities.containsKey(key)) {
+                    query.addCriteria(Criteria.where(key).is(equalities.get(key)));
+                    added.add(key);
+                }
+            }
+        }
+        equalities.forEach((key, value) -> {
+            if (!added.contains(key)) {
+                query.addCriteria(Criteria.where(key).is(value));
+            }
+        });
+        addContains(query, "nameKey", "nameGrams", nameKey);
+        addContains(query, "wateringFreqKey", "wateringFreqGrams", wateringKey);
+
+        query.with(sort).limit(limit);
+        return new PlannedQuery(query, index);
+    }
+
+    /**
+     * Picks the compound index with the longest prefix of equality filters.
+     * An index whose next key is filtered with "contains" or sorted on wins a tie.
+     *
+     * @return the index name, or null if no compound index starts with a filtered field
+     */
+    private static String chooseIndex(Map<String, Object> equalities, Set<String> containsFields, Sort sort) {
+        Sort.Order first = sort.stream().findFirst().orElse(null);
+        String sortField = first == null ? null : first.getProperty();
+
+        String best = null;
+        int bestScore = 0;
+        for (Map.Entry<String, List<String>> index : COMPOUND_INDEXES.entrySet()) {
+            List<String> keys = index.getValue();
+            int prefix = 0;
+            while (prefix < keys.size() && equalities.containsKey(keys.get(prefix))) {
+                prefix++;
+            }
+            if (prefix == 0) {
+                continue;
+            }
+            int score = prefix * 2;
+            if (prefix < keys.size()) {
+                String next = keys.get(prefix);
+                if (next.equals(sortField) || containsFields.contains(next)) {
+                    score++;
+                }
+            }
+            if (score > bestScore) {
+                best = index.getKey();
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Adds an exact "contains" filter on a normalized key, narrowed by its indexed trigrams when long enough.
+     */
+    private static void addContains(Query query, String keyField, String gramsField, String keyword) {
+        if (keyword == null) {
+            return;
+        }
+        query.addCriteria(Criteria.where(keyField).regex(Pattern.quote(keyword)));
+        if (keyword.length() >= PlantPlanSearchKeys.GRAM_SIZE) {
+            query.addCriteria(Criteria.where(gramsField).all(PlantPlanSearchKeys.grams(keyword)));
+        }
+    }
+
+    /**
+     * Parses the client sort ("name", "-season", ...); ties are broken by id so results are stable.
+     */
+    private static Sort toSort(String sort) {
+        if (!hasText(sort)) {
+            return Sort.by(Sort.Direction.ASC, "id");
+        }
+        String name = sort.trim();
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (name.startsWith("-")) {
+            direction = Sort.Direction.DESC;
+            name = name.substring(1);
+        }
+        String field = SORT_FIELDS.get(name.toLowerCase(Locale.ROOT));
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown sort field: " + sort);
+        }
+        Sort order = Sort.by(direction, field);
+        return field.equals("id") ? order : order.and(Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * A planned query.
+     *
+     * @param query the query to run, without an index hint
+     * @param index the compound index the filters line up with, or null if none does
+     */
+    public record PlannedQuery(Query query, String index) {
+    }
+}
@@ -3,9 +3,13 @@ package com.example.gardenplanner.repository;
 
 import com.example.gardenplanner.model.PlantPlan;
 import com.example.gardenplanner.model.Season;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * *******************************************************
@@ -24,27 +28,98 @@ import java.util.*;
  * Spring Data MongoDB will automatically detect this interface during component scanning and create a proxy bean at runtime.
  */
 
-public interface PlantPlanRepository extends MongoRepository<PlantPlan, String> {
+public interface PlantPlanRepository extends MongoRepository<PlantPlan, String>, PlantPlanWrites {
     // MongoRepository provides out-of-the-box CRUD methods like:
     // - findAll()
     // - findById(String id)
     // - insert(Product product)
     // - deleteById(String id)
     // - count()
+    //
+    // The queries below serve API requests and are all scoped to one owner: 'ownerId' is the first key of
+    // every compound index on PlantPlan, so each one only scans the index range of that owner.
+    // The unscoped CRUD methods are left to maintenance jobs (index back-fills, snapshots, counters).
+    // Updates and deletes of single plans go through PlantPlanWrites, which returns the previous season atomically.
 
     // 1. Find by plantingSeason
-    List<PlantPlan> findByPlantingSeason(Season plantingSeason);
+    List<PlantPlan> findByOwnerIdAndPlantingSeason(String ownerId, Season plantingSeason);
 
     // 2. Find by sunlightNeeds
-    List<PlantPlan> findBySunlightNeeds(String sunlightNeeds);
+    List<PlantPlan> findByOwnerIdAndSunlightNeeds(String ownerId, String sunlightNeeds);
 
     // 3. Search wateringFreq containing keyword
-    List<PlantPlan> findByWateringFreqContainingIgnoreCase(String keyword);
+    //    a) keywords of 3+ characters: indexed $all on the trigrams (callers re-check the full keyword)
+    @Query("{ 'ownerId': ?0, 'wateringFreqGrams': { $all: ?1 } }")
+    List<PlantPlan> findByOwnerIdAndWateringFreqGramsAll(String ownerId, Collection<String> grams);
 
-    // 4. Count by plantingSeason
-    long countByPlantingSeason(String plantingSeason);
+    //    b) shorter keywords: substring match on the normalized key (an index scan, not a collection scan)
+    List<PlantPlan> findByOwnerIdAndWateringFreqKeyContaining(String ownerId, String normalizedKeyword);
+
+    // 4. Counts
+    long countByOwnerIdAndPlantingSeason(String ownerId, Season plantingSeason);
+
+    long countByOwnerId(String ownerId);
+
+    //    every (owner, season) pair in one pass, to seed the in-memory counters; legacy documents group under null
+    @Aggregation({
+            "{ $group: { _id: { ownerId: '$ownerId', plantingSeason: '$plantingSeason' }, count: { $sum: 1 } } }",
+            "{ $project: { _id: 0, ownerId: '$_id.ownerId', plantingSeason: '$_id.plantingSeason', count: 1 } }"
+    })
+    List<OwnerSeasonCount> countByOwnerAndSeason();
+
+    //    the same for some owners only, to correct their counters after a write with an unknown outcome
+    @Aggregation({
+            "{ $match: { ownerId: { $in: ?0 } } }",
+            "{ $group: { _id: { ownerId: '$ownerId', plantingSeason: '$plantingSeason' }, count: { $sum: 1 } } }",
+            "{ $project: { _id: 0, ownerId: '$_id.ownerId', plantingSeason: '$_id.plantingSeason', count: 1 } }"
+    })
+    List<OwnerSeasonCount> countByOwnerAndSeasonOf(Collection<String> ownerIds);
 
     // 5. Name search (partial, case-insensitive)
-    List<PlantPlan> findByNameContainingIgnoreCase(String keyword);
+    //    a) keywords of 3+ characters: indexed $all on the trigrams (callers re-check the full keyword)
+    @Query("{ 'ownerId': ?0, 'nameGrams': { $all: ?1 } }")
+    List<PlantPlan> findByOwnerIdAndNameGramsAll(String ownerId, Collection<String> grams);
+
+    //    b) shorter keywords: substring match on the normalized key (an index scan, not a collection scan)
+    List<PlantPlan> findByOwnerIdAndNameKeyContaining(String ownerId, String normalizedKeyword);
+
+    // 6. Every plan of an owner, and a single plan - only if it belongs to the owner
+    List<PlantPlan> findByOwnerId(String ownerId);
+
+    Optional<PlantPlan> findByIdAndOwnerId(String id, String ownerId);
+
+    // 7. First page of a keyset (cursor) listing - no count query, unlike findAll(Pageable)
+    List<PlantPlan> findByOwnerId(String ownerId, Pageable pageable);
+
+    // 8. Next page of a keyset listing: plans whose '_id' sorts after the cursor ({ownerId, _id} index)
+    List<PlantPlan> findByOwnerIdAndIdGreaterThan(String ownerId, String cursor, Pageable pageable);
+
+    // 9. Stream plans from a Mongo cursor (caller must close the stream)
+    Stream<PlantPlan> streamByOwnerId(String ownerId);
+
+    //    every owner's plans, for in-memory indexes loaded at startup
+    Stream<PlantPlan> streamAllBy();
+
+    // 10. Projections: same queries, returning only the fields of the given type (e.g. PlantPlanSummary).
+    //     Spring Data turns the type's properties into a MongoDB field projection.
+    <T> List<T> findByOwnerId(String ownerId, Class<T> type);
+
+    <T> List<T> findByOwnerIdAndPlantingSeason(String ownerId, Season plantingSeason, Class<T> type);
+
+    <T> List<T> findByOwnerIdAndSunlightNeeds(String ownerId, String sunlightNeeds, Class<T> type);
+
+    @Query("{ 'ownerId': ?0, 'nameGrams': { $all: ?1 } }")
+    <T> List<T> findByOwnerIdAndNameGramsAll(String ownerId, Collection<String> grams, Class<T> type);
+
+    <T> List<T> findByOwnerIdAndNameKeyContaining(String ownerId, String normalizedKeyword, Class<T> type);
 
+    /**
+     * Number of plans of one owner in one season.
+     *
+     * @param ownerId        the owner (null for documents written before plans had owners)
+     * @param plantingSeason the season (null for documents without one)
+     * @param count          the number of plans
+     */
+    record OwnerSeasonCount(String ownerId, Season plantingSeason, long count) {
+    }
 }
@@ -0,0 +1,27 @@
+package com.example.gardenplanner.repository;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanSearchKeys;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: PlantPlanSearchKeysCallback.java
+ * Description: Keeps the derived search keys of a {@link PlantPlan} in sync with its fields.
+ * - Spring Data MongoDB calls this before any PlantPlan is converted to a document
+ *   (insert, save and bulk inserts), so the stored keys always match the stored name / watering frequency.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+public class PlantPlanSearchKeysCallback implements BeforeConvertCallback<PlantPlan> {
+
+    @Override
+    public PlantPlan onBeforeConvert(PlantPlan plan, String collection) {
+        return PlantPlanSearchKeys.apply(plan);
+    }
+}
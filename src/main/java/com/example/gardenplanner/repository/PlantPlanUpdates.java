@@ -0,0 +1,47 @@
+package com.example.gardenplanner.repository;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanSearchKeys;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: PlantPlanUpdates.java
+ * Description: Builds MongoDB {@link Update} documents for PlantPlans written outside of repository save().
+ * - Bulk and batched writes use {@code $set} upserts instead of whole-document replaces, so that the
+ *   optimistic-locking {@code version} keeps counting up ({@code $inc}) instead of being overwritten.
+ * - Entity callbacks do not run for updates, so the derived search keys are computed here.
+ * Objective:
+ * *******************************************************
+ */
+
+public final class PlantPlanUpdates {
+
+    private PlantPlanUpdates() {
+    }
+
+    /**
+     * Creates an update that sets every field of the plan (fields that are null are stored as null),
+     * refreshes the search keys and increments the version.
+     * Used with an upsert on the plan's id, it behaves like a versioned save.
+     *
+     * @param plan the plan holding the new values; its id and version are not written
+     * @return the update
+     */
+    public static Update replaceFields(PlantPlan plan) {
+        PlantPlanSearchKeys.apply(plan);
+        return new Update()
+                .set("name", plan.getName())
+                .set("plantingSeason", plan.getPlantingSeason())
+                .set("sunlightNeeds", plan.getSunlightNeeds())
+                .set("wateringFreq", plan.getWateringFreq())
+                .set("notes", plan.getNotes())
+                .set("nameKey", plan.getNameKey())
+                .set("nameGrams", plan.getNameGrams())
+                .set("wateringFreqKey", plan.getWateringFreqKey())
+                .set("wateringFreqGrams", plan.getWateringFreqGrams())
+                .inc("version", 1);
+    }
+}
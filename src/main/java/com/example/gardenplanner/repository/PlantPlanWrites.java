@@ -0,0 +1,48 @@
+package com.example.gardenplanner.repository;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+
+import java.util.Optional;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: PlantPlanWrites.java
+ * Description: Writes of {@link PlantPlanRepository} that also return what the plan was before, in the same atomic
+ * MongoDB command (findAndModify / findAndRemove).
+ * - The previous season comes from the document that was actually changed, so the counters stay exact when
+ *   several requests write the same plan at once.
+ * - Only the id, season and version of the previous plan are read back.
+ * Objective:
+ * *******************************************************
+ */
+
+public interface PlantPlanWrites {
+
+    /**
+     * Writes every field of the plan to its owner's plan with the same id, inserting it if there is none.
+     * The version is incremented, so a new plan starts at 1.
+     *
+     * @param plan            the new plan; its id and owner select the document, its version is not written
+     * @param expectedVersion only write if the stored plan is at this version; {@code null} writes (or inserts)
+     *                        whatever is stored
+     * @param mustExist       only write if the owner has a plan with this id, never insert; checked by the write
+     *                        itself, so a plan deleted just before is not created again
+     * @return the plan before the write, holding only its id, season and version; empty if it was inserted
+     * @throws org.springframework.dao.OptimisticLockingFailureException if {@code expectedVersion} or
+     *                                                                   {@code mustExist} is set and the plan is
+     *                                                                   missing or at another version
+     * @throws org.springframework.dao.DuplicateKeyException             if the id belongs to another owner's plan
+     */
+    Optional<PlantPlan> replaceFields(PlantPlan plan, Long expectedVersion, boolean mustExist);
+
+    /**
+     * Deletes one of the owner's plans.
+     *
+     * @param id      the plan id
+     * @param ownerId the owner
+     * @return the deleted plan, holding only its id, season and version; empty if the owner has no plan with this id
+     */
+    Optional<PlantPlan> findAndRemove(String id, String ownerId);
+}
@@ -0,0 +1,65 @@
+package com.example.gardenplanner.repository;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: PlantPlanWritesImpl.java
+ * Description: {@link PlantPlanWrites} on {@link MongoTemplate}; Spring Data adds it to {@link PlantPlanRepository}.
+ * Objective:
+ * *******************************************************
+ */
+
+class PlantPlanWritesImpl implements PlantPlanWrites {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    PlantPlanWritesImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<PlantPlan> replaceFields(PlantPlan plan, Long expectedVersion, boolean mustExist) {
+        // The owner is part of the filter: an upsert on an id taken by another owner fails instead of overwriting it
+        Criteria criteria = where("id").is(plan.getId()).and("ownerId").is(plan.getOwnerId());
+        if (expectedVersion != null) {
+            criteria = criteria.and("version").is(expectedVersion);
+        }
+        PlantPlan previous = mongoTemplate.findAndModify(previousSeason(new Query(criteria)),
+                PlantPlanUpdates.replaceFields(plan),
+                FindAndModifyOptions.options().returnNew(false).upsert(expectedVersion == null && !mustExist),
+                PlantPlan.class);
+        if (previous == null && expectedVersion != null) {
+            throw new OptimisticLockingFailureException(
+                    "PlantPlan " + plan.getId() + " is not at version " + expectedVersion);
+        }
+        if (previous == null && mustExist) {
+            throw new OptimisticLockingFailureException("PlantPlan " + plan.getId() + " does not exist");
+        }
+        return Optional.ofNullable(previous);
+    }
+
+    @Override
+    public Optional<PlantPlan> findAndRemove(String id, String ownerId) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(
+                previousSeason(new Query(where("id").is(id).and("ownerId").is(ownerId))), PlantPlan.class));
+    }
+
+    static Query previousSeason(Query query) {
+        query.fields().include("plantingSeason").include("version");
+        return query;
+    }
+}
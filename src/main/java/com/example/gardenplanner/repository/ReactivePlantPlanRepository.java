@@ -0,0 +1,62 @@
+package com.example.gardenplanner.repository;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.Season;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: ReactivePlantPlanRepository.java
+ * Description: Reactive (non-blocking) repository for the `PlantPlan` document, used by the "reactive" profile.
+ * - Mirrors the derived queries of {@link PlantPlanRepository}, returning {@link Flux} / {@link Mono}.
+ * - Results are pulled from the MongoDB cursor on demand, so slow consumers apply backpressure to the query.
+ * Objective:
+ * *******************************************************
+ */
+
+public interface ReactivePlantPlanRepository extends ReactiveMongoRepository<PlantPlan, String>, ReactivePlantPlanWrites {
+    // ReactiveMongoRepository provides the same CRUD methods as MongoRepository, returning Flux / Mono
+    // Like PlantPlanRepository, every query is scoped to one owner (the first key of every compound index)
+
+    // 1. Find by plantingSeason
+    Flux<PlantPlan> findByOwnerIdAndPlantingSeason(String ownerId, Season plantingSeason);
+
+    // 2. Find by sunlightNeeds
+    Flux<PlantPlan> findByOwnerIdAndSunlightNeeds(String ownerId, String sunlightNeeds);
+
+    // 3. Search wateringFreq containing keyword (see PlantPlanRepository)
+    @Query("{ 'ownerId': ?0, 'wateringFreqGrams': { $all: ?1 } }")
+    Flux<PlantPlan> findByOwnerIdAndWateringFreqGramsAll(String ownerId, Collection<String> grams);
+
+    Flux<PlantPlan> findByOwnerIdAndWateringFreqKeyContaining(String ownerId, String normalizedKeyword);
+
+    // 4. Counts
+    Mono<Long> countByOwnerIdAndPlantingSeason(String ownerId, Season plantingSeason);
+
+    Mono<Long> countByOwnerId(String ownerId);
+
+    // 5. Name search (see PlantPlanRepository)
+    @Query("{ 'ownerId': ?0, 'nameGrams': { $all: ?1 } }")
+    Flux<PlantPlan> findByOwnerIdAndNameGramsAll(String ownerId, Collection<String> grams);
+
+    Flux<PlantPlan> findByOwnerIdAndNameKeyContaining(String ownerId, String normalizedKeyword);
+
+    // 6. Every plan of an owner, and a single plan - only if it belongs to the owner
+    Flux<PlantPlan> findByOwnerId(String ownerId);
+
+    Mono<PlantPlan> findByIdAndOwnerId(String id, String ownerId);
+
+    // 7. First page of a keyset (cursor) listing
+    Flux<PlantPlan> findByOwnerId(String ownerId, Pageable pageable);
+
+    // 8. Next page of a keyset listing
+    Flux<PlantPlan> findByOwnerIdAndIdGreaterThan(String ownerId, String cursor, Pageable pageable);
+}
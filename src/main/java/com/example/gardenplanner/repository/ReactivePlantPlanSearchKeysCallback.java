@@ -0,0 +1,29 @@
+package com.example.gardenplanner.repository;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanSearchKeys;
+import org.reactivestreams.Publisher;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: ReactivePlantPlanSearchKeysCallback.java
+ * Description: Reactive counterpart of {@link PlantPlanSearchKeysCallback}.
+ * - ReactiveMongoTemplate only invokes reactive entity callbacks, so writes made through
+ *   {@link ReactivePlantPlanRepository} need this to keep the derived search keys in sync.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+public class ReactivePlantPlanSearchKeysCallback implements ReactiveBeforeConvertCallback<PlantPlan> {
+
+    @Override
+    public Publisher<PlantPlan> onBeforeConvert(PlantPlan plan, String collection) {
+        return Mono.just(PlantPlanSearchKeys.apply(plan));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.gardenplanner.repository;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import reactor.core.publisher.Mono;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: ReactivePlantPlanWrites.java
+ * Description: Reactive counterpart of {@link PlantPlanWrites}, added to {@link ReactivePlantPlanRepository}.
+ * Objective:
+ * *******************************************************
+ */
+
+public interface ReactivePlantPlanWrites {
+
+    /**
+     * Writes every field of the plan to its owner's plan with the same id, inserting it if there is none.
+     *
+     * @param plan            the new plan; its id and owner select the document, its version is not written
+     * @param expectedVersion only write if the stored plan is at this version; {@code null} writes (or inserts)
+     *                        whatever is stored
+     * @param mustExist       only write if the owner has a plan with this id, never insert
+     * @return the plan before the write, holding only its id, season and version; empty if it was inserted.
+     *         Fails with {@link org.springframework.dao.OptimisticLockingFailureException} if a condition does
+     *         not hold, and with {@link org.springframework.dao.DuplicateKeyException} if the id belongs to
+     *         another owner's plan.
+     * @see PlantPlanWrites#replaceFields(PlantPlan, Long, boolean)
+     */
+    Mono<PlantPlan> replaceFields(PlantPlan plan, Long expectedVersion, boolean mustExist);
+
+    /**
+     * Deletes one of the owner's plans.
+     *
+     * @param id      the plan id
+     * @param ownerId the owner
+     * @return the deleted plan, holding only its id, season and version; empty if the owner has no plan with this id
+     */
+    Mono<PlantPlan> findAndRemove(String id, String ownerId);
+}
@@ -0,0 +1,59 @@
+package com.example.gardenplanner.repository;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.repository
+ * File: ReactivePlantPlanWritesImpl.java
+ * Description: {@link ReactivePlantPlanWrites} on {@link ReactiveMongoTemplate}; Spring Data adds it to
+ * {@link ReactivePlantPlanRepository}.
+ * Objective:
+ * *******************************************************
+ */
+
+class ReactivePlantPlanWritesImpl implements ReactivePlantPlanWrites {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    ReactivePlantPlanWritesImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<PlantPlan> replaceFields(PlantPlan plan, Long expectedVersion, boolean mustExist) {
+        // Same filter and conditions as PlantPlanWritesImpl
+        Criteria criteria = where("id").is(plan.getId()).and("ownerId").is(plan.getOwnerId());
+        if (expectedVersion != null) {
+            criteria = criteria.and("version").is(expectedVersion);
+        }
+        Mono<PlantPlan> previous = mongoTemplate.findAndModify(PlantPlanWritesImpl.previousSeason(new Query(criteria)),
+                PlantPlanUpdates.replaceFields(plan),
+                FindAndModifyOptions.options().returnNew(false).upsert(expectedVersion == null && !mustExist),
+                PlantPlan.class);
+        if (expectedVersion == null && !mustExist) {
+            return previous;
+        }
+        return previous.switchIfEmpty(Mono.error(() -> new OptimisticLockingFailureException(expectedVersion != null
+                ? "PlantPlan " + plan.getId() + " is not at version " + expectedVersion
+                : "PlantPlan " + plan.getId() + " does not exist")));
+    }
+
+    @Override
+    public Mono<PlantPlan> findAndRemove(String id, String ownerId) {
+        return mongoTemplate.findAndRemove(
+                PlantPlanWritesImpl.previousSeason(new Query(where("id").is(id).and("ownerId").is(ownerId))),
+                PlantPlan.class);
+    }
+}
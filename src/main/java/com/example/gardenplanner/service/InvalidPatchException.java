@@ -0,0 +1,35 @@
+package com.example.gardenplanner.service;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: InvalidPatchException.java
+ * Description: Thrown when a partial update names an unknown field or breaks a {@code PlantPlan} constraint.
+ * - Mapped to HTTP 400 Bad Request; {@link #getErrors()} lists every problem as "field: message".
+ * Objective:
+ * *******************************************************
+ */
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPatchException extends RuntimeException {
+
+    private final List<String> errors;
+
+    public InvalidPatchException(List<String> errors) {
+        super("Invalid patch: " + String.join("; ", errors));
+        this.errors = List.copyOf(errors);
+    }
+
+    /**
+     * @return one "field: message" entry per problem found in the patch
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+}
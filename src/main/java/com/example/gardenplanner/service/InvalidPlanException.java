@@ -0,0 +1,36 @@
+package com.example.gardenplanner.service;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: InvalidPlanException.java
+ * Description: Thrown when a plan given to the {@link PlantPlanWriteBehindQueue} breaks a {@code PlantPlan}
+ * constraint, so it is refused before it is queued instead of failing later, after the client was answered.
+ * - Mapped to HTTP 400 Bad Request; {@link #getErrors()} lists every problem as "field: message".
+ * Objective:
+ * *******************************************************
+ */
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPlanException extends RuntimeException {
+
+    private final List<String> errors;
+
+    public InvalidPlanException(List<String> errors) {
+        super("Invalid plan: " + String.join("; ", errors));
+        this.errors = List.copyOf(errors);
+    }
+
+    /**
+     * @return one "field: message" entry per constraint the plan breaks
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.gardenplanner.service;
+
+
+import com.example.gardenplanner.model.PlantPlanChange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: LocalPlantPlanChangeSource.java
+ * Description: Feeds the {@link PlantPlanChangeFeed} from the {@link PlantPlanChange} events published by this
+ * instance's own write paths ({@code gardenplanner.change-feed.source=local}).
+ * - Needs no replica set, so it suits a standalone MongoDB, local development and tests.
+ * - Only sees writes made through this instance; event ids are only meaningful to this instance.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+@ConditionalOnProperty(name = "gardenplanner.change-feed.source", havingValue = "local")
+public class LocalPlantPlanChangeSource {
+
+    private final PlantPlanChangeFeed feed;
+
+    // Event ids: start time of this instance plus a sequence number, so ids of an earlier run never match
+    private final String startedAt = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Autowired
+    public LocalPlantPlanChangeSource(PlantPlanChangeFeed feed) {
+        this.feed = feed;
+    }
+
+    /**
+     * Forwards a change published by a write path to the feed.
+     *
+     * @param change the change
+     */
+    @EventListener
+    public void onChange(PlantPlanChange change) {
+        feed.publish(startedAt + "-" + sequence.incrementAndGet(), change);
+    }
+}
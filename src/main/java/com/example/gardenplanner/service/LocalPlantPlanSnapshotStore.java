@@ -0,0 +1,83 @@
+package com.example.gardenplanner.service;
+
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: LocalPlantPlanSnapshotStore.java
+ * Description: Keeps snapshot files in a directory on the server ({@code gardenplanner.snapshots.store=local}).
+ * - {@code gardenplanner.snapshots.dir}, relative to the working directory unless absolute.
+ * - A snapshot is written to a {@code .part} file that is renamed once complete.
+ * - The files are lost with the disk: on platforms with an ephemeral file system (Heroku dynos), use the
+ *   GridFS store instead.
+ * Objective:
+ * *******************************************************
+ */
+
+@Component
+@ConditionalOnProperty(name = "gardenplanner.snapshots.store", havingValue = "local")
+public class LocalPlantPlanSnapshotStore implements PlantPlanSnapshotStore {
+
+    private final Path directory;
+
+    @Autowired
+    public LocalPlantPlanSnapshotStore(@Value("${gardenplanner.snapshots.dir:snapshots}") Path directory) {
+        this.directory = directory.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public List<String> list() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .map(path -> path.getFileName().toString())
+                    .toList();
+        }
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return Files.isRegularFile(directory.resolve(name));
+    }
+
+    @Override
+    public long size(String name) throws IOException {
+        return Files.size(directory.resolve(name));
+    }
+
+    @Override
+    public long write(String name, SnapshotWriter writer) throws IOException {
+        Path target = directory.resolve(name);
+        Path part = directory.resolve(name + ".part");
+        Files.createDirectories(directory);
+        try (OutputStream out = Files.newOutputStream(part)) {
+            writer.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+        Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(target);
+    }
+
+    @Override
+    public InputStream open(String name) throws IOException {
+        return Files.newInputStream(directory.resolve(name));
+    }
+}
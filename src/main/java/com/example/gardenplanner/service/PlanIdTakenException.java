@@ -0,0 +1,25 @@
+package com.example.gardenplanner.service;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: PlanIdTakenException.java
+ * Description: Thrown when a PUT would create a plan under an id that belongs to a plan of another owner.
+ * - Mapped to HTTP 404 Not Found, as if the plan did not exist: a 409 Conflict would tell the caller that
+ *   another owner has that id.
+ * Objective:
+ * *******************************************************
+ */
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class PlanIdTakenException extends RuntimeException {
+
+    // No cause: @ExceptionHandler methods also match causes, and the DuplicateKeyException one answers 409
+    public PlanIdTakenException(String id) {
+        super("PlantPlan " + id + " not found");
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.gardenplanner.service;
+
+
+import com.example.gardenplanner.config.BinaryFormatsConfig;
+import com.example.gardenplanner.config.CacheConfig;
+import com.example.gardenplanner.model.BulkItemResult;
+import com.example.gardenplanner.model.BulkWriteReport;
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanChange;
+import com.example.gardenplanner.repository.PlantPlanBatchWrites;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: PlantPlanBulkService.java
+ * Description: Bulk ingestion of PlantPlans (JSON array, NDJSON, Smile or CBOR) using unordered MongoDB bulk writes.
+ * - Items are read one at a time from the request stream, validated with the {@link PlantPlan} constraints,
+ *   and grouped into unordered {@link BulkOperations} of {@code gardenplanner.bulk.batch-size} items.
+ * - Plans without an id are inserted; plans with an id are upserted (all fields replaced if the id exists).
+ *   If an id appears twice in one batch, only the later item is written; the earlier is reported as superseded.
+ * - The counters are adjusted per batch from what the bulk write did ({@link PlantPlanBatchWrites}: each upsert only
+ *   applies to the version read just before it), so an import never reloads every counter and concurrent writes
+ *   to the same plans cannot make them drift. A batch that fails midway has its owner's counters re-counted.
+ * Objective: an import costs one round trip per batch instead of one HTTP request and one round trip per plan.
+ * *******************************************************
+ */
+
+@Service
+public class PlantPlanBulkService {
+
+    // Attempts at writing an item that other writes keep changing between the read and the bulk write
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
+    private final ObjectReader planReader;
+    private final ObjectReader smilePlanReader;
+    private final ObjectReader cborPlanReader;
+    private final PlantPlanCounters counters;
+    private final ApplicationEventPublisher events;
+    private final CacheManager cacheManager;
+    private final int batchSize;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param mongoTemplate template used to run the bulk writes
+     * @param validator     Bean Validation validator applied to every item
+     * @param objectMapper  the application's Jackson mapper, used to read items from the request stream
+     * @param smile         converter whose mapper reads Smile request streams
+     * @param cbor          converter whose mapper reads CBOR request streams
+     * @param counters      in-memory plan counters to keep in step with the import
+     * @param events        publisher of one {@link PlantPlanChange} event per written plan
+     * @param cacheManager  cache manager holding the plan, season listing and calendar caches
+     * @param batchSize     number of items sent to MongoDB per bulk write
+     */
+    @Autowired
+    public PlantPlanBulkService(MongoTemplate mongoTemplate,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                MappingJackson2SmileHttpMessageConverter smile,
+                                MappingJackson2CborHttpMessageConverter cbor,
+                                PlantPlanCounters counters,
+                                ApplicationEventPublisher events,
+                                CacheManager cacheManager,
+                                @Value("${gardenplanner.bulk.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.validator = validator;
+        this.planReader = objectMapper.readerFor(PlantPlan.class);
+        this.smilePlanReader = smile.getObjectMapper().readerFor(PlantPlan.class);
+        this.cborPlanReader = cbor.getObjectMapper().readerFor(PlantPlan.class);
+        this.counters = counters;
+        this.events = events;
+        this.cacheManager = cacheManager;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Reads plans from a JSON array or an NDJSON stream (or their Smile / CBOR equivalents: an array or a sequence
+     * of root values) and writes them in unordered bulk batches.
+     * <p>
+     * An item that cannot be parsed or fails validation is reported as {@link BulkItemResult.Status#INVALID}
+     * and does not stop the import. Malformed JSON that cannot be skipped ends the import at that point;
+     * everything before it has been written and is reported. An id taken by a plan of another owner is reported
+     * as {@link BulkItemResult.Status#FAILED} (duplicate key) and that plan is left untouched.
+     *
+     * @param ownerId     the owner of every imported plan
+     * @param body        the raw request body
+     * @param contentType the media type of the body; anything but Smile or CBOR is read as JSON
+     * @return a {@link BulkWriteReport} with the totals, the id and status of the leading items and the items that
+     *         were not written, in request order
+     * @throws IOException if the request body cannot be read
+     */
+    @CacheEvict(cacheNames = CacheConfig.PLAN_FACETS, key = "#ownerId")
+    public BulkWriteReport importPlans(String ownerId, InputStream body, MediaType contentType) throws IOException {
+        BulkWriteReport report = new BulkWriteReport();
+        // Valid items waiting to be written, by id
+        Map<String, PendingItem> batch = new LinkedHashMap<>();
+        int index = 0;
+
+        try (MappingIterator<PlantPlan> items = readerFor(contentType).readValues(body)) {
+            while (true) {
+                PlantPlan plan;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    plan = items.nextValue();
+                } catch (JsonMappingException e) {
+                    // The item was well-formed JSON but not a valid PlantPlan; the iterator can skip it
+                    report.rejected(invalid(index++, null, List.of(e.getOriginalMessage())));
+                    continue;
+                } catch (JsonProcessingException e) {
+                    // Broken JSON: there is no safe place to resume from
+                    report.rejected(invalid(index, null, List.of(e.getOriginalMessage())));
+                    break;
+                }
+
+                List<String> violations = validate(plan);
+                if (!violations.isEmpty()) {
+                    report.rejected(invalid(index++, plan.getId(), violations));
+                    continue;
+                }
+
+                plan.setOwnerId(ownerId);
+                PendingItem item = new PendingItem(index++, plan);
+                // Plans without an id get a new one each, so only plans with an id can repeat within a batch
+                PendingItem earlier = batch.put(plan.getId() != null ? plan.getId() : "#" + item.index(), item);
+                if (earlier != null) {
+                    // Two upserts of one id in one unordered bulk write would race; the later item wins
+                    report.written(new BulkItemResult(earlier.index(), plan.getId(), BulkItemResult.Status.SUPERSEDED,
+                            List.of()));
+                }
+                if (batch.size() == batchSize) {
+                    flush(ownerId, batch.values(), report);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(ownerId, batch.values(), report);
+        }
+        report.sort();
+        return report;
+    }
+
+    /**
+     * Sends one batch as a single unordered bulk write and records the outcome of each item. Items another write
+     * changed while the batch was being written are sent again, up to {@value #MAX_ATTEMPTS} times in all.
+     */
+    private void flush(String ownerId, Collection<PendingItem> batch, BulkWriteReport report) {
+        List<PendingItem> remaining = List.copyOf(batch);
+        for (int attempt = 1; !remaining.isEmpty(); attempt++) {
+            List<PlantPlanBatchWrites.Outcome> outcomes;
+            try {
+                outcomes = PlantPlanBatchWrites.write(mongoTemplate, remaining.stream().map(PendingItem::plan).toList());
+            } catch (DataAccessException e) {
+                // Part of the batch may have been written without being counted
+                counters.markStale(List.of(ownerId));
+                throw e;
+            }
+
+            List<PendingItem> conflicts = new ArrayList<>();
+            for (int i = 0; i < remaining.size(); i++) {
+                PendingItem item = remaining.get(i);
+                PlantPlan plan = item.plan();
+                PlantPlanBatchWrites.Outcome outcome = outcomes.get(i);
+                switch (outcome.status()) {
+                    case CONFLICT -> {
+                        if (attempt < MAX_ATTEMPTS) {
+                            conflicts.add(item);
+                        } else {
+                            report.rejected(new BulkItemResult(item.index(), plan.getId(), BulkItemResult.Status.FAILED,
+                                    List.of(outcome.error())));
+                        }
+                    }
+                    case FAILED -> report.rejected(new BulkItemResult(item.index(), plan.getId(),
+                            BulkItemResult.Status.FAILED, List.of(outcome.error())));
+                    case UPDATED -> {
+                        plan.setVersion(outcome.version());
+                        counters.moved(ownerId, outcome.previousSeason(), plan.getPlantingSeason());
+                        events.publishEvent(new PlantPlanChange(PlantPlanChange.Operation.UPDATE, plan.getId(), ownerId, plan));
+                        report.written(new BulkItemResult(item.index(), plan.getId(), BulkItemResult.Status.UPDATED, List.of()));
+                    }
+                    case CREATED -> {
+                        plan.setVersion(outcome.version());
+                        counters.added(ownerId, plan.getPlantingSeason());
+                        events.publishEvent(new PlantPlanChange(PlantPlanChange.Operation.INSERT, plan.getId(), ownerId, plan));
+                        report.written(new BulkItemResult(item.index(), plan.getId(), BulkItemResult.Status.CREATED, List.of()));
+                    }
+                }
+            }
+            remaining = conflicts;
+        }
+        // Per batch, so the owner's cached plans, listings and calendars are current for what was written even if a
+        // later batch fails; other owners' entries stay cached
+        CacheConfig.evictOwner(cacheManager, CacheConfig.PLAN_BY_ID, ownerId);
+        CacheConfig.evictOwner(cacheManager, CacheConfig.PLANS_BY_SEASON, ownerId);
+        CacheConfig.evictOwner(cacheManager, CacheConfig.PLAN_CALENDAR, ownerId);
+    }
+
+    private ObjectReader readerFor(MediaType contentType) {
+        if (contentType == null) {
+            return planReader;
+        }
+        if (contentType.isCompatibleWith(MediaType.parseMediaType(BinaryFormatsConfig.APPLICATION_SMILE_VALUE))) {
+            return smilePlanReader;
+        }
+        if (contentType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+            return cborPlanReader;
+        }
+        return planReader;
+    }
+
+    private List<String> validate(PlantPlan plan) {
+        List<String> messages = new ArrayList<>();
+        for (ConstraintViolation<PlantPlan> violation : validator.validate(plan)) {
+            messages.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return messages;
+    }
+
+    private static BulkItemResult invalid(int index, String id, List<String> errors) {
+        return new BulkItemResult(index, id, BulkItemResult.Status.INVALID, errors);
+    }
+
+    /** A validated item waiting for its batch to be written. */
+    private record PendingItem(int index, PlantPlan plan) {
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.gardenplanner.service;
+
+
+import com.example.gardenplanner.config.CacheConfig;
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanCalendar;
+import com.example.gardenplanner.model.PlantPlanSummary;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.model.WateringSchedule;
+import com.example.gardenplanner.model.WateringTask;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: PlantPlanCalendarService.java
+ * Description: Planting calendar engine: which of an owner's plans are in their planting season and which need
+ * watering on each day of a date range.
+ * - Days map to meteorological seasons (northern hemisphere: March-May is spring, June-August summer, ...);
+ *   {@code gardenplanner.calendar.hemisphere=south} swaps them.
+ * - Per owner and season, the plans and their parsed {@link WateringSchedule}s are computed once and memoized in the
+ *   {@link CacheConfig#PLAN_CALENDAR} cache; a calendar is then assembled from at most two seasons in memory.
+ * - Calendars of up to {@value #MEMOIZED_DAYS} days ("this week", "this month") are memoized as well.
+ * - Keys start with the owner id, so a write evicts only its owner's entries ({@link CacheConfig#evictOwner});
+ *   the TTL covers writes made by other instances.
+ * Objective: the hot "what do I plant or water this week" query is answered from memory instead of every client
+ * fetching and interpreting raw plan lists.
+ * *******************************************************
+ */
+
+@Service
+public class PlantPlanCalendarService {
+
+    /** Longest date range of one calendar, in days. */
+    public static final int MAX_DAYS = 366;
+
+    /** Longest date range whose calendar is memoized, in days. */
+    public static final int MEMOIZED_DAYS = 31;
+
+    // Plans are listed by name, then id
+    private static final Comparator<PlantPlanSummary> BY_NAME =
+            Comparator.comparing(PlantPlanSummary::getName, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(PlantPlanSummary::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final PlantPlanRepository plantPlanRepository;
+    private final Cache cache;
+    private final boolean southernHemisphere;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param plantPlanRepository repository the season plans are loaded from
+     * @param cacheManager        cache manager holding the {@link CacheConfig#PLAN_CALENDAR} cache
+     * @param hemisphere          {@code north} or {@code south}, for the season of a date
+     */
+    @Autowired
+    public PlantPlanCalendarService(PlantPlanRepository plantPlanRepository,
+                                    CacheManager cacheManager,
+                                    @Value("${gardenplanner.calendar.hemisphere:north}") String hemisphere) {
+        this.plantPlanRepository = plantPlanRepository;
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.PLAN_CALENDAR),
+                "Cache " + CacheConfig.PLAN_CALENDAR + " is not configured");
+        this.southernHemisphere = switch (hemisphere.trim().toLowerCase(Locale.ROOT)) {
+            case "north" -> false;
+            case "south" -> true;
+            default -> throw new IllegalArgumentException("gardenplanner.calendar.hemisphere must be north or south");
+        };
+    }
+
+    /**
+     * Computes the planting and watering calendar of a date range.
+     *
+     * @param ownerId the owner whose plans are scheduled
+     * @param from    first day
+     * @param to      last day (inclusive)
+     * @return the calendar
+     * @throws IllegalArgumentException if {@code to} is before {@code from} or the range exceeds {@value #MAX_DAYS} days
+     */
+    public PlantPlanCalendar getCalendar(String ownerId, LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("The range must cover 1 to " + MAX_DAYS + " days");
+        }
+        if (days > MEMOIZED_DAYS) {
+            return compute(ownerId, from, to);
+        }
+        // Not cache.get(key, loader): computing loads the season entries ("<owner>:<season>") of the same cache
+        String range = ownerId + ":" + from + "/" + to;
+        PlantPlanCalendar calendar = cache.get(range, PlantPlanCalendar.class);
+        if (calendar == null) {
+            calendar = compute(ownerId, from, to);
+            cache.put(range, calendar);
+        }
+        return calendar;
+    }
+
+    /**
+     * @param date a day
+     * @return the season the day falls in, for the configured hemisphere
+     */
+    public Season seasonOf(LocalDate date) {
+        Season season = switch (date.getMonth()) {
+            case DECEMBER, JANUARY, FEBRUARY -> Season.WINTER;
+            case MARCH, APRIL, MAY -> Season.SPRING;
+            case JUNE, JULY, AUGUST -> Season.SUMMER;
+            case SEPTEMBER, OCTOBER, NOVEMBER -> Season.AUTUMN;
+        };
+        return southernHemisphere ? Season.values()[(season.ordinal() + 2) % Season.values().length] : season;
+    }
+
+    private PlantPlanCalendar compute(String ownerId, LocalDate from, LocalDate to) {
+        PlantPlanCalendar calendar = new PlantPlanCalendar();
+        calendar.setFrom(from);
+        calendar.setTo(to);
+
+        Map<Season, List<ScheduledPlan>> seasons = new LinkedHashMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            // Season lists are sorted by name, so the tasks of a day are too
+            for (ScheduledPlan plan : seasons.computeIfAbsent(seasonOf(day), season -> seasonPlans(ownerId, season))) {
+                int times = plan.schedule() == null ? 0 : plan.schedule().timesOn(day);
+                if (times > 0) {
+                    calendar.getWatering().add(new WateringTask(day, plan.summary().getId(),
+                            plan.summary().getName(), times));
+                }
+            }
+        }
+
+        for (Map.Entry<Season, List<ScheduledPlan>> season : seasons.entrySet()) {
+            calendar.getSeasons().add(season.getKey());
+            for (ScheduledPlan plan : season.getValue()) {
+                calendar.getInSeason().add(plan.summary());
+                if (plan.schedule() == null) {
+                    calendar.getUnscheduled().add(plan.summary());
+                }
+            }
+        }
+        calendar.getInSeason().sort(BY_NAME);
+        calendar.getUnscheduled().sort(BY_NAME);
+        return calendar;
+    }
+
+    // The plans of one owner and season with their parsed schedules, loaded once per cache lifetime
+    private List<ScheduledPlan> seasonPlans(String ownerId, Season season) {
+        return cache.get(ownerId + ":" + season, () -> {
+            List<ScheduledPlan> plans = new ArrayList<>();
+            for (PlantPlan plan : plantPlanRepository.findByOwnerIdAndPlantingSeason(ownerId, season)) {
+                plans.add(new ScheduledPlan(
+                        new PlantPlanSummary(plan.getId(), plan.getName(), plan.getPlantingSeason()),
+                        WateringScheduleParser.parse(plan.getWateringFreq()).orElse(null)));
+            }
+            plans.sort(Comparator.comparing(ScheduledPlan::summary, BY_NAME));
+            return List.copyOf(plans);
+        });
+    }
+
+    /** A plan of a season with its schedule (null if its watering frequency was not understood). */
+    private record ScheduledPlan(PlantPlanSummary summary, WateringSchedule schedule) {
+    }
+}
@@ -0,0 +1,452 @@
+package com.example.gardenplanner.service;
+
+
+import com.example.gardenplanner.model.PlantPlanChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: PlantPlanChangeFeed.java
+ * Description: Fans PlantPlan changes out to server-sent-event subscribers (GET /api/plans/changes).
+ * - Exactly one source feeds it ({@code gardenplanner.change-feed.source}): the shared MongoDB change-stream
+ *   listener ({@code mongo}, sees writes of every instance) or the application's own write events ({@code local}).
+ * - The last {@code gardenplanner.change-feed.replay-size} events are kept, so a client that reconnects with
+ *   {@code Last-Event-ID} receives what it missed instead of reloading every plan. A client whose id is no
+ *   longer kept gets a single {@code reset} event and should reload.
+ * - Events are handed out by one dispatcher thread, in order, so writers never wait for subscribers. If its queue
+ *   is full, the event is dropped for subscribers instead of being sent by the writer: every subscriber then
+ *   gets a {@code reset} event and is disconnected, and the replay buffer, which now has a gap, is emptied.
+ * - Each subscriber has its own buffer of {@code gardenplanner.change-feed.subscriber-buffer} events, sent by its
+ *   own virtual thread, so a client that stops reading only stalls itself. When its buffer is full, that subscriber
+ *   alone gets a {@code reset} event (once its connection drains) and is disconnected.
+ * - A subscriber only receives the changes of its owner. Deletes whose owner is unknown (see
+ *   {@link PlantPlanChange#getOwnerId()}) are not sent to any subscriber, since their plan id could belong to
+ *   another owner; enable {@code gardenplanner.change-feed.pre-images} so deletes name their owner.
+ * - In-process listeners ({@link #addListener(Consumer)}) receive every event on the publishing thread, before it
+ *   is queued, so they never miss one; e.g. to keep in-memory indexes current with writes from every instance.
+ * Metrics:
+ * - {@code plantplan.change.feed.subscribers} connected subscribers
+ * - {@code plantplan.change.feed.dropped}     events not sent to subscribers because the dispatch queue was full
+ * - {@code plantplan.change.feed.lagging}     subscribers disconnected because their buffer was full
+ * Objective: clients stop polling GET /api/plans to find out what changed.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class PlantPlanChangeFeed {
+
+    /** SSE event name sent when the requested Last-Event-ID is no longer in the replay buffer. */
+    public static final String RESET_EVENT = "reset";
+
+    // Maximum number of events waiting for the dispatcher; later ones are dropped and subscribers reset
+    private static final int DISPATCH_QUEUE_SIZE = 10_000;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final List<Consumer<PlantPlanChange>> listeners = new CopyOnWriteArrayList<>();
+
+    // Most recent events, oldest first; guarded by itself
+    private final Deque<BufferedEvent> replay = new ArrayDeque<>();
+    private final int replaySize;
+    private final long subscriberTimeoutMillis;
+    private final int subscriberBuffer;
+    private final Counter dropped;
+    private final Counter lagging;
+
+    // Set when an event was dropped; the dispatcher then resets every subscriber before its next task
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    private final ExecutorService dispatcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(DISPATCH_QUEUE_SIZE),
+            runnable -> {
+                Thread thread = new Thread(runnable, "plantplan-change-feed");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+    // Runs the sends of each subscriber; a send blocked on a slow client parks only its own virtual thread
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("plantplan-change-feed-sender-", 0).factory());
+
+    @Autowired
+    public PlantPlanChangeFeed(@Value("${gardenplanner.change-feed.replay-size:1000}") int replaySize,
+                               @Value("${gardenplanner.change-feed.subscriber-timeout:PT30M}") Duration subscriberTimeout,
+                               @Value("${gardenplanner.change-feed.subscriber-buffer:256}") int subscriberBuffer,
+                               MeterRegistry meterRegistry) {
+        this.replaySize = Math.max(0, replaySize);
+        this.subscriberTimeoutMillis = subscriberTimeout.toMillis();
+        this.subscriberBuffer = Math.max(1, subscriberBuffer);
+        Gauge.builder("plantplan.change.feed.subscribers", subscribers, List::size)
+                .description("Clients connected to the PlantPlan change feed")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("plantplan.change.feed.dropped")
+                .description("PlantPlan changes not sent to subscribers because the dispatch queue was full")
+                .register(meterRegistry);
+        this.lagging = Counter.builder("plantplan.change.feed.lagging")
+                .description("Change feed subscribers disconnected because they fell too far behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Connects a new subscriber.
+     *
+     * @param ownerId     the owner whose changes the subscriber receives
+     * @param lastEventId the {@code Last-Event-ID} sent by a reconnecting client, or null for a new client
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(String ownerId, String lastEventId) {
+        return subscribe(ownerId, lastEventId, new SseEmitter(subscriberTimeoutMillis));
+    }
+
+    // Takes the emitter so tests can stand in for a client that stops reading
+    SseEmitter subscribe(String ownerId, String lastEventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(ownerId, emitter);
+        emitter.onCompletion(() -> disconnected(subscriber));
+        emitter.onTimeout(() -> disconnected(subscriber));
+        emitter.onError(e -> disconnected(subscriber));
+
+        // Replay and registration run on the dispatcher, so no event is sent twice or skipped in between
+        boolean queued = dispatch(() -> {
+            if (lastEventId != null && !lastEventId.isBlank() && !replayAfter(subscriber, lastEventId)) {
+                return;
+            }
+            if (subscriber.isClosed()) {
+                // Timed out or disconnected while waiting for the dispatcher
+                return;
+            }
+            subscribers.add(subscriber);
+        });
+        if (!queued) {
+            // The client reconnects with its Last-Event-ID once the backlog has cleared
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    /**
+     * Registers an in-process listener, called on the publishing thread for every change, in publish order.
+     * Listeners must be quick and must not throw.
+     *
+     * @param listener the listener
+     */
+    public void addListener(Consumer<PlantPlanChange> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Sends a change to every subscriber and keeps it for replay.
+     *
+     * @param id     the SSE event id (a change-stream resume token, or a local sequence number)
+     * @param change the change
+     */
+    public void publish(String id, PlantPlanChange change) {
+        for (Consumer<PlantPlanChange> listener : listeners) {
+            try {
+                listener.accept(change);
+            } catch (RuntimeException e) {
+                log.warn("Change feed listener failed on {} {}: {}", change.getOperation(), change.getPlanId(), e.getMessage());
+            }
+        }
+        dispatch(() -> {
+            BufferedEvent event = new BufferedEvent(id, change);
+            if (replaySize > 0) {
+                synchronized (replay) {
+                    replay.addLast(event);
+                    if (replay.size() > replaySize) {
+                        replay.removeFirst();
+                    }
+                }
+            }
+            for (Subscriber subscriber : subscribers) {
+                send(subscriber, event);
+            }
+        });
+    }
+
+    /**
+     * @return the number of connected subscribers
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Sends an SSE comment to every subscriber, which keeps idle connections open through proxies
+     * and detects clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${gardenplanner.change-feed.heartbeat:PT15S}")
+    public void heartbeat() {
+        dispatch(() -> {
+            for (Subscriber subscriber : subscribers) {
+                offer(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.close(null));
+        // Lets the senders finish closing their connections; a send blocked on a client is not waited for
+        senders.shutdown();
+    }
+
+    /**
+     * Queues a task for the dispatcher. The writer never runs it itself: if the queue is full, the task is dropped
+     * and every subscriber is reset before the next task that gets through.
+     *
+     * @return false if the task was dropped
+     */
+    private boolean dispatch(Runnable task) {
+        try {
+            dispatcher.execute(() -> {
+                resetIfOverflowed();
+                task.run();
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            if (dispatcher.isShutdown()) {
+                return false;
+            }
+            dropped.increment();
+            if (overflowed.compareAndSet(false, true)) {
+                log.warn("Change feed dispatch queue full ({} events), resetting every subscriber", DISPATCH_QUEUE_SIZE);
+            }
+            return false;
+        }
+    }
+
+    // Stops queuing events for a client whose connection ended
+    private void disconnected(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.abandon();
+    }
+
+    /**
+     * After dropped events, subscribers and the replay buffer have a gap: clients are told to reload.
+     */
+    private void resetIfOverflowed() {
+        if (!overflowed.getAndSet(false)) {
+            return;
+        }
+        synchronized (replay) {
+            replay.clear();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscribers.remove(subscriber);
+            subscriber.close(resetEvent(""));
+        }
+    }
+
+    /**
+     * Sends every kept event after the given id.
+     *
+     * @return false if the id is no longer kept; the client was told to reset and is not subscribed
+     */
+    private boolean replayAfter(Subscriber subscriber, String lastEventId) {
+        List<BufferedEvent> missed = new ArrayList<>();
+        boolean found = false;
+        synchronized (replay) {
+            for (BufferedEvent event : replay) {
+                if (found) {
+                    missed.add(event);
+                } else if (event.id().equals(lastEventId)) {
+                    found = true;
+                }
+            }
+        }
+        if (!found) {
+            subscriber.close(resetEvent(lastEventId));
+            return false;
+        }
+        // The replay may be longer than the buffer; it is sent in full, before the subscriber gets live events
+        for (BufferedEvent event : missed) {
+            if (subscriber.ownerId().equals(event.change().getOwnerId())) {
+                subscriber.offer(changeEvent(event), true);
+            }
+        }
+        return true;
+    }
+
+    private void send(Subscriber subscriber, BufferedEvent event) {
+        if (subscriber.ownerId().equals(event.change().getOwnerId())) {
+            offer(subscriber, changeEvent(event));
+        }
+    }
+
+    // Disconnects a subscriber whose buffer is full rather than letting it hold back the dispatcher
+    private void offer(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.isClosed()) {
+            // Its connection ended just as it was registered
+            subscribers.remove(subscriber);
+        } else if (!subscriber.offer(event, false) && subscribers.remove(subscriber)) {
+            lagging.increment();
+            log.debug("Change feed subscriber of {} fell {} events behind, resetting it", subscriber.ownerId(),
+                    subscriberBuffer);
+            subscriber.close(resetEvent(""));
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder changeEvent(BufferedEvent event) {
+        return SseEmitter.event()
+                .id(event.id())
+                .name(event.change().getOperation().name().toLowerCase(Locale.ROOT))
+                .data(event.change());
+    }
+
+    private static SseEmitter.SseEventBuilder resetEvent(String data) {
+        return SseEmitter.event().name(RESET_EVENT).data(data);
+    }
+
+    private record BufferedEvent(String id, PlantPlanChange change) {
+    }
+
+    /**
+     * A connected client and the events waiting to be sent to it, sent in order by at most one sender at a time.
+     */
+    private final class Subscriber {
+
+        private final String ownerId;
+        private final SseEmitter emitter;
+
+        // Events not sent yet, oldest first; this and the flags below are guarded by the queue
+        private final Deque<SseEmitter.SseEventBuilder> queued = new ArrayDeque<>();
+        // True while a sender is draining the queue
+        private boolean sending;
+        // True once no more events are accepted; the emitter is completed when the queue is drained
+        private boolean closed;
+
+        Subscriber(String ownerId, SseEmitter emitter) {
+            this.ownerId = ownerId;
+            this.emitter = emitter;
+        }
+
+        String ownerId() {
+            return ownerId;
+        }
+
+        boolean isClosed() {
+            synchronized (queued) {
+                return closed;
+            }
+        }
+
+        /**
+         * Queues an event for sending.
+         *
+         * @param event the event
+         * @param force queue it even if the buffer is full (a replay)
+         * @return false if the buffer is full; events sent to a closed subscriber are ignored
+         */
+        boolean offer(SseEmitter.SseEventBuilder event, boolean force) {
+            synchronized (queued) {
+                if (closed) {
+                    return true;
+                }
+                if (!force && queued.size() >= subscriberBuffer) {
+                    return false;
+                }
+                queued.addLast(event);
+            }
+            startSending();
+            return true;
+        }
+
+        /**
+         * Drops the events not sent yet and disconnects the client, after a last event if one is given.
+         */
+        void close(SseEmitter.SseEventBuilder last) {
+            synchronized (queued) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                queued.clear();
+                if (last != null) {
+                    queued.addLast(last);
+                }
+            }
+            startSending();
+        }
+
+        /**
+         * Drops the events not sent yet and accepts no more, without sending anything: the connection is gone.
+         */
+        void abandon() {
+            synchronized (queued) {
+                closed = true;
+                queued.clear();
+            }
+        }
+
+        private void startSending() {
+            synchronized (queued) {
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                emitter.complete();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                boolean complete;
+                synchronized (queued) {
+                    event = queued.pollFirst();
+                    complete = event == null && closed;
+                    if (event == null) {
+                        // Stays set once complete, so the emitter is completed only once
+                        sending = complete;
+                        if (!complete) {
+                            return;
+                        }
+                    }
+                }
+                if (complete) {
+                    emitter.complete();
+                    return;
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away
+                    abandon();
+                    if (subscribers.remove(this)) {
+                        log.debug("Dropped change feed subscriber: {} left", subscribers.size());
+                    }
+                    emitter.complete();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.gardenplanner.service;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import com.example.gardenplanner.repository.PlantPlanRepository.OwnerSeasonCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: PlantPlanCounters.java
+ * Description: In-memory per-owner, per-season and total PlantPlan counters.
+ * - Seeded from MongoDB in the background once the application is ready, with one aggregation grouping every plan
+ *   by owner and season.
+ * - One small array of counts per owner that has plans (about 100 bytes each).
+ * - Kept up to date by the write paths of {@link PlantPlanService}.
+ * - Periodically reconciled against MongoDB, which corrects drift caused by writes that bypass this
+ *   application instance (other instances, manual edits in Atlas, ...). The difference is added to the live
+ *   counters rather than overwriting them, so increments made meanwhile are kept.
+ * - A batched write whose outcome is unknown (MongoDB failed mid-batch) marks its owners stale; they are
+ *   reconciled on their own within {@code gardenplanner.counters.stale-reconcile-interval}.
+ * Objective: count endpoints are answered in O(1) without a database round trip.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class PlantPlanCounters {
+
+    // Slot of the total in an owner's counts; slots 0..3 hold the seasons by ordinal
+    private static final int TOTAL = Season.values().length;
+
+    // Slot counting the changes made by this instance, so a reconcile can tell whether it raced with one
+    private static final int CHANGES = TOTAL + 1;
+
+    // Counts per owner; an owner whose plans are all gone keeps a zeroed entry
+    private final Map<String, AtomicLongArray> byOwner = new ConcurrentHashMap<>();
+
+    // Owners whose counts may be off, with the sequence number of their latest marking
+    private final Map<String, Long> stale = new ConcurrentHashMap<>();
+    private final AtomicLong staleMarks = new AtomicLong();
+
+    // False until the first successful reconcile; until then callers fall back to MongoDB
+    private volatile boolean seeded;
+
+    private final PlantPlanRepository plantPlanRepository;
+
+    @Autowired
+    public PlantPlanCounters(PlantPlanRepository plantPlanRepository) {
+        this.plantPlanRepository = plantPlanRepository;
+    }
+
+    /**
+     * @return true once the counters hold values loaded from MongoDB
+     */
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * @param ownerId the owner
+     * @param season  the planting season
+     * @return the number of the owner's plans counted for the season
+     */
+    public long countBySeason(String ownerId, Season season) {
+        AtomicLongArray counts = byOwner.get(ownerId);
+        return counts == null ? 0 : counts.get(season.ordinal());
+    }
+
+    /**
+     * @param ownerId the owner
+     * @return the total number of the owner's plans counted
+     */
+    public long total(String ownerId) {
+        AtomicLongArray counts = byOwner.get(ownerId);
+        return counts == null ? 0 : counts.get(TOTAL);
+    }
+
+    /**
+     * Records a newly inserted plan.
+     *
+     * @param ownerId the owner of the inserted plan
+     * @param season  the season of the inserted plan (may be null for legacy documents)
+     */
+    public void added(String ownerId, Season season) {
+        add(ownerId, season, 1);
+    }
+
+    /**
+     * Records a deleted plan.
+     *
+     * @param ownerId the owner of the deleted plan
+     * @param season  the season of the deleted plan (may be null for legacy documents)
+     */
+    public void removed(String ownerId, Season season) {
+        add(ownerId, season, -1);
+    }
+
+    /**
+     * Records an updated plan, whose season may have changed from one value to another.
+     *
+     * @param ownerId the owner of the plan
+     * @param from    the previous season (may be null)
+     * @param to      the new season (may be null)
+     */
+    public void moved(String ownerId, Season from, Season to) {
+        if (from == to) {
+            return;
+        }
+        AtomicLongArray counts = countsOf(ownerId);
+        synchronized (counts) {
+            counts.incrementAndGet(CHANGES);
+            if (from != null) {
+                counts.decrementAndGet(from.ordinal());
+            }
+            if (to != null) {
+                counts.incrementAndGet(to.ordinal());
+            }
+        }
+    }
+
+    /**
+     * Marks owners whose counts may be off because a write of their plans has an unknown outcome (MongoDB failed
+     * before answering, after possibly applying part of it). They are reconciled by {@link #reconcileStale()}.
+     *
+     * @param ownerIds the owners of the plans of the write
+     */
+    public void markStale(Collection<String> ownerIds) {
+        for (String ownerId : ownerIds) {
+            stale.put(ownerId, staleMarks.incrementAndGet());
+        }
+    }
+
+    /**
+     * Seeds the counters; run once the application is ready.
+     *
+     * @return true if the counters hold values loaded from MongoDB
+     */
+    public boolean seed() {
+        reconcile();
+        return seeded;
+    }
+
+    /**
+     * Corrects every counter from MongoDB.
+     * <p>
+     * Each counter is moved by the difference between the aggregation and its value, never overwritten.
+     * An owner whose counts this instance changed while the aggregation ran is left as is until the next
+     * reconcile, since it cannot tell whether the aggregation saw those changes.
+     * Plans written before plans had owners are counted for {@link PlantPlan#DEFAULT_OWNER}, which the index
+     * back-fill assigns them. Failures are logged and leave the previous values in place.
+     */
+    @Scheduled(initialDelayString = "${gardenplanner.counters.reconcile-interval:PT5M}",
+            fixedDelayString = "${gardenplanner.counters.reconcile-interval:PT5M}")
+    public void reconcile() {
+        try {
+            Map<String, Long> marks = Map.copyOf(stale);
+            Map<String, Long> changesBefore = changesOf(byOwner.keySet());
+            List<OwnerSeasonCount> groups = plantPlanRepository.countByOwnerAndSeason();
+
+            Set<String> skipped = correct(changesBefore, groups, marks);
+            seeded = true;
+            log.debug("PlantPlan counters reconciled: owners={}, skipped while changing={}",
+                    changesBefore.size(), skipped.size());
+        } catch (DataAccessException e) {
+            log.warn("Could not reconcile PlantPlan counters: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Corrects the counters of the owners marked by {@link #markStale}, with an aggregation over their plans only.
+     * An owner this instance changed while the aggregation ran, or that was marked again, stays stale.
+     */
+    @Scheduled(initialDelayString = "${gardenplanner.counters.stale-reconcile-interval:PT10S}",
+            fixedDelayString = "${gardenplanner.counters.stale-reconcile-interval:PT10S}")
+    public void reconcileStale() {
+        if (stale.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, Long> marks = Map.copyOf(stale);
+            Map<String, Long> changesBefore = changesOf(marks.keySet());
+            List<OwnerSeasonCount> groups = plantPlanRepository.countByOwnerAndSeasonOf(marks.keySet());
+
+            Set<String> skipped = correct(changesBefore, groups, marks);
+            log.debug("Stale PlantPlan counters reconciled: owners={}, skipped while changing={}",
+                    marks.size(), skipped.size());
+        } catch (DataAccessException e) {
+            log.warn("Could not reconcile stale PlantPlan counters: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, Long> changesOf(Collection<String> ownerIds) {
+        Map<String, Long> changes = new HashMap<>();
+        for (String ownerId : ownerIds) {
+            AtomicLongArray counts = byOwner.get(ownerId);
+            changes.put(ownerId, counts == null ? 0L : counts.get(CHANGES));
+        }
+        return changes;
+    }
+
+    /**
+     * Moves the counters of the owners in {@code changesBefore} and in the aggregated groups by the difference to
+     * the groups, and clears the stale marks of the corrected owners.
+     *
+     * @return the owners left as they were because this instance changed them while the aggregation ran
+     */
+    private Set<String> correct(Map<String, Long> changesBefore, List<OwnerSeasonCount> groups, Map<String, Long> marks) {
+        Map<String, long[]> stored = new HashMap<>();
+        changesBefore.keySet().forEach(ownerId -> stored.put(ownerId, new long[TOTAL + 1]));
+        for (OwnerSeasonCount group : groups) {
+            long[] owner = stored.computeIfAbsent(
+                    Objects.requireNonNullElse(group.ownerId(), PlantPlan.DEFAULT_OWNER),
+                    id -> new long[TOTAL + 1]);
+            owner[TOTAL] += group.count();
+            if (group.plantingSeason() != null) {
+                owner[group.plantingSeason().ordinal()] += group.count();
+            }
+        }
+
+        Set<String> skipped = new HashSet<>();
+        for (Map.Entry<String, long[]> owner : stored.entrySet()) {
+            AtomicLongArray counts = countsOf(owner.getKey());
+            // Writers hold the same lock, so none can slip in between the check and the correction
+            synchronized (counts) {
+                if (counts.get(CHANGES) != changesBefore.getOrDefault(owner.getKey(), 0L)) {
+                    skipped.add(owner.getKey());
+                    continue;
+                }
+                for (int slot = 0; slot <= TOTAL; slot++) {
+                    counts.addAndGet(slot, owner.getValue()[slot] - counts.get(slot));
+                }
+            }
+            Long mark = marks.get(owner.getKey());
+            if (mark != null) {
+                // Only if not marked again since: that write may have landed after the aggregation
+                stale.remove(owner.getKey(), mark);
+            }
+        }
+        return skipped;
+    }
+
+    private void add(String ownerId, Season season, long delta) {
+        AtomicLongArray counts = countsOf(ownerId);
+        synchronized (counts) {
+            counts.incrementAndGet(CHANGES);
+            counts.addAndGet(TOTAL, delta);
+            if (season != null) {
+                counts.addAndGet(season.ordinal(), delta);
+            }
+        }
+    }
+
+    private AtomicLongArray countsOf(String ownerId) {
+        return byOwner.computeIfAbsent(ownerId, id -> new AtomicLongArray(CHANGES + 1));
+    }
+}
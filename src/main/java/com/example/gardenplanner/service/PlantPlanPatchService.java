@@ -0,0 +1,237 @@
+package com.example.gardenplanner.service;
+
+
+import com.example.gardenplanner.config.CacheConfig;
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanChange;
+import com.example.gardenplanner.model.PlantPlanSearchKeys;
+import com.example.gardenplanner.model.Season;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: PlantPlanPatchService.java
+ * Description: Partial updates of PlantPlans (JSON Merge Patch, RFC 7396).
+ * - Only the fields present in the patch are written: a value becomes {@code $set}, a null becomes {@code $unset}.
+ * - Each field is checked against the {@link PlantPlan} constraints before anything is sent to MongoDB.
+ * - The write is a single atomic findAndModify that also refreshes the derived search keys and increments the version,
+ *   and returns the stored result. A patch that changes the season first reads the previous season alone and only
+ *   applies if the plan is still in it, so the counters move by exactly what the write changed.
+ * Objective: small edits (e.g. a new watering schedule) send and replicate only the changed fields,
+ *  and never wipe out fields the client did not send.
+ * *******************************************************
+ */
+
+@Service
+public class PlantPlanPatchService {
+
+    // Fields a client may patch, with the type their JSON value is read as
+    private static final Map<String, Class<?>> PATCHABLE_FIELDS = Map.of(
+            "name", String.class,
+            "plantingSeason", Season.class,
+            "sunlightNeeds", String.class,
+            "wateringFreq", String.class,
+            "notes", String.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final PlantPlanCounters counters;
+    private final ApplicationEventPublisher events;
+    private final CacheManager cacheManager;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param mongoTemplate template used to run the targeted update
+     * @param validator     Bean Validation validator applied to every patched field
+     * @param objectMapper  the application's Jackson mapper, used to read patched values
+     * @param counters      in-memory plan counters to keep in step with season changes
+     * @param events        publisher of the {@link PlantPlanChange} events
+     * @param cacheManager  cache manager holding the {@link CacheConfig#PLAN_CALENDAR} cache
+     */
+    @Autowired
+    public PlantPlanPatchService(MongoTemplate mongoTemplate,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 PlantPlanCounters counters,
+                                 ApplicationEventPublisher events,
+                                 CacheManager cacheManager) {
+        this.mongoTemplate = mongoTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.counters = counters;
+        this.events = events;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Applies a JSON Merge Patch to a stored plan.
+     *
+     * @param ownerId         the owner of the PlantPlan; another owner's plan is treated as missing
+     * @param id              the unique identifier of the PlantPlan to patch
+     * @param patch           the fields to change; a null value removes the field
+     * @param expectedVersion the version the client based its patch on (from {@code If-Match}),
+     *                        or {@code null} to patch whatever version is stored
+     * @return the patched plan, or an empty {@link Optional} if the owner has no plan with this id
+     * @throws InvalidPatchException             if a field is unknown, has the wrong type or breaks a constraint
+     * @throws OptimisticLockingFailureException if the stored version is not {@code expectedVersion}
+     */
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.PLAN_BY_ID, key = "#ownerId + ':' + #id", unless = "#result == null"),
+            evict = @CacheEvict(cacheNames = CacheConfig.PLAN_FACETS, key = "#ownerId"))
+    public Optional<PlantPlan> patchPlantPlan(String ownerId, String id, ObjectNode patch, Long expectedVersion) {
+        Map<String, Object> changes = readChanges(patch);
+
+        // The owner is part of the shard key, so the update is routed to a single shard
+        Criteria criteria = where("id").is(id).and("ownerId").is(ownerId);
+        if (expectedVersion != null) {
+            criteria = criteria.and("version").is(expectedVersion);
+        }
+        Query query = new Query(criteria);
+
+        if (changes.isEmpty()) {
+            // An empty merge patch changes nothing
+            return Optional.ofNullable(mongoTemplate.findOne(query, PlantPlan.class))
+                    .or(() -> failIfExists(ownerId, id, expectedVersion));
+        }
+
+        Update update = toUpdate(changes);
+        FindAndModifyOptions returnNew = FindAndModifyOptions.options().returnNew(true);
+        if (!changes.containsKey("plantingSeason")) {
+            PlantPlan patched = mongoTemplate.findAndModify(query, update, returnNew, PlantPlan.class);
+            if (patched == null) {
+                return failIfExists(ownerId, id, expectedVersion);
+            }
+            return Optional.of(written(ownerId, patched.getPlantingSeason(), patched));
+        }
+
+        while (true) {
+            Query seasonOnly = Query.of(query);
+            seasonOnly.fields().include("plantingSeason");
+            PlantPlan previous = mongoTemplate.findOne(seasonOnly, PlantPlan.class);
+            if (previous == null) {
+                return failIfExists(ownerId, id, expectedVersion);
+            }
+            // Only applies while the plan is still in the season read above; a concurrent change is read again
+            Query unchangedSeason = new Query(where("plantingSeason").is(previous.getPlantingSeason()))
+                    .addCriteria(criteria);
+            PlantPlan patched = mongoTemplate.findAndModify(unchangedSeason, update, returnNew, PlantPlan.class);
+            if (patched != null) {
+                counters.moved(ownerId, previous.getPlantingSeason(), patched.getPlantingSeason());
+                return Optional.of(written(ownerId, previous.getPlantingSeason(), patched));
+            }
+        }
+    }
+
+    // The owner's season listings and calendars may list the patched plan; other owners' entries stay cached
+    private PlantPlan written(String ownerId, Season previousSeason, PlantPlan patched) {
+        CacheConfig.evictSeasons(cacheManager, ownerId, previousSeason, patched.getPlantingSeason());
+        CacheConfig.evictOwner(cacheManager, CacheConfig.PLAN_CALENDAR, ownerId);
+        events.publishEvent(new PlantPlanChange(PlantPlanChange.Operation.UPDATE, patched.getId(), ownerId, patched));
+        return patched;
+    }
+
+    /**
+     * Reads and validates every field of the patch.
+     *
+     * @return the new value per field, in patch order; null values mean "remove"
+     */
+    private Map<String, Object> readChanges(ObjectNode patch) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+
+        for (Map.Entry<String, JsonNode> field : patch.properties()) {
+            String name = field.getKey();
+            Class<?> type = PATCHABLE_FIELDS.get(name);
+            if (type == null) {
+                errors.add(name + ": cannot be patched");
+                continue;
+            }
+
+            Object value;
+            try {
+                value = field.getValue().isNull() ? null : objectMapper.treeToValue(field.getValue(), type);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                errors.add(name + ": invalid value");
+                continue;
+            }
+            for (ConstraintViolation<PlantPlan> violation : validator.validateValue(PlantPlan.class, name, value)) {
+                errors.add(name + ": " + violation.getMessage());
+            }
+            changes.put(name, value);
+        }
+
+        if (!errors.isEmpty()) {
+            throw new InvalidPatchException(errors);
+        }
+        return changes;
+    }
+
+    /**
+     * Builds the {@code $set}/{@code $unset} update for the changed fields, their search keys and the version.
+     */
+    private static Update toUpdate(Map<String, Object> changes) {
+        Update update = new Update();
+        changes.forEach((field, value) -> {
+            if (value == null) {
+                update.unset(field);
+            } else {
+                update.set(field, value);
+            }
+        });
+
+        // Entity callbacks do not run for updates, so the derived keys of changed fields are written here
+        if (changes.containsKey("name")) {
+            setKeys(update, "nameKey", "nameGrams", (String) changes.get("name"));
+        }
+        if (changes.containsKey("wateringFreq")) {
+            setKeys(update, "wateringFreqKey", "wateringFreqGrams", (String) changes.get("wateringFreq"));
+        }
+        return update.inc("version", 1);
+    }
+
+    private static void setKeys(Update update, String keyField, String gramsField, String value) {
+        String key = PlantPlanSearchKeys.normalize(value);
+        if (key == null) {
+            update.unset(keyField).unset(gramsField);
+        } else {
+            update.set(keyField, key).set(gramsField, PlantPlanSearchKeys.grams(key));
+        }
+    }
+
+    /**
+     * Called when the query matched nothing: a plan that exists must have failed the version condition.
+     */
+    private Optional<PlantPlan> failIfExists(String ownerId, String id, Long expectedVersion) {
+        if (expectedVersion != null
+                && mongoTemplate.exists(new Query(where("id").is(id).and("ownerId").is(ownerId)), PlantPlan.class)) {
+            throw new OptimisticLockingFailureException(
+                    "PlantPlan " + id + " is no longer at version " + expectedVersion);
+        }
+        return Optional.empty();
+    }
+}
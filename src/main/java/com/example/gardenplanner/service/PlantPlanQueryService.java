@@ -0,0 +1,216 @@
+package com.example.gardenplanner.service;
+
+
+import com.example.gardenplanner.config.CacheConfig;
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanFacets;
+import com.example.gardenplanner.model.PlantPlanQuery;
+import com.example.gardenplanner.model.PlantPlanQueryPlan;
+import com.example.gardenplanner.model.PlantPlanSummary;
+import com.example.gardenplanner.repository.PlantPlanQueryPlanner;
+import com.example.gardenplanner.repository.PlantPlanQueryPlanner.PlannedQuery;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: PlantPlanQueryService.java
+ * Description: Runs combined plan queries (any mix of season, sunlight, watering and name filters) over the plans
+ * of one owner.
+ * - The query is planned by {@link PlantPlanQueryPlanner} and sent as one round trip, with sort and limit
+ *   applied by MongoDB.
+ * - The chosen index is hinted only if it exists on the collection (index names are re-read at most once a minute),
+ *   so a missing or still-building index degrades to MongoDB's own plan choice instead of failing the query.
+ * - {@link #explain(String, PlantPlanQuery)} returns the plan instead of the plans, to check which index is used;
+ *   it is served by the admin-only {@code planquery} actuator endpoint.
+ * - {@link #facets(String)} computes every dashboard breakdown of an owner in one {@code $facet} aggregation.
+ * Objective: replaces one request per filter plus a client-side intersection with one selective query.
+ * *******************************************************
+ */
+
+@Service
+public class PlantPlanQueryService {
+
+    // How long the index names read from the collection are trusted
+    private static final Duration INDEX_NAMES_TTL = Duration.ofMinutes(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final QueryMapper queryMapper;
+
+    private volatile IndexNames indexNames;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param mongoTemplate template used to run and explain the queries
+     */
+    @Autowired
+    public PlantPlanQueryService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+    }
+
+    /**
+     * Finds the plans matching every given filter.
+     *
+     * @param ownerId the owner whose plans are searched
+     * @param request the filters, sort and limit; the limit defaults to {@value PlantPlanService#DEFAULT_PAGE_SIZE}
+     *                and is clamped to 1..{@value PlantPlanService#MAX_PAGE_SIZE}
+     * @return the matching plans, in the requested order
+     * @throws IllegalArgumentException if the season or the sort field is unknown
+     */
+    public List<PlantPlan> find(String ownerId, PlantPlanQuery request) {
+        return mongoTemplate.find(hinted(plan(ownerId, request)).query(), PlantPlan.class);
+    }
+
+    /**
+     * Same as {@link #find(String, PlantPlanQuery)}, returning the {@link PlantPlanSummary} projection.
+     * MongoDB only returns id, name and plantingSeason.
+     */
+    public List<PlantPlanSummary> findSummaries(String ownerId, PlantPlanQuery request) {
+        return mongoTemplate.query(PlantPlan.class)
+                .as(PlantPlanSummary.class)
+                .matching(hinted(plan(ownerId, request)).query())
+                .all();
+    }
+
+    /**
+     * Plans the query and asks MongoDB how it would run it, without returning any plans.
+     *
+     * @param ownerId the owner whose plans would be searched
+     * @param request the filters, sort and limit
+     * @return the chosen index, the documents sent to MongoDB and MongoDB's query planner output
+     * @throws IllegalArgumentException if the season or the sort field is unknown
+     */
+    public PlantPlanQueryPlan explain(String ownerId, PlantPlanQuery request) {
+        PlannedQuery planned = hinted(plan(ownerId, request));
+        Query query = planned.query();
+
+        // Map field names (id -> _id) and values (enums) exactly as MongoTemplate would
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(PlantPlan.class);
+        Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+
+        FindIterable<Document> find = mongoTemplate.getCollection(mongoTemplate.getCollectionName(PlantPlan.class))
+                .find(filter)
+                .sort(sort)
+                .limit(query.getLimit());
+        if (planned.index() != null) {
+            find = find.hintString(planned.index());
+        }
+        Document explain = find.explain(ExplainVerbosity.QUERY_PLANNER);
+
+        return new PlantPlanQueryPlan(planned.index(), filter, sort, query.getLimit(),
+                explain.get("queryPlanner", Document.class));
+    }
+
+    /**
+     * Counts the plans of an owner per planting season, sunlight requirement and watering frequency,
+     * in a single {@code $facet} aggregation (one scan of the owner's plans, one round trip).
+     * <p>
+     * The result is cached briefly per owner ({@link CacheConfig#PLAN_FACETS}) and evicted by every write method.
+     *
+     * @param ownerId the owner
+     * @return the total and the three breakdowns, each ordered by count
+     */
+    @Cacheable(cacheNames = CacheConfig.PLAN_FACETS, key = "#ownerId")
+    public PlantPlanFacets facets(String ownerId) {
+        Aggregation aggregation = newAggregation(
+                // Served by the owner-leading indexes; only the grouped fields are read from each document
+                match(Criteria.where("ownerId").is(ownerId)),
+                project("plantingSeason", "sunlightNeeds", "wateringFreq"),
+                facet(countBy("plantingSeason")).as("bySeason")
+                        .and(countBy("sunlightNeeds")).as("bySunlight")
+                        .and(countBy("wateringFreq")).as("byWateringFreq")
+                        .and(count().as("total")).as("total"));
+
+        Document result = mongoTemplate.aggregate(aggregation, PlantPlan.class, Document.class)
+                .getUniqueMappedResult();
+        if (result == null) {
+            return new PlantPlanFacets(0, Map.of(), Map.of(), Map.of());
+        }
+
+        List<Document> total = result.getList("total", Document.class);
+        return new PlantPlanFacets(
+                total.isEmpty() ? 0 : ((Number) total.get(0).get("total")).longValue(),
+                toCounts(result.getList("bySeason", Document.class)),
+                toCounts(result.getList("bySunlight", Document.class)),
+                toCounts(result.getList("byWateringFreq", Document.class)));
+    }
+
+    // $group on one field, largest groups first
+    private static AggregationOperation[] countBy(String field) {
+        return new AggregationOperation[]{
+                group(field).count().as("count"),
+                sort(Sort.by(Sort.Direction.DESC, "count").and(Sort.by(Sort.Direction.ASC, "_id")))
+        };
+    }
+
+    private static Map<String, Long> toCounts(List<Document> groups) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Document group : groups) {
+            Object value = group.get("_id");
+            counts.merge(value == null ? PlantPlanFacets.NONE : value.toString(),
+                    ((Number) group.get("count")).longValue(), Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Hints the chosen index if the collection has it.
+     *
+     * @return the planned query with the hint, or with a null index if MongoDB chooses
+     */
+    private PlannedQuery hinted(PlannedQuery planned) {
+        if (planned.index() == null || !indexExists(planned.index())) {
+            return new PlannedQuery(planned.query(), null);
+        }
+        planned.query().withHint(planned.index());
+        return planned;
+    }
+
+    private boolean indexExists(String index) {
+        IndexNames current = indexNames;
+        if (current == null || System.nanoTime() - current.readAt() > INDEX_NAMES_TTL.toNanos()) {
+            Set<String> names = mongoTemplate.indexOps(PlantPlan.class).getIndexInfo().stream()
+                    .map(IndexInfo::getName)
+                    .collect(Collectors.toUnmodifiableSet());
+            current = new IndexNames(names, System.nanoTime());
+            indexNames = current;
+        }
+        return current.names().contains(index);
+    }
+
+    private static PlannedQuery plan(String ownerId, PlantPlanQuery request) {
+        int limit = request.getLimit() == null ? PlantPlanService.DEFAULT_PAGE_SIZE : request.getLimit();
+        return PlantPlanQueryPlanner.plan(ownerId, request,
+                Math.max(1, Math.min(limit, PlantPlanService.MAX_PAGE_SIZE)));
+    }
+
+    private record IndexNames(Set<String> names, long readAt) {
+    }
+}
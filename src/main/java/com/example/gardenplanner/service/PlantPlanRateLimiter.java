@@ -0,0 +1,228 @@
+package com.example.gardenplanner.service;
+
+
+import com.example.gardenplanner.repository.MongoPoolBulkhead;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: PlantPlanRateLimiter.java
+ * Description: Per-client rate limiting and adaptive load shedding for the plan API.
+ * - Every client (API key or IP address) has one token bucket per {@link Tier}: {@code capacity} requests in a burst,
+ *   refilled at {@code refill-per-second}. An empty bucket rejects the request with the time until the next token.
+ * - Load shedding watches two signals: the mean latency of the last {@code shed.window} of requests, and the number
+ *   of callers waiting for a pooled MongoDB connection ({@link MongoPoolBulkhead}). Above {@code shed.max-latency} or
+ *   {@code shed.max-queue}, expensive requests are rejected; above twice {@code shed.max-queue}, cheap ones too.
+ *   Shedding stops by itself once the signals drop, e.g. because expensive requests are no longer admitted.
+ * - Buckets of clients idle for {@code idle-timeout} are dropped, and at most {@code max-clients} are kept
+ *   (an evicted client simply starts again with a full bucket).
+ * Metrics:
+ * - {@code plantplan.ratelimit.rejected{tier, reason=rate|shed}} requests rejected
+ * - {@code plantplan.ratelimit.clients}                           clients with a bucket
+ * - {@code plantplan.ratelimit.overloaded}                        1 while expensive requests are shed
+ * Objective: one misbehaving client cannot take the MongoDB pool from everyone, and an overloaded instance answers
+ * 429 quickly instead of queueing requests until they time out.
+ * *******************************************************
+ */
+
+@Service
+public class PlantPlanRateLimiter {
+
+    /** Cost class of a route; each has its own budget. */
+    public enum Tier {
+        CHEAP, EXPENSIVE
+    }
+
+    /**
+     * Outcome of {@link #tryAcquire}.
+     *
+     * @param allowed           whether the request may proceed
+     * @param retryAfterSeconds when rejected, how long the client should wait (at least 1)
+     * @param reason            when rejected, {@code rate} (client over budget) or {@code shed} (instance overloaded)
+     */
+    public record Decision(boolean allowed, long retryAfterSeconds, String reason) {
+
+        private static final Decision ALLOWED = new Decision(true, 0, null);
+    }
+
+    private final Map<Tier, Budget> budgets = new EnumMap<>(Tier.class);
+    private final Cache<BucketKey, TokenBucket> buckets;
+    private final MongoPoolBulkhead bulkhead;
+
+    private final long windowNanos;
+    private final long maxLatencyNanos;
+    private final int maxQueue;
+    private final long shedRetryAfterSeconds;
+
+    // Latency of the current window, and the mean of the last completed one
+    private long windowStart = System.nanoTime();
+    private long windowTotalNanos;
+    private long windowCount;
+    private volatile long lastMeanNanos;
+    private volatile long lastWindowEnd = windowStart;
+
+    private final Map<Tier, Counter> rateRejected = new EnumMap<>(Tier.class);
+    private final Map<Tier, Counter> shedRejected = new EnumMap<>(Tier.class);
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param cheapCapacity      burst size of cheap routes
+     * @param cheapPerSecond     sustained requests per second on cheap routes
+     * @param expensiveCapacity  burst size of expensive routes
+     * @param expensivePerSecond sustained requests per second on expensive routes
+     * @param idleTimeout        how long the buckets of an idle client are kept
+     * @param maxClients         maximum number of buckets kept
+     * @param window             length of the latency window
+     * @param maxLatency         mean latency above which expensive requests are shed
+     * @param maxQueue           connection pool waiters above which expensive requests are shed (cheap ones at twice this)
+     * @param shedRetryAfter     Retry-After sent with shed requests
+     * @param bulkhead           the connection pool bulkhead, for its queue depth
+     * @param meterRegistry      registry for the limiter metrics
+     */
+    @Autowired
+    public PlantPlanRateLimiter(@Value("${gardenplanner.rate-limit.cheap.capacity:60}") int cheapCapacity,
+                                @Value("${gardenplanner.rate-limit.cheap.refill-per-second:20}") double cheapPerSecond,
+                                @Value("${gardenplanner.rate-limit.expensive.capacity:10}") int expensiveCapacity,
+                                @Value("${gardenplanner.rate-limit.expensive.refill-per-second:2}") double expensivePerSecond,
+                                @Value("${gardenplanner.rate-limit.idle-timeout:PT10M}") Duration idleTimeout,
+                                @Value("${gardenplanner.rate-limit.max-clients:100000}") long maxClients,
+                                @Value("${gardenplanner.rate-limit.shed.window:PT1S}") Duration window,
+                                @Value("${gardenplanner.rate-limit.shed.max-latency:PT0.5S}") Duration maxLatency,
+                                @Value("${gardenplanner.rate-limit.shed.max-queue:50}") int maxQueue,
+                                @Value("${gardenplanner.rate-limit.shed.retry-after:PT2S}") Duration shedRetryAfter,
+                                MongoPoolBulkhead bulkhead,
+                                MeterRegistry meterRegistry) {
+        budgets.put(Tier.CHEAP, new Budget(cheapCapacity, cheapPerSecond));
+        budgets.put(Tier.EXPENSIVE, new Budget(expensiveCapacity, expensivePerSecond));
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumSize(maxClients)
+                .build();
+        this.bulkhead = bulkhead;
+        this.windowNanos = window.toNanos();
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.maxQueue = maxQueue;
+        this.shedRetryAfterSeconds = Math.max(1, shedRetryAfter.toSeconds());
+
+        for (Tier tier : Tier.values()) {
+            rateRejected.put(tier, rejectedCounter(meterRegistry, tier, "rate"));
+            shedRejected.put(tier, rejectedCounter(meterRegistry, tier, "shed"));
+        }
+        Gauge.builder("plantplan.ratelimit.clients", buckets, Cache::estimatedSize)
+                .description("Client token buckets currently kept")
+                .register(meterRegistry);
+        Gauge.builder("plantplan.ratelimit.overloaded", this, limiter -> limiter.isOverloaded() ? 1 : 0)
+                .description("1 while expensive requests are being shed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits or rejects one request of a client.
+     *
+     * @param client the client key (API key or IP address)
+     * @param tier   the cost class of the route
+     * @return the {@link Decision}
+     */
+    public Decision tryAcquire(String client, Tier tier) {
+        // Shed before spending the client's tokens: the request is not the client's fault
+        if (tier == Tier.EXPENSIVE ? isOverloaded() : bulkhead.waiting() > 2 * maxQueue) {
+            shedRejected.get(tier).increment();
+            return new Decision(false, shedRetryAfterSeconds, "shed");
+        }
+        Budget budget = budgets.get(tier);
+        TokenBucket bucket = buckets.get(new BucketKey(client, tier), key -> new TokenBucket(budget));
+        long waitNanos = bucket.tryConsume();
+        if (waitNanos == 0) {
+            return Decision.ALLOWED;
+        }
+        rateRejected.get(tier).increment();
+        return new Decision(false, Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000), "rate");
+    }
+
+    /**
+     * Records the latency of a completed request, for load shedding.
+     *
+     * @param nanos how long the request took
+     */
+    public void recordLatency(long nanos) {
+        long now = System.nanoTime();
+        // The lock is only held for a few additions
+        synchronized (this) {
+            if (now - windowStart >= windowNanos) {
+                lastMeanNanos = windowCount == 0 ? 0 : windowTotalNanos / windowCount;
+                lastWindowEnd = now;
+                windowStart = now;
+                windowTotalNanos = 0;
+                windowCount = 0;
+            }
+            windowTotalNanos += nanos;
+            windowCount++;
+        }
+    }
+
+    /**
+     * @return whether expensive requests are currently shed: the last latency window was too slow (and is recent),
+     *         or too many callers wait for a pooled connection
+     */
+    public boolean isOverloaded() {
+        boolean slow = lastMeanNanos > maxLatencyNanos && System.nanoTime() - lastWindowEnd < 3 * windowNanos;
+        return slow || bulkhead.waiting() > maxQueue;
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, Tier tier, String reason) {
+        return Counter.builder("plantplan.ratelimit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tag("tier", tier.name().toLowerCase(Locale.ROOT))
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /** Size and refill rate of the buckets of a tier. */
+    private record Budget(int capacity, double perSecond) {
+    }
+
+    /** Bucket of one client and tier. */
+    private record BucketKey(String client, Tier tier) {
+    }
+
+    /** Classic token bucket; tokens are refilled lazily on each request. */
+    private static final class TokenBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(Budget budget) {
+            this.capacity = budget.capacity();
+            this.tokensPerNano = budget.perSecond() / 1_000_000_000d;
+            this.tokens = capacity;
+        }
+
+        // 0 if a token was taken, otherwise the nanoseconds until one is available
+        synchronized long tryConsume() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return tokensPerNano > 0 ? (long) Math.ceil((1 - tokens) / tokensPerNano) : Long.MAX_VALUE / 2;
+        }
+    }
+}
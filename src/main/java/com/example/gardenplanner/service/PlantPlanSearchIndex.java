@@ -0,0 +1,359 @@
+package com.example.gardenplanner.service;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanChange;
+import com.example.gardenplanner.model.PlantPlanSearchKeys;
+import com.example.gardenplanner.model.PlantPlanSuggestion;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: PlantPlanSearchIndex.java
+ * Description: In-memory, typo-tolerant search over plan names and notes (GET /api/plans/suggest).
+ * - Every word is split into padded trigrams ("tomato" -> "  t", " to", "tom", ..., "to "), and an inverted index
+ *   maps each trigram to the ids of the plans containing it. A misspelled word still shares most of its trigrams
+ *   with the right one ("tomatoe" shares 6 of 8 with "tomato").
+ * - Postings are kept per owner (the key is owner and trigram), so a search only reads the postings of the
+ *   owner's plans, however many other owners there are.
+ * - Results are ranked by trigram similarity of the name (Jaccard), plus a bonus when a word of the name starts
+ *   with the query (autocomplete), plus a smaller share for matches in the notes.
+ * - Loaded from MongoDB in the background once the application is ready, then kept current by the {@link PlantPlanChangeFeed},
+ *   so it also follows writes made by other instances when the feed reads the change stream.
+ * Metrics:
+ * - {@code plantplan.search.index.plans}    indexed plans
+ * - {@code plantplan.search.index.grams}    distinct trigrams
+ * - {@code plantplan.search.index.memory}   estimated heap used by the index, in bytes
+ * Objective: search-as-you-type answers in microseconds without a MongoDB round trip.
+ * *******************************************************
+ */
+
+@Slf4j
+@Component
+public class PlantPlanSearchIndex {
+
+    /** Score added when a word of the name starts with the query. */
+    static final double PREFIX_BONUS = 0.5;
+
+    /** Weight of the share of query trigrams found in the notes. */
+    static final double NOTES_WEIGHT = 0.25;
+
+    // Best first: highest score, then by name
+    private static final Comparator<PlantPlanSuggestion> RANKING =
+            Comparator.comparingDouble(PlantPlanSuggestion::getScore).reversed()
+                    .thenComparing(PlantPlanSuggestion::getName, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    // Only the start of long notes is indexed, which bounds the memory per plan
+    private static final int MAX_NOTES_LENGTH = 1000;
+
+    // A trigram found in more than 1/4 of all plans (and in more than 100) does not select candidates
+    private static final int COMMON_GRAM_DIVISOR = 4;
+    private static final int COMMON_GRAM_MIN_PLANS = 100;
+
+    // Rough per-object sizes on a 64-bit JVM with compressed oops, used for the memory estimate
+    private static final int ENTRY_BYTES = 160;
+    private static final int GRAM_BYTES = 120;
+    private static final int POSTING_BYTES = 40;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Integer> plansPerOwner = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> nameIndex = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> notesIndex = new ConcurrentHashMap<>();
+    private final AtomicLong postings = new AtomicLong();
+    private final AtomicLong textBytes = new AtomicLong();
+
+    // Writers (the initial load and the change feed) take this lock; readers never block
+    private final Object writeLock = new Object();
+
+    // Plans deleted while the initial load is running, which the load must not bring back
+    private final Set<String> deletedDuringLoad = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    private final PlantPlanRepository plantPlanRepository;
+    private final double minScore;
+
+    @Autowired
+    public PlantPlanSearchIndex(PlantPlanRepository plantPlanRepository,
+                                PlantPlanChangeFeed changeFeed,
+                                @Value("${gardenplanner.search-index.min-score:0.3}") double minScore,
+                                MeterRegistry meterRegistry) {
+        this.plantPlanRepository = plantPlanRepository;
+        this.minScore = minScore;
+        changeFeed.addListener(this::onChange);
+
+        Gauge.builder("plantplan.search.index.plans", entries, Map::size)
+                .description("Plans in the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("plantplan.search.index.grams", this, index -> index.nameIndex.size() + index.notesIndex.size())
+                .description("Distinct trigrams in the in-memory search index")
+                .register(meterRegistry);
+        Gauge.builder("plantplan.search.index.memory", this, PlantPlanSearchIndex::estimatedBytes)
+                .description("Estimated heap used by the in-memory search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads every plan into the index; run once the application is ready.
+     * Changes arriving meanwhile win over the loaded values. Failures are logged and leave the index as is.
+     *
+     * @return true if every plan was loaded
+     */
+    public boolean load() {
+        loading = true;
+        long loaded = 0;
+        try (Stream<PlantPlan> plans = plantPlanRepository.streamAllBy()) {
+            for (PlantPlan plan : (Iterable<PlantPlan>) plans::iterator) {
+                synchronized (writeLock) {
+                    if (!entries.containsKey(plan.getId()) && !deletedDuringLoad.contains(plan.getId())) {
+                        put(plan);
+                        loaded++;
+                    }
+                }
+            }
+            log.info("Search index loaded {} plans (~{} KiB)", loaded, estimatedBytes() / 1024);
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Could not load the plan search index: {}", e.getMessage());
+            return false;
+        } finally {
+            loading = false;
+            deletedDuringLoad.clear();
+        }
+    }
+
+    /**
+     * Adds or replaces a plan in the index.
+     *
+     * @param plan the plan
+     */
+    public void index(PlantPlan plan) {
+        synchronized (writeLock) {
+            put(plan);
+        }
+    }
+
+    /**
+     * Removes a plan from the index.
+     *
+     * @param id the plan id
+     */
+    public void remove(String id) {
+        synchronized (writeLock) {
+            if (loading) {
+                deletedDuringLoad.add(id);
+            }
+            Entry old = entries.remove(id);
+            if (old != null) {
+                unlink(id, old);
+                textBytes.addAndGet(-old.textLength());
+            }
+        }
+    }
+
+    /**
+     * Finds the plans of an owner whose name (or notes) best match the query, tolerating typos.
+     *
+     * @param ownerId the owner whose plans are searched
+     * @param query   the text typed so far
+     * @param limit   the maximum number of results
+     * @return the matches, best first
+     */
+    public List<PlantPlanSuggestion> search(String ownerId, String query, int limit) {
+        String key = PlantPlanSearchKeys.normalize(query);
+        if (key == null || key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<String> grams = grams(key);
+        List<Set<String>> nameHits = new ArrayList<>(grams.size());
+        List<Set<String>> notesHits = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            nameHits.add(nameIndex.getOrDefault(scoped(ownerId, gram), Set.of()));
+            notesHits.add(notesIndex.getOrDefault(scoped(ownerId, gram), Set.of()));
+        }
+
+        int common = Math.max(COMMON_GRAM_MIN_PLANS, plansPerOwner.getOrDefault(ownerId, 0) / COMMON_GRAM_DIVISOR);
+        Set<String> candidates = new HashSet<>();
+        if (!addSelective(candidates, nameHits, common) & !addSelective(candidates, notesHits, common)) {
+            nameHits.forEach(candidates::addAll);
+            notesHits.forEach(candidates::addAll);
+        }
+
+        // Only the best `limit` results are kept, worst on top
+        PriorityQueue<PlantPlanSuggestion> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        String wordStart = " " + key;
+        for (String id : candidates) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                continue;
+            }
+            int inName = countContaining(nameHits, id);
+            int inNotes = countContaining(notesHits, id);
+            double score = (double) inName / (grams.size() + entry.nameGrams().size() - inName)
+                    + (entry.nameKey().startsWith(key) || entry.nameKey().contains(wordStart) ? PREFIX_BONUS : 0)
+                    + NOTES_WEIGHT * inNotes / grams.size();
+            if (score >= minScore) {
+                best.add(new PlantPlanSuggestion(id, entry.name(), entry.plantingSeason(), score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<PlantPlanSuggestion> results = new ArrayList<>(best);
+        results.sort(RANKING);
+        return results;
+    }
+
+    /**
+     * @return the number of indexed plans
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Estimates the heap used by the index from the number of entries, trigrams and postings.
+     *
+     * @return the estimate in bytes
+     */
+    public long estimatedBytes() {
+        return (long) entries.size() * ENTRY_BYTES
+                + (long) (nameIndex.size() + notesIndex.size()) * GRAM_BYTES
+                + postings.get() * POSTING_BYTES
+                + textBytes.get();
+    }
+
+    /**
+     * Adds the plans found through the selective trigrams of the query. Trigrams shared by a large part of the
+     * owner's plans (e.g. from boilerplate notes) would make nearly every plan a candidate, so they only count
+     * towards the score of plans found through the others; the caller falls back to all trigrams if none is selective.
+     *
+     * @param common the number of plans above which a trigram is not selective
+     * @return true if at least one trigram was selective
+     */
+    private static boolean addSelective(Set<String> candidates, List<Set<String>> hits, int common) {
+        boolean anySelective = false;
+        for (Set<String> ids : hits) {
+            if (!ids.isEmpty() && ids.size() <= common) {
+                candidates.addAll(ids);
+                anySelective = true;
+            }
+        }
+        return anySelective;
+    }
+
+    private static int countContaining(List<Set<String>> hits, String id) {
+        int count = 0;
+        for (Set<String> ids : hits) {
+            if (ids.contains(id)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void onChange(PlantPlanChange change) {
+        if (change.getOperation() == PlantPlanChange.Operation.DELETE) {
+            remove(change.getPlanId());
+        } else if (change.getPlan() != null) {
+            index(change.getPlan());
+        }
+    }
+
+    // Callers hold writeLock
+    private void put(PlantPlan plan) {
+        String nameKey = PlantPlanSearchKeys.normalize(plan.getName());
+        String notesKey = PlantPlanSearchKeys.normalize(plan.getNotes());
+        if (notesKey != null && notesKey.length() > MAX_NOTES_LENGTH) {
+            notesKey = notesKey.substring(0, MAX_NOTES_LENGTH);
+        }
+        Entry entry = new Entry(Objects.requireNonNullElse(plan.getOwnerId(), PlantPlan.DEFAULT_OWNER),
+                plan.getName(), plan.getPlantingSeason(), nameKey == null ? "" : nameKey,
+                grams(nameKey), grams(notesKey));
+
+        Entry old = entries.put(plan.getId(), entry);
+        if (old != null) {
+            unlink(plan.getId(), old);
+            textBytes.addAndGet(-old.textLength());
+        }
+        textBytes.addAndGet(entry.textLength());
+        link(plan.getId(), entry);
+    }
+
+    // Callers hold writeLock
+    private void link(String id, Entry entry) {
+        for (String gram : entry.nameGrams()) {
+            nameIndex.computeIfAbsent(scoped(entry.ownerId(), gram), g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        for (String gram : entry.notesGrams()) {
+            notesIndex.computeIfAbsent(scoped(entry.ownerId(), gram), g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        plansPerOwner.merge(entry.ownerId(), 1, Integer::sum);
+        postings.addAndGet(entry.nameGrams().size() + entry.notesGrams().size());
+    }
+
+    // Callers hold writeLock
+    private void unlink(String id, Entry entry) {
+        for (String gram : entry.nameGrams()) {
+            nameIndex.computeIfPresent(scoped(entry.ownerId(), gram),
+                    (g, ids) -> ids.remove(id) && ids.isEmpty() ? null : ids);
+        }
+        for (String gram : entry.notesGrams()) {
+            notesIndex.computeIfPresent(scoped(entry.ownerId(), gram),
+                    (g, ids) -> ids.remove(id) && ids.isEmpty() ? null : ids);
+        }
+        plansPerOwner.computeIfPresent(entry.ownerId(), (owner, count) -> count == 1 ? null : count - 1);
+        postings.addAndGet(-(entry.nameGrams().size() + entry.notesGrams().size()));
+    }
+
+    // Posting key of a trigram within one owner's plans; the trigram is always the last three characters
+    private static String scoped(String ownerId, String gram) {
+        return ownerId + ':' + gram;
+    }
+
+    /**
+     * Splits a normalized text into the padded trigrams of its words.
+     *
+     * @param key normalized text (may be null)
+     * @return the distinct trigrams
+     */
+    static Set<String> grams(String key) {
+        if (key == null || key.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> grams = new HashSet<>();
+        for (String word : key.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    /** What the index keeps per plan. */
+    private record Entry(String ownerId, String name, Season plantingSeason, String nameKey,
+                         Set<String> nameGrams, Set<String> notesGrams) {
+
+        long textLength() {
+            return (name == null ? 0 : name.length()) + nameKey.length();
+        }
+    }
+}
@@ -1,13 +1,30 @@
 package com.example.gardenplanner.service;
 
 
+import com.example.gardenplanner.config.CacheConfig;
 import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanChange;
+import com.example.gardenplanner.model.PlantPlanPage;
+import com.example.gardenplanner.model.PlantPlanSearchKeys;
+import com.example.gardenplanner.model.PlantPlanSummary;
 import com.example.gardenplanner.model.Season;
 import com.example.gardenplanner.repository.PlantPlanRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * *******************************************************
@@ -17,6 +34,13 @@ import java.util.*;
  * Date: Wednesday, 09.Jul.2025, 4:13 PM
  * Description: Service layer for PlantPlan operations.
  * - Service class for handling business logic related to products.
+ * - Every method is scoped to one owner ({@link PlantPlan#getOwnerId()}): plans of other owners are never
+ *   returned, changed or counted, and the queries only scan that owner's range of the owner-leading indexes.
+ * - Hot lookups (by id, by season) are served from the cache configured in {@link CacheConfig}, keyed by
+ *   owner and id / season; every write method evicts the entries it may have made stale, and its owner's
+ *   calendar entries ({@link CacheConfig#evictOwner}).
+ * - Counts are served from {@link PlantPlanCounters}, which every write method keeps current.
+ * - Every write method publishes a {@link PlantPlanChange} application event (see {@link PlantPlanChangeFeed}).
  * Objective:
  * *******************************************************
  */
@@ -24,18 +48,42 @@ import java.util.*;
 @Service
 public class PlantPlanService {
 
+    /** Page size used when the client does not ask for one. */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /** Upper bound on the page size, so a single page can never pull in the whole collection. */
+    public static final int MAX_PAGE_SIZE = 500;
+
     // Dependency on the repository layer to perform CRUD operations on PlantPlan documents
     private final PlantPlanRepository plantPlanRepository;
 
+    // In-memory per-season / total counters, kept current by the write methods below
+    private final PlantPlanCounters counters;
+
+    // Publishes a PlantPlanChange after every write
+    private final ApplicationEventPublisher events;
+
+    // Holds the calendar cache, whose entries of the writing owner are evicted after every write
+    private final CacheManager cacheManager;
+
     /**
      * Constructor-based dependency injection  using @Autowired. (constructor injection of repository)
      * Spring injects ('introduces') an instance of PlantPlanRepository at runtime.
      *
      * @param plantPlanRepository The repository used to access Product data from MongoDB
+     * @param counters            The in-memory plan counters updated on every write
+     * @param events              The publisher of {@link PlantPlanChange} events
+     * @param cacheManager        The cache manager holding the {@link CacheConfig#PLAN_CALENDAR} cache
      */
     @Autowired
-    public PlantPlanService(PlantPlanRepository plantPlanRepository) {
+    public PlantPlanService(PlantPlanRepository plantPlanRepository,
+                            PlantPlanCounters counters,
+                            ApplicationEventPublisher events,
+                            CacheManager cacheManager) {
         this.plantPlanRepository = plantPlanRepository;
+        this.counters = counters;
+        this.events = events;
+        this.cacheManager = cacheManager;
     }
 
     /**
@@ -50,51 +98,154 @@ public class PlantPlanService {
     /**
      * Adds new plan to the database
      *
-     * @param plan The PlantPlan object is added.
+     * @param ownerId The owner the plan is added for.
+     * @param plan    The PlantPlan object is added.
      * @return The inserted PlantPlan document, including the generated '_id'
      */
-    public PlantPlan addPlantPlans(PlantPlan plan) {
-        return plantPlanRepository.insert(plan);
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.PLAN_BY_ID, key = "#ownerId + ':' + #result.id"),
+            evict = {
+                    @CacheEvict(cacheNames = CacheConfig.PLANS_BY_SEASON, key = "#ownerId + ':' + #plan.plantingSeason"),
+                    @CacheEvict(cacheNames = CacheConfig.PLAN_FACETS, key = "#ownerId")
+            })
+    public PlantPlan addPlantPlans(String ownerId, PlantPlan plan) {
+        // A new plan always starts at version 0, whatever the client sent
+        plan.setVersion(null);
+        plan.setOwnerId(ownerId);
+        PlantPlan inserted = plantPlanRepository.insert(plan);
+        counters.added(ownerId, inserted.getPlantingSeason());
+        CacheConfig.evictOwner(cacheManager, CacheConfig.PLAN_CALENDAR, ownerId);
+        events.publishEvent(new PlantPlanChange(PlantPlanChange.Operation.INSERT, inserted.getId(), ownerId, inserted));
+        return inserted;
+    }
+
+    /**
+     * Retrieve all PlantPlans of an owner from teh MongoDB database
+     *
+     * @param ownerId the owner
+     * @return a List of all the owner's PlantPlans objects stored in the database.
+     */
+    public List<PlantPlan> getAllPlantPlans(String ownerId) {
+        return plantPlanRepository.findByOwnerId(ownerId);
     }
 
     /**
-     * Retrieve all PlantPlans from teh MongoDB database
+     * Retrieves one page of PlantPlans using keyset (cursor) pagination on '_id'.
+     * <p>
+     * Unlike offset paging, each page is a single range scan of the {ownerId, _id} index starting after the cursor,
+     * so the cost of a page does not grow with how deep into the collection the client is.
+     * One extra document is fetched to find out whether a further page exists.
      *
-     * @return a List of all PlantPlans objects stored in the database.
+     * @param ownerId the owner
+     * @param cursor  the {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @param size    the requested page size; clamped to 1..{@value #MAX_PAGE_SIZE}
+     * @return a {@link PlantPlanPage} holding the plans and the cursor of the next page (null if none)
      */
-    public List<PlantPlan> getAllPlantPlans() {
-        return plantPlanRepository.findAll();
+    public PlantPlanPage getPlantPlanPage(String ownerId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(0, pageSize + 1, Sort.by(Sort.Direction.ASC, "id"));
+
+        List<PlantPlan> plans = (cursor == null || cursor.isBlank())
+                ? plantPlanRepository.findByOwnerId(ownerId, pageable)
+                : plantPlanRepository.findByOwnerIdAndIdGreaterThan(ownerId, cursor, pageable);
+
+        if (plans.size() <= pageSize) {
+            return new PlantPlanPage(plans, null);
+        }
+        List<PlantPlan> items = plans.subList(0, pageSize);
+        return new PlantPlanPage(new ArrayList<>(items), items.get(pageSize - 1).getId());
+    }
+
+    /**
+     * Streams all PlantPlans of an owner straight from a MongoDB cursor, one document at a time.
+     * <p>
+     * The returned stream holds an open server cursor and must be closed by the caller (try-with-resources).
+     *
+     * @param ownerId the owner
+     * @return a {@link Stream} over every PlantPlan of the owner
+     */
+    public Stream<PlantPlan> streamAllPlantPlans(String ownerId) {
+        return plantPlanRepository.streamByOwnerId(ownerId);
     }
 
     /**
      * Retrieve a single PlatPlan by its unique identifier
      *
-     * @return An {@link Optional} containing the PlantPlan if found, or empty if not found.
+     * @param ownerId the owner
+     * @param id      the plan id
+     * @return An {@link Optional} containing the PlantPlan if found, or empty if not found or another owner's plan.
      */
-    public Optional<PlantPlan> getPlantPlanById(String id) {
-        return plantPlanRepository.findById(id);
+    @Cacheable(cacheNames = CacheConfig.PLAN_BY_ID, key = "#ownerId + ':' + #id", unless = "#result == null")
+    public Optional<PlantPlan> getPlantPlanById(String ownerId, String id) {
+        return plantPlanRepository.findByIdAndOwnerId(id, ownerId);
     }
 
     /**
      * Updates an existing PlantPlan with the given ID using the provided updated data.
+     * <p>
+     * The write is conditional on the stored version, so a concurrent update that lands in between
+     * makes this one fail instead of being silently overwritten.
      *
-     * @param id     The unique identifier of the PlantPlan to be updated.
-     * @param update The updated PlantPlan data. The ID will be set to match the given ID.
-     * @return The updated {@link PlantPlan} saved in the database.
+     * @param ownerId         The owner of the PlantPlan.
+     * @param id              The unique identifier of the PlantPlan to be updated.
+     * @param update          The updated PlantPlan data. The ID will be set to match the given ID.
+     * @param expectedVersion the version the client based its update on (from {@code If-Match}),
+     *                        or {@code null} to update whatever version is stored
+     * @param mustExist       only update a plan that exists ({@code If-Match}, {@code *} included), never insert
+     * @return The updated {@link PlantPlan} saved in the database, with its new version.
+     * @throws OptimisticLockingFailureException if {@code expectedVersion} or {@code mustExist} is set and the plan
+     *                                           does not exist, or is at another version
+     * @throws PlanIdTakenException if the id belongs to a plan of another owner
      */
-    public PlantPlan updatePlantPlan(String id, PlantPlan update) {
+    // The write inserts if the id does not exist yet
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.PLAN_BY_ID, key = "#ownerId + ':' + #id"),
+            evict = @CacheEvict(cacheNames = CacheConfig.PLAN_FACETS, key = "#ownerId"))
+    public PlantPlan updatePlantPlan(String ownerId, String id, PlantPlan update, Long expectedVersion,
+                                     boolean mustExist) {
+        // One findAndModify writes the plan and returns the season it replaced, so a concurrent write to the same
+        // plan cannot make the counters move twice from the same season
         update.setId(id);
-        return plantPlanRepository.save(update);
+        update.setOwnerId(ownerId);
+        Optional<PlantPlan> previous;
+        try {
+            previous = plantPlanRepository.replaceFields(update, expectedVersion, mustExist);
+        } catch (DuplicateKeyException e) {
+            throw new PlanIdTakenException(id);
+        }
+        update.setVersion(previous.map(PlantPlan::getVersion).map(version -> version + 1).orElse(1L));
+        previous.ifPresentOrElse(
+                old -> counters.moved(ownerId, old.getPlantingSeason(), update.getPlantingSeason()),
+                () -> counters.added(ownerId, update.getPlantingSeason()));
+        // The listings of the season the plan left and of the one it is in now
+        CacheConfig.evictSeasons(cacheManager, ownerId,
+                previous.map(PlantPlan::getPlantingSeason).orElse(null), update.getPlantingSeason());
+        CacheConfig.evictOwner(cacheManager, CacheConfig.PLAN_CALENDAR, ownerId);
+        PlantPlanChange.Operation operation = previous.isPresent()
+                ? PlantPlanChange.Operation.UPDATE
+                : PlantPlanChange.Operation.INSERT;
+        events.publishEvent(new PlantPlanChange(operation, id, ownerId, update));
+        return update;
     }
 
     /**
      * Deletes a PlantPlan by its unique identifier.
      *
-     * @param id The unique identifier of the PlantPlan to delete.
-     *           If the ID does not exist, no action is taken.
+     * @param ownerId The owner of the PlantPlan.
+     * @param id      The unique identifier of the PlantPlan to delete.
+     *                If the ID does not exist (or is another owner's plan), no action is taken.
      */
-    public void deletePlantPlan(String id) {
-        plantPlanRepository.deleteById(id);
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PLAN_BY_ID, key = "#ownerId + ':' + #id"),
+            @CacheEvict(cacheNames = CacheConfig.PLAN_FACETS, key = "#ownerId")
+    })
+    public void deletePlantPlan(String ownerId, String id) {
+        plantPlanRepository.findAndRemove(id, ownerId).ifPresent(plan -> {
+            counters.removed(ownerId, plan.getPlantingSeason());
+            CacheConfig.evictSeasons(cacheManager, ownerId, plan.getPlantingSeason());
+            CacheConfig.evictOwner(cacheManager, CacheConfig.PLAN_CALENDAR, ownerId);
+            events.publishEvent(new PlantPlanChange(PlantPlanChange.Operation.DELETE, id, ownerId, null));
+        });
     }
 
     /**
@@ -112,62 +263,153 @@ public class PlantPlanService {
      * This method delegates the query to the {@code plantPlanRepository}, using the specified {@link Season} enum.
      * It is case-insensitive since the Season value is parsed using {@link Season#fromString(String)} during input handling.
      *
-     * @param season the {@link Season} to filter plant plans by (e.g., SPRING, SUMMER)
+     * @param ownerId the owner
+     * @param season  the {@link Season} to filter plant plans by (e.g., SPRING, SUMMER)
      * @return a list of {@link PlantPlan} objects that match the given planting season
      */
-    public List<PlantPlan> findByPlantingSeason(Season season) {
-        return plantPlanRepository.findByPlantingSeason(season);
+    @Cacheable(cacheNames = CacheConfig.PLANS_BY_SEASON, key = "#ownerId + ':' + #season")
+    public List<PlantPlan> findByPlantingSeason(String ownerId, Season season) {
+        return plantPlanRepository.findByOwnerIdAndPlantingSeason(ownerId, season);
     }
 
     /**
      * Retrieves all {@link PlantPlan} entries that match the specified sunlight needs exactly.
      *
+     * @param ownerId  the owner
      * @param sunlight the sunlight requirement (e.g., "Full Sun", "Partial Shade")
      * @return a list of {@link PlantPlan} objects with the specified sunlight needs
      */
-    public List<PlantPlan> findBySunlightNeeds(String sunlight) {
-        return plantPlanRepository.findBySunlightNeeds(sunlight);
+    public List<PlantPlan> findBySunlightNeeds(String ownerId, String sunlight) {
+        return plantPlanRepository.findByOwnerIdAndSunlightNeeds(ownerId, sunlight);
     }
 
     /**
      * Searches for {@link PlantPlan} entries where the watering frequency contains the given keyword (case-insensitive).
+     * <p>
+     * Runs against the indexed search keys (see {@link PlantPlanSearchKeys}) rather than a regex over the raw field.
      *
+     * @param ownerId the owner
      * @param keyword a partial or full string to match against the watering frequency field
      * @return a list of matching {@link PlantPlan} objects
      */
-    public List<PlantPlan> searchByWateringFreq(String keyword){
-        return plantPlanRepository.findByWateringFreqContainingIgnoreCase(keyword);
+    public List<PlantPlan> searchByWateringFreq(String ownerId, String keyword){
+        String key = PlantPlanSearchKeys.normalize(keyword);
+        if (key.length() < PlantPlanSearchKeys.GRAM_SIZE) {
+            return plantPlanRepository.findByOwnerIdAndWateringFreqKeyContaining(ownerId, key);
+        }
+        // Every trigram matching is necessary but not sufficient, so re-check the whole keyword
+        return plantPlanRepository.findByOwnerIdAndWateringFreqGramsAll(ownerId, PlantPlanSearchKeys.grams(key)).stream()
+                .filter(plan -> plan.getWateringFreqKey() != null && plan.getWateringFreqKey().contains(key))
+                .toList();
     }
 
     /**
      * Counts the number of {@link PlantPlan} entries that match the specified planting season.
      * <p>
-     * The comparison is case-sensitive unless preprocessed to match enum casing.
+     * Served from the in-memory {@link PlantPlanCounters}; only queries MongoDB until they have been seeded.
      *
-     * @param season the planting season to count (e.g., "SPRING")
+     * @param ownerId the owner
+     * @param season  the planting season to count (e.g., SPRING)
      * @return the number of matching plant plans
      */
-    public long countByPlantingSeason(String season){
-        return plantPlanRepository.countByPlantingSeason(season);
+    public long countByPlantingSeason(String ownerId, Season season){
+        return counters.isSeeded()
+                ? counters.countBySeason(ownerId, season)
+                : plantPlanRepository.countByOwnerIdAndPlantingSeason(ownerId, season);
     }
 
     /**
      * Searches for {@link PlantPlan} entries where the name contains the given keyword (case-insensitive).
+     * <p>
+     * Runs against the indexed search keys (see {@link PlantPlanSearchKeys}) rather than a regex over the raw field.
      *
+     * @param ownerId the owner
      * @param keyword a partial or full string to match against the plant name
      * @return a list of matching {@link PlantPlan} objects
      */
-    public List<PlantPlan> searchByName(String keyword){
-        return plantPlanRepository.findByNameContainingIgnoreCase(keyword);
+    public List<PlantPlan> searchByName(String ownerId, String keyword){
+        String key = PlantPlanSearchKeys.normalize(keyword);
+        if (key.length() < PlantPlanSearchKeys.GRAM_SIZE) {
+            return plantPlanRepository.findByOwnerIdAndNameKeyContaining(ownerId, key);
+        }
+        // Every trigram matching is necessary but not sufficient, so re-check the whole keyword
+        return plantPlanRepository.findByOwnerIdAndNameGramsAll(ownerId, PlantPlanSearchKeys.grams(key)).stream()
+                .filter(plan -> plan.getNameKey() != null && plan.getNameKey().contains(key))
+                .toList();
     }
 
     /**
-     * Retrieves the total number of {@link PlantPlan} entries in the database.
+     * Retrieves the total number of {@link PlantPlan} entries of an owner in the database.
+     * <p>
+     * Served from the in-memory {@link PlantPlanCounters}; only queries MongoDB until they have been seeded.
      *
-     * @return the total count of plant plans
+     * @param ownerId the owner
+     * @return the total count of the owner's plant plans
      */
-    public long getTotalPlansCount(){
-        return  plantPlanRepository.count();
+    public long getTotalPlansCount(String ownerId){
+        return counters.isSeeded() ? counters.total(ownerId) : plantPlanRepository.countByOwnerId(ownerId);
+    }
+
+    /**
+     * ---------------------------------------------------------------------------
+     * --------------------------------------------------------------
+     * Business methods:
+     * - Summary projections for list views ({@link PlantPlanSummary})
+     *   MongoDB only returns id, name and plantingSeason for these.
+     * --------------------------------------------------------------
+     * ---------------------------------------------------------------------------
+     */
+
+    /**
+     * Retrieves a {@link PlantPlanSummary} of every PlantPlan of an owner.
+     *
+     * @param ownerId the owner
+     * @return summaries of all the owner's plant plans
+     */
+    public List<PlantPlanSummary> getAllPlantPlanSummaries(String ownerId) {
+        return plantPlanRepository.findByOwnerId(ownerId, PlantPlanSummary.class);
     }
-}
 
+    /**
+     * Retrieves summaries of the plans for the given planting season.
+     *
+     * @param ownerId the owner
+     * @param season  the {@link Season} to filter plant plans by
+     * @return summaries of the matching plant plans
+     */
+    public List<PlantPlanSummary> findSummariesByPlantingSeason(String ownerId, Season season) {
+        return plantPlanRepository.findByOwnerIdAndPlantingSeason(ownerId, season, PlantPlanSummary.class);
+    }
+
+    /**
+     * Retrieves summaries of the plans that match the specified sunlight needs exactly.
+     *
+     * @param ownerId  the owner
+     * @param sunlight the sunlight requirement (e.g., "Full Sun", "Partial Shade")
+     * @return summaries of the matching plant plans
+     */
+    public List<PlantPlanSummary> findSummariesBySunlightNeeds(String ownerId, String sunlight) {
+        return plantPlanRepository.findByOwnerIdAndSunlightNeeds(ownerId, sunlight, PlantPlanSummary.class);
+    }
+
+    /**
+     * Searches summaries of the plans whose name contains the given keyword (case-insensitive).
+     *
+     * @param ownerId the owner
+     * @param keyword a partial or full string to match against the plant name
+     * @return summaries of the matching plant plans
+     * @see #searchByName(String, String)
+     */
+    public List<PlantPlanSummary> searchSummariesByName(String ownerId, String keyword) {
+        String key = PlantPlanSearchKeys.normalize(keyword);
+        if (key.length() < PlantPlanSearchKeys.GRAM_SIZE) {
+            return plantPlanRepository.findByOwnerIdAndNameKeyContaining(ownerId, key, PlantPlanSummary.class);
+        }
+        // The summary has no nameKey, so re-check the keyword against the normalized name
+        return plantPlanRepository.findByOwnerIdAndNameGramsAll(ownerId, PlantPlanSearchKeys.grams(key),
+                        PlantPlanSummary.class).stream()
+                .filter(summary -> summary.getName() != null
+                        && PlantPlanSearchKeys.normalize(summary.getName()).contains(key))
+                .toList();
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.gardenplanner.service;
+
+
+import com.example.gardenplanner.config.CacheConfig;
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanSnapshotJob;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: PlantPlanSnapshotService.java
+ * Description: Background export and import of the whole plantplans collection as gzip-compressed NDJSON snapshots.
+ * - Each line is one raw MongoDB document in Extended JSON, so ids, versions and search keys round-trip exactly
+ *   and no entity mapping is done on either side.
+ * - Snapshots are kept by a {@link PlantPlanSnapshotStore}: a GridFS bucket by default, or a local directory.
+ * - Export reads one cursor in batches of {@code gardenplanner.snapshots.batch-size} documents; the snapshot only
+ *   becomes visible in the store once complete.
+ * - Import sends unordered bulk writes of the same size: documents are upserted by {@code _id}, so importing into a
+ *   fresh database restores the snapshot and importing twice changes nothing.
+ * - Snapshots cover every owner. Documents from before plans had owners are imported for
+ *   {@link PlantPlan#DEFAULT_OWNER}; the owner is part of the upsert filter, which a sharded collection requires.
+ * - Import bypasses the service layer, so it refreshes the in-memory views itself: every written document is
+ *   re-indexed in the {@link PlantPlanSearchIndex}, and the counters and plan caches are reloaded at the end.
+ * - Jobs run one at a time on a dedicated thread; their {@link PlantPlanSnapshotJob} reports progress.
+ * Objective: backup and restore of millions of plans with one round trip per batch instead of one HTTP request
+ * and one round trip per plan.
+ * *******************************************************
+ */
+
+@Slf4j
+@Service
+public class PlantPlanSnapshotService {
+
+    /** Extension of snapshot files. */
+    public static final String SNAPSHOT_SUFFIX = ".ndjson.gz";
+
+    // Snapshot names are plain file names, the same in every store
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("[\\w.-]+" + Pattern.quote(SNAPSHOT_SUFFIX));
+    private static final DateTimeFormatter SNAPSHOT_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS").withZone(ZoneOffset.UTC);
+
+    // Canonical Extended JSON keeps BSON types (ObjectId, Int64, ...) that plain JSON would lose
+    private static final JsonWriterSettings EXTENDED_JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+    private static final ReplaceOptions UPSERT = new ReplaceOptions().upsert(true);
+
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    // Finished jobs kept for status requests
+    private static final int MAX_FINISHED_JOBS = 100;
+
+    private final Map<String, PlantPlanSnapshotJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "plantplan-snapshots");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final MongoTemplate mongoTemplate;
+    private final PlantPlanCounters counters;
+    private final PlantPlanSearchIndex searchIndex;
+    private final CacheManager cacheManager;
+    private final PlantPlanSnapshotStore store;
+    private final int batchSize;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param mongoTemplate template whose driver collection is read and written
+     * @param counters      in-memory plan counters, reconciled after an import
+     * @param searchIndex   in-memory search index, updated with the imported plans
+     * @param cacheManager  cache manager whose plan caches are cleared after an import
+     * @param store         store holding the snapshot files
+     * @param batchSize     documents per cursor batch (export) and per bulk write (import)
+     */
+    @Autowired
+    public PlantPlanSnapshotService(MongoTemplate mongoTemplate,
+                                    PlantPlanCounters counters,
+                                    PlantPlanSearchIndex searchIndex,
+                                    CacheManager cacheManager,
+                                    PlantPlanSnapshotStore store,
+                                    @Value("${gardenplanner.snapshots.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.counters = counters;
+        this.searchIndex = searchIndex;
+        this.cacheManager = cacheManager;
+        this.store = store;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Queues an export of the whole collection to a new snapshot file.
+     *
+     * @return the queued job, naming the file it will write
+     */
+    public PlantPlanSnapshotJob startExport() {
+        PlantPlanSnapshotJob job = newJob(PlantPlanSnapshotJob.Type.EXPORT,
+                "plantplans-" + SNAPSHOT_TIMESTAMP.format(Instant.now()) + SNAPSHOT_SUFFIX);
+        worker.execute(() -> run(job, () -> export(job)));
+        return job;
+    }
+
+    /**
+     * Queues an import of a snapshot file into the collection.
+     *
+     * @param file name of a stored snapshot
+     * @return the queued job
+     * @throws IllegalArgumentException if the name is not a snapshot file name or there is no such snapshot
+     * @throws UncheckedIOException     if the store cannot be read
+     */
+    public PlantPlanSnapshotJob startImport(String file) {
+        checkName(file);
+        try {
+            if (!store.exists(file)) {
+                throw new IllegalArgumentException("No snapshot named " + file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        PlantPlanSnapshotJob job = newJob(PlantPlanSnapshotJob.Type.IMPORT, file);
+        worker.execute(() -> run(job, () -> importSnapshot(job)));
+        return job;
+    }
+
+    /**
+     * @param id the job id
+     * @return the job, if it is running, queued or among the recently finished ones
+     */
+    public Optional<PlantPlanSnapshotJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * @return the known jobs, most recent first
+     */
+    public List<PlantPlanSnapshotJob> getJobs() {
+        List<PlantPlanSnapshotJob> list = new ArrayList<>(jobs.values());
+        list.sort(Comparator.comparing(PlantPlanSnapshotJob::getCreatedAt).reversed());
+        return list;
+    }
+
+    /**
+     * @return the names of the stored snapshots, newest name first
+     * @throws IOException if the store cannot be listed
+     */
+    public List<String> listSnapshots() throws IOException {
+        return store.list().stream()
+                .filter(name -> SNAPSHOT_NAME.matcher(name).matches())
+                .sorted(Comparator.reverseOrder())
+                .toList();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private PlantPlanSnapshotJob newJob(PlantPlanSnapshotJob.Type type, String file) {
+        PlantPlanSnapshotJob job = new PlantPlanSnapshotJob();
+        job.setId(new ObjectId().toHexString());
+        job.setType(type);
+        job.setFile(file);
+        job.setCreatedAt(Instant.now());
+        pruneFinishedJobs();
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    private void pruneFinishedJobs() {
+        List<PlantPlanSnapshotJob> finished = getJobs().stream()
+                .filter(job -> job.getFinishedAt() != null)
+                .toList();
+        for (int i = MAX_FINISHED_JOBS - 1; i < finished.size(); i++) {
+            jobs.remove(finished.get(i).getId());
+        }
+    }
+
+    private void run(PlantPlanSnapshotJob job, SnapshotTask task) {
+        job.setStartedAt(Instant.now());
+        job.setStatus(PlantPlanSnapshotJob.Status.RUNNING);
+        try {
+            task.run();
+            job.setProgress(1);
+            job.setStatus(PlantPlanSnapshotJob.Status.COMPLETED);
+            log.info("Snapshot {} of {} completed: {} documents", job.getType(), job.getFile(), job.getProcessed());
+        } catch (Exception e) {
+            job.setError(e.getMessage());
+            job.setStatus(PlantPlanSnapshotJob.Status.FAILED);
+            log.warn("Snapshot {} of {} failed after {} documents: {}",
+                    job.getType(), job.getFile(), job.getProcessed(), e.getMessage());
+        } finally {
+            job.setFinishedAt(Instant.now());
+        }
+    }
+
+    private void export(PlantPlanSnapshotJob job) throws IOException {
+        MongoCollection<Document> collection = collection();
+        long total = collection.estimatedDocumentCount();
+        long size = store.write(job.getFile(), stream -> {
+            try (MongoCursor<Document> cursor = collection.find().batchSize(batchSize).cursor();
+                 Writer out = new BufferedWriter(new OutputStreamWriter(
+                         new FastGzipOutputStream(stream), UTF_8), IO_BUFFER_SIZE)) {
+                long processed = 0;
+                while (cursor.hasNext()) {
+                    out.write(cursor.next().toJson(EXTENDED_JSON));
+                    out.write('\n');
+                    job.setProcessed(++processed);
+                    if (total > 0) {
+                        job.setProgress(Math.min(1, (double) processed / total));
+                    }
+                }
+            }
+        });
+        job.setFileSize(size);
+    }
+
+    private void importSnapshot(PlantPlanSnapshotJob job) throws IOException {
+        long fileSize = store.size(job.getFile());
+        job.setFileSize(fileSize);
+
+        MongoCollection<Document> collection = collection();
+        List<WriteModel<Document>> batch = new ArrayList<>(batchSize);
+        List<Document> documents = new ArrayList<>(batchSize);
+        try (CountingInputStream compressed = new CountingInputStream(store.open(job.getFile()));
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                     new GZIPInputStream(compressed, IO_BUFFER_SIZE), UTF_8), IO_BUFFER_SIZE)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                job.setProcessed(job.getProcessed() + 1);
+                Document document;
+                try {
+                    document = Document.parse(line);
+                } catch (JsonParseException e) {
+                    job.setFailed(job.getFailed() + 1);
+                    recordFirstError(job, "Line " + job.getProcessed() + ": " + e.getMessage());
+                    continue;
+                }
+                Object id = document.get("_id");
+                document.putIfAbsent("ownerId", PlantPlan.DEFAULT_OWNER);
+                batch.add(id == null
+                        ? new InsertOneModel<>(document)
+                        : new ReplaceOneModel<>(Filters.and(Filters.eq("ownerId", document.get("ownerId")),
+                                Filters.eq("_id", id)), document, UPSERT));
+                documents.add(document);
+                if (batch.size() == batchSize) {
+                    flush(collection, batch, documents, job);
+                    job.setProgress(fileSize == 0 ? 1 : Math.min(1, (double) compressed.count() / fileSize));
+                }
+            }
+            if (!batch.isEmpty()) {
+                flush(collection, batch, documents, job);
+            }
+        } finally {
+            // Also after a failure: the batches written so far are in the collection
+            afterImport();
+        }
+    }
+
+    // Sends one unordered bulk write, adds its outcome to the job and indexes the documents written
+    private void flush(MongoCollection<Document> collection, List<WriteModel<Document>> batch,
+                       List<Document> documents, PlantPlanSnapshotJob job) {
+        BulkWriteResult result;
+        Set<Integer> refused = Set.of();
+        try {
+            result = collection.bulkWrite(batch, UNORDERED);
+        } catch (MongoBulkWriteException e) {
+            result = e.getWriteResult();
+            refused = e.getWriteErrors().stream().map(BulkWriteError::getIndex).collect(Collectors.toSet());
+            job.setFailed(job.getFailed() + e.getWriteErrors().size());
+            recordFirstError(job, e.getWriteErrors().get(0).getMessage());
+        }
+        job.setInserted(job.getInserted() + result.getInsertedCount() + result.getUpserts().size());
+        job.setReplaced(job.getReplaced() + result.getMatchedCount());
+
+        // Inserts get their generated _id set on the document by the driver
+        for (int i = 0; i < documents.size(); i++) {
+            if (!refused.contains(i)) {
+                searchIndex.index(mongoTemplate.getConverter().read(PlantPlan.class, documents.get(i)));
+            }
+        }
+        batch.clear();
+        documents.clear();
+    }
+
+    // The import bypassed the service layer, so its counters and caches of the collection are rebuilt
+    private void afterImport() {
+        counters.reconcile();
+        for (String name : List.of(CacheConfig.PLAN_BY_ID, CacheConfig.PLANS_BY_SEASON, CacheConfig.PLAN_FACETS,
+                CacheConfig.PLAN_CALENDAR)) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static void recordFirstError(PlantPlanSnapshotJob job, String message) {
+        if (job.getError() == null) {
+            job.setError(message);
+        }
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(PlantPlan.class));
+    }
+
+    private static void checkName(String file) {
+        if (file == null || !SNAPSHOT_NAME.matcher(file).matches()) {
+            throw new IllegalArgumentException("Not a snapshot file name: " + file);
+        }
+    }
+
+    /** Body of a job; may fail with any exception, which marks the job FAILED. */
+    @FunctionalInterface
+    private interface SnapshotTask {
+        void run() throws Exception;
+    }
+
+    /** gzip at the fastest level: exports are bound by compression time, not disk space. */
+    private static final class FastGzipOutputStream extends GZIPOutputStream {
+        FastGzipOutputStream(OutputStream out) throws IOException {
+            super(new BufferedOutputStream(out, IO_BUFFER_SIZE), IO_BUFFER_SIZE);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+
+    /** Counts the bytes read from the file, for the progress of an import. */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
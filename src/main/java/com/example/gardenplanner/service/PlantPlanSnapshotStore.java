@@ -0,0 +1,68 @@
+package com.example.gardenplanner.service;
+
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: PlantPlanSnapshotStore.java
+ * Description: Where the {@link PlantPlanSnapshotService} keeps its snapshot files, chosen with
+ * {@code gardenplanner.snapshots.store}:
+ * - {@code gridfs} (default): a GridFS bucket in the application's MongoDB database, which survives restarts and
+ *   redeploys of dynos whose local disk is ephemeral (Heroku).
+ * - {@code local}: a directory on the server ({@code gardenplanner.snapshots.dir}), for development.
+ * - Names are validated by the service; a store only has to keep them apart.
+ * Objective:
+ * *******************************************************
+ */
+
+public interface PlantPlanSnapshotStore {
+
+    /**
+     * @return the names of the stored snapshots, in any order
+     * @throws IOException if the store cannot be listed
+     */
+    List<String> list() throws IOException;
+
+    /**
+     * @param name the snapshot name
+     * @return true if a snapshot of that name is stored
+     * @throws IOException if the store cannot be read
+     */
+    boolean exists(String name) throws IOException;
+
+    /**
+     * @param name the name of a stored snapshot
+     * @return its size in bytes
+     * @throws IOException if the snapshot cannot be read
+     */
+    long size(String name) throws IOException;
+
+    /**
+     * Stores a new snapshot. It only becomes visible under its name once the writer has returned normally;
+     * if the writer fails, whatever it wrote is discarded.
+     *
+     * @param name   the snapshot name
+     * @param writer writes the content to the stream it is given, which the store closes
+     * @return the stored size in bytes
+     * @throws IOException if the writer or the store fails
+     */
+    long write(String name, SnapshotWriter writer) throws IOException;
+
+    /**
+     * @param name the name of a stored snapshot
+     * @return a stream over its content, closed by the caller
+     * @throws IOException if the snapshot cannot be read
+     */
+    InputStream open(String name) throws IOException;
+
+    /** Writes the content of a snapshot. */
+    @FunctionalInterface
+    interface SnapshotWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,461 @@
+package com.example.gardenplanner.service;
+
+
+import com.example.gardenplanner.config.CacheConfig;
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanChange;
+import com.example.gardenplanner.repository.PlantPlanBatchWrites;
+import com.example.gardenplanner.repository.PlantPlanUpdates;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: PlantPlanWriteBehindQueue.java
+ * Description: Optional write-behind mode for plan creates and unconditional updates
+ * ({@code gardenplanner.write-behind.enabled=true}).
+ * - A write is validated (an invalid plan gets an {@link InvalidPlanException}, HTTP 400), given its id and kept
+ *   in a bounded in-memory queue; the client is answered right away. When {@code max-pending} plans are queued or
+ *   being written, further writes get a {@link WriteQueueFullException} (HTTP 503).
+ * - Writes to the same plan (owner and id) are combined: both set every field, so only the latest one is kept.
+ * - A single flusher thread sends the queue every {@code flush-interval}, or as soon as {@code batch-size} plans
+ *   are queued, as unordered bulk {@code $set} upserts ({@link PlantPlanUpdates#replaceFields}). One extra query per
+ *   batch reads the versions and seasons of the plans, and each upsert only applies to the version read
+ *   ({@link PlantPlanBatchWrites}), so the counters move by exactly what was written and the change events carry
+ *   the stored version, as on a direct write. A plan another write changed in between is queued again.
+ * - A batch MongoDB cannot take (unreachable, timeout) is queued again, behind newer writes to the same plans, and
+ *   its owners' counters are reconciled, as part of it may have been written.
+ *   A plan MongoDB rejects (e.g. an id taken by another owner) is logged and counted, and dropped.
+ * - On shutdown, new writes are refused once the web server has stopped, and the queue is written out, retrying
+ *   for up to {@code shutdown-timeout}. What is still queued after that, or when the process is killed, is lost.
+ * - Queued writes are not visible to reads until they are flushed, and have no version (ETag) until then.
+ * - Writes that go straight to MongoDB first settle the plan's queued write, so it cannot undo them later:
+ *   a delete {@link #discard discards} it, a PATCH or conditional PUT {@link #flush(String, String) writes it}.
+ * Metrics:
+ * - {@code plantplan.writebehind.pending}     plans waiting to be written (queue depth)
+ * - {@code plantplan.writebehind.flush}       time per bulk write, including the previous-season lookup
+ * - {@code plantplan.writebehind.batch.size}  plans per bulk write
+ * - {@code plantplan.writebehind.coalesced}   writes that replaced a queued write to the same plan
+ * - {@code plantplan.writebehind.rejected}    writes refused because the queue was full or closed
+ * - {@code plantplan.writebehind.failed}      plans MongoDB rejected
+ * Objective: bursts of small writes cost one round trip per batch, and the client does not wait for MongoDB.
+ * *******************************************************
+ */
+
+@Slf4j
+@Service
+public class PlantPlanWriteBehindQueue {
+
+    // Pause between attempts to write out the queue on shutdown while MongoDB is not answering
+    private static final long SHUTDOWN_RETRY_PAUSE_MILLIS = 500;
+
+    // Queued plans in arrival order; guards itself, 'inFlight' and 'accepting'
+    private final Map<PlanKey, PlantPlan> pending = new LinkedHashMap<>();
+    // Plans of the batch being written; they count against max-pending, since a failed batch is queued again
+    private int inFlight;
+    private boolean accepting = true;
+
+    // Set while a flush triggered by a full batch is queued on the flusher, so bursts do not queue one per write
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
+    private final PlantPlanCounters counters;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+    private final int maxPending;
+    private final int batchSize;
+    private final Duration shutdownTimeout;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter coalesced;
+    private final Counter rejected;
+    private final Counter failed;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param mongoTemplate   template used to run the bulk writes
+     * @param validator       Bean Validation validator applied to every plan before it is queued
+     * @param counters        in-memory plan counters to keep in step with the writes
+     * @param cacheManager    cache manager whose plan caches are evicted after each batch
+     * @param events          publisher of one {@link PlantPlanChange} event per written plan
+     * @param enabled         whether plan writes go through the queue
+     * @param maxPending      maximum number of queued plans
+     * @param batchSize       maximum number of plans per bulk write; a full batch is flushed right away
+     * @param flushInterval   time between flushes of a partial batch
+     * @param shutdownTimeout how long shutdown keeps trying to write out the queue
+     * @param meterRegistry   registry for the queue metrics
+     */
+    @Autowired
+    public PlantPlanWriteBehindQueue(MongoTemplate mongoTemplate,
+                                     Validator validator,
+                                     PlantPlanCounters counters,
+                                     CacheManager cacheManager,
+                                     ApplicationEventPublisher events,
+                                     @Value("${gardenplanner.write-behind.enabled:false}") boolean enabled,
+                                     @Value("${gardenplanner.write-behind.max-pending:10000}") int maxPending,
+                                     @Value("${gardenplanner.write-behind.batch-size:500}") int batchSize,
+                                     @Value("${gardenplanner.write-behind.flush-interval:PT0.2S}") Duration flushInterval,
+                                     @Value("${gardenplanner.write-behind.shutdown-timeout:PT30S}") Duration shutdownTimeout,
+                                     MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.validator = validator;
+        this.counters = counters;
+        this.cacheManager = cacheManager;
+        this.events = events;
+        this.enabled = enabled;
+        this.maxPending = Math.max(1, maxPending);
+        this.batchSize = Math.max(1, batchSize);
+        this.shutdownTimeout = shutdownTimeout;
+
+        this.flushTimer = Timer.builder("plantplan.writebehind.flush")
+                .description("Time per write-behind bulk write")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("plantplan.writebehind.batch.size")
+                .description("Plans per write-behind bulk write")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("plantplan.writebehind.coalesced")
+                .description("Writes that replaced a queued write to the same plan")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("plantplan.writebehind.rejected")
+                .description("Writes refused because the write-behind queue was full or closed")
+                .register(meterRegistry);
+        this.failed = Counter.builder("plantplan.writebehind.failed")
+                .description("Queued plans MongoDB rejected")
+                .register(meterRegistry);
+        Gauge.builder("plantplan.writebehind.pending", this, PlantPlanWriteBehindQueue::pendingCount)
+                .description("Plans waiting in the write-behind queue")
+                .register(meterRegistry);
+
+        if (enabled) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "plantplan-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalNanos = Math.max(1, flushInterval.toNanos());
+            flusher.scheduleWithFixedDelay(this::flushQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * @return whether plan writes should go through this queue
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a new plan.
+     *
+     * @param ownerId the owner the plan is added for
+     * @param plan    the plan; it is given a new id
+     * @return the queued plan, with its id (and no version until it has been written)
+     * @throws InvalidPlanException    if the plan breaks a {@code PlantPlan} constraint
+     * @throws WriteQueueFullException if the queue is full or closed
+     */
+    public PlantPlan add(String ownerId, PlantPlan plan) {
+        plan.setId(new ObjectId().toHexString());
+        return enqueue(ownerId, plan);
+    }
+
+    /**
+     * Queues a replacement of every field of a plan, created if it does not exist yet.
+     *
+     * @param ownerId the owner of the plan
+     * @param id      the plan id
+     * @param plan    the new field values
+     * @return the queued plan (without a version until it has been written)
+     * @throws InvalidPlanException    if the plan breaks a {@code PlantPlan} constraint
+     * @throws WriteQueueFullException if the queue is full or closed
+     */
+    public PlantPlan update(String ownerId, String id, PlantPlan plan) {
+        plan.setId(id);
+        return enqueue(ownerId, plan);
+    }
+
+    /**
+     * @return the number of plans waiting to be written
+     */
+    public int pendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Writes the queue out now, in batches of {@code batch-size}. Stops at a batch MongoDB cannot take;
+     * its plans stay queued.
+     */
+    public synchronized void flush() {
+        while (true) {
+            List<PlantPlan> batch = drain();
+            if (batch.isEmpty() || !write(batch) || batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops the queued write of one plan, so a delete that follows is not undone by it. Waits for the batch being
+     * written, which may hold the plan. Does nothing if write-behind is disabled.
+     *
+     * @param ownerId the owner of the plan
+     * @param id      the plan id
+     */
+    public synchronized void discard(String ownerId, String id) {
+        if (flusher == null) {
+            return;
+        }
+        synchronized (pending) {
+            pending.remove(new PlanKey(ownerId, id));
+        }
+    }
+
+    /**
+     * Writes the queued write of one plan now, so a direct write that follows applies on top of it instead of
+     * being overwritten by it at the next flush. Waits for the batch being written, which may hold the plan.
+     * Does nothing if write-behind is disabled or nothing is queued for the plan.
+     *
+     * @param ownerId the owner of the plan
+     * @param id      the plan id
+     * @throws WriteQueueFullException if MongoDB could not take the queued write, which stays queued
+     */
+    public synchronized void flush(String ownerId, String id) {
+        if (flusher == null) {
+            return;
+        }
+        PlantPlan plan;
+        synchronized (pending) {
+            plan = pending.remove(new PlanKey(ownerId, id));
+            if (plan != null) {
+                inFlight = 1;
+            }
+        }
+        if (plan != null && !write(List.of(plan))) {
+            throw new WriteQueueFullException("A queued write to this plan could not be written yet, please retry");
+        }
+    }
+
+    private PlantPlan enqueue(String ownerId, PlantPlan plan) {
+        if (flusher == null) {
+            throw new IllegalStateException("Write-behind is disabled");
+        }
+        plan.setOwnerId(ownerId);
+        plan.setVersion(null);
+        validate(plan);
+
+        int queued;
+        synchronized (pending) {
+            if (!accepting) {
+                rejected.increment();
+                throw new WriteQueueFullException("The service is shutting down, please retry");
+            }
+            PlanKey key = new PlanKey(ownerId, plan.getId());
+            if (pending.size() + inFlight >= maxPending && !pending.containsKey(key)) {
+                rejected.increment();
+                throw new WriteQueueFullException("Too many pending writes, please retry");
+            }
+            if (pending.put(key, plan) != null) {
+                coalesced.increment();
+            }
+            queued = pending.size();
+        }
+        if (queued >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: the queue is written out by shutdown()
+            }
+        }
+        return plan;
+    }
+
+    // The controller does not validate PUT bodies, and a write MongoDB would refuse must not be acknowledged
+    private void validate(PlantPlan plan) {
+        Set<ConstraintViolation<PlantPlan>> violations = validator.validate(plan);
+        if (!violations.isEmpty()) {
+            throw new InvalidPlanException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    // Runs on the flusher thread: an exception escaping a scheduled run would cancel all later ones
+    private void flushQuietly() {
+        flushRequested.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Write-behind flush failed", e);
+        }
+    }
+
+    private List<PlantPlan> drain() {
+        synchronized (pending) {
+            List<PlantPlan> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+            Iterator<PlantPlan> plans = pending.values().iterator();
+            while (plans.hasNext() && batch.size() < batchSize) {
+                batch.add(plans.next());
+                plans.remove();
+            }
+            inFlight = batch.size();
+            return batch;
+        }
+    }
+
+    /**
+     * Sends one batch as a single unordered bulk write.
+     *
+     * @return false if MongoDB could not take the batch, which has been queued again
+     */
+    private boolean write(List<PlantPlan> batch) {
+        Timer.Sample sample = Timer.start();
+        try {
+            List<PlantPlanBatchWrites.Outcome> outcomes = PlantPlanBatchWrites.write(mongoTemplate, batch);
+            batchSizes.record(batch.size());
+            written(batch, outcomes);
+            return true;
+        } catch (DataAccessException e) {
+            // Part of the batch may have been written: those plans are written again and would count as updates,
+            // so their owners' counters are checked against MongoDB
+            counters.markStale(batch.stream().map(PlantPlan::getOwnerId).collect(Collectors.toSet()));
+            requeue(batch);
+            log.warn("Write-behind batch of {} plans not written, will retry: {}", batch.size(), e.getMessage());
+            return false;
+        } finally {
+            synchronized (pending) {
+                inFlight = 0;
+            }
+            sample.stop(flushTimer);
+        }
+    }
+
+    // Does for the written plans what PlantPlanService does after a direct write
+    private void written(List<PlantPlan> batch, List<PlantPlanBatchWrites.Outcome> outcomes) {
+        Cache byId = cacheManager.getCache(CacheConfig.PLAN_BY_ID);
+        Cache facets = cacheManager.getCache(CacheConfig.PLAN_FACETS);
+        Set<String> owners = new HashSet<>();
+        List<PlantPlan> conflicts = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            PlantPlan plan = batch.get(i);
+            PlantPlanBatchWrites.Outcome outcome = outcomes.get(i);
+            switch (outcome.status()) {
+                case CONFLICT -> {
+                    // Changed by another write between the read and the bulk write: written again with the next batch
+                    conflicts.add(plan);
+                    continue;
+                }
+                case FAILED -> {
+                    failed.increment();
+                    log.warn("Write-behind of plan {} for owner {} rejected: {}", plan.getId(), plan.getOwnerId(),
+                            outcome.error());
+                    continue;
+                }
+                case UPDATED -> {
+                    plan.setVersion(outcome.version());
+                    counters.moved(plan.getOwnerId(), outcome.previousSeason(), plan.getPlantingSeason());
+                    CacheConfig.evictSeasons(cacheManager, plan.getOwnerId(), outcome.previousSeason(),
+                            plan.getPlantingSeason());
+                    events.publishEvent(new PlantPlanChange(PlantPlanChange.Operation.UPDATE, plan.getId(), plan.getOwnerId(), plan));
+                }
+                case CREATED -> {
+                    plan.setVersion(outcome.version());
+                    counters.added(plan.getOwnerId(), plan.getPlantingSeason());
+                    CacheConfig.evictSeasons(cacheManager, plan.getOwnerId(), plan.getPlantingSeason());
+                    events.publishEvent(new PlantPlanChange(PlantPlanChange.Operation.INSERT, plan.getId(), plan.getOwnerId(), plan));
+                }
+            }
+            if (byId != null) {
+                byId.evict(plan.getOwnerId() + ":" + plan.getId());
+            }
+            if (facets != null) {
+                facets.evict(plan.getOwnerId());
+            }
+            owners.add(plan.getOwnerId());
+        }
+        requeue(conflicts);
+        // The calendars of the owners written to, once per batch
+        for (String owner : owners) {
+            CacheConfig.evictOwner(cacheManager, CacheConfig.PLAN_CALENDAR, owner);
+        }
+    }
+
+    // A write to the same plan that arrived in the meantime is newer and wins. The batch was counted as in flight,
+    // so moving it back never takes the queue over max-pending
+    private void requeue(List<PlantPlan> batch) {
+        synchronized (pending) {
+            for (PlantPlan plan : batch) {
+                pending.putIfAbsent(new PlanKey(plan.getOwnerId(), plan.getId()), plan);
+            }
+            inFlight = 0;
+        }
+    }
+
+    /**
+     * Refuses new writes and writes out the queue. Runs after the web server has stopped taking requests
+     * and before the MongoDB client is closed.
+     */
+    @PreDestroy
+    void shutdown() {
+        synchronized (pending) {
+            accepting = false;
+        }
+        if (flusher == null) {
+            return;
+        }
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(shutdownTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            flush();
+            while (pendingCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(SHUTDOWN_RETRY_PAUSE_MILLIS);
+                flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int lost = pendingCount();
+        if (lost > 0) {
+            log.error("{} queued plan writes could not be written to MongoDB before shutdown and are lost", lost);
+        }
+    }
+
+    /** Queue key: later writes to the same plan replace earlier ones. */
+    private record PlanKey(String ownerId, String id) {
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.gardenplanner.service;
+
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanChange;
+import com.example.gardenplanner.model.PlantPlanPage;
+import com.example.gardenplanner.model.PlantPlanSearchKeys;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.repository.ReactivePlantPlanRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: ReactivePlantPlanService.java
+ * Description: Non-blocking service layer for PlantPlan operations, used by the "reactive" profile.
+ * - Same business rules as {@link PlantPlanService}, built on {@link ReactivePlantPlanRepository}.
+ * - Every operation is scoped to one owner, like {@link PlantPlanService}.
+ * - Shares {@link PlantPlanCounters} with the servlet stack, so counts stay O(1) in both modes.
+ * - Publishes a {@link PlantPlanChange} event per write, like {@link PlantPlanService}, for in-process listeners.
+ * - Update conditions ({@code If-Match}) and the 404 for another owner's id match {@link PlantPlanService}.
+ * - Does not use the Spring Cache in front of lookups: the reactive driver does not hold a thread while
+ *   waiting on MongoDB, which is the main cost the cache avoids in the servlet mode.
+ * Objective:
+ * *******************************************************
+ */
+
+@Service
+@Profile("reactive")
+public class ReactivePlantPlanService {
+
+    // Dependency on the reactive repository to perform CRUD operations on PlantPlan documents
+    private final ReactivePlantPlanRepository plantPlanRepository;
+
+    // In-memory per-season / total counters, kept current by the write methods below
+    private final PlantPlanCounters counters;
+
+    // Publishes one PlantPlanChange per write
+    private final ApplicationEventPublisher events;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param plantPlanRepository The reactive repository used to access PlantPlan data from MongoDB
+     * @param counters            The in-memory plan counters updated on every write
+     * @param events              publisher of one {@link PlantPlanChange} event per write
+     */
+    @Autowired
+    public ReactivePlantPlanService(ReactivePlantPlanRepository plantPlanRepository, PlantPlanCounters counters,
+                                    ApplicationEventPublisher events) {
+        this.plantPlanRepository = plantPlanRepository;
+        this.counters = counters;
+        this.events = events;
+    }
+
+    /**
+     * Adds new plan to the database
+     *
+     * @param ownerId The owner of the plan.
+     * @param plan    The PlantPlan object is added.
+     * @return The inserted PlantPlan document, including the generated '_id'
+     */
+    public Mono<PlantPlan> addPlantPlans(String ownerId, PlantPlan plan) {
+        // A new plan always starts at version 0, whatever the client sent
+        plan.setOwnerId(ownerId);
+        plan.setVersion(null);
+        return plantPlanRepository.insert(plan)
+                .doOnNext(inserted -> {
+                    counters.added(ownerId, inserted.getPlantingSeason());
+                    events.publishEvent(new PlantPlanChange(PlantPlanChange.Operation.INSERT, inserted.getId(), ownerId,
+                            inserted));
+                });
+    }
+
+    /**
+     * Retrieve all PlantPlans of an owner, emitted as they are read from the MongoDB cursor.
+     *
+     * @param ownerId the owner whose plans are listed
+     * @return a {@link Flux} of the PlantPlans; demand from the subscriber controls how fast the cursor is read
+     */
+    public Flux<PlantPlan> getAllPlantPlans(String ownerId) {
+        return plantPlanRepository.findByOwnerId(ownerId);
+    }
+
+    /**
+     * Retrieves one page of PlantPlans using keyset (cursor) pagination on '_id'.
+     *
+     * @param ownerId the owner whose plans are listed
+     * @param cursor  the {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @param size    the requested page size; clamped to 1..{@value PlantPlanService#MAX_PAGE_SIZE}
+     * @return a {@link PlantPlanPage} holding the plans and the cursor of the next page (null if none)
+     * @see PlantPlanService#getPlantPlanPage(String, String, int)
+     */
+    public Mono<PlantPlanPage> getPlantPlanPage(String ownerId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, PlantPlanService.MAX_PAGE_SIZE));
+        Pageable pageable = PageRequest.of(0, pageSize + 1, Sort.by(Sort.Direction.ASC, "id"));
+
+        Flux<PlantPlan> plans = (cursor == null || cursor.isBlank())
+                ? plantPlanRepository.findByOwnerId(ownerId, pageable)
+                : plantPlanRepository.findByOwnerIdAndIdGreaterThan(ownerId, cursor, pageable);
+
+        return plans.collectList().map(list -> {
+            if (list.size() <= pageSize) {
+                return new PlantPlanPage(list, null);
+            }
+            List<PlantPlan> items = new ArrayList<>(list.subList(0, pageSize));
+            return new PlantPlanPage(items, items.get(pageSize - 1).getId());
+        });
+    }
+
+    /**
+     * Retrieve a single PlantPlan by its unique identifier
+     *
+     * @param ownerId the owner of the PlantPlan
+     * @param id      the unique identifier of the PlantPlan
+     * @return A {@link Mono} with the PlantPlan, or an empty Mono if not found (or another owner's plan).
+     */
+    public Mono<PlantPlan> getPlantPlanById(String ownerId, String id) {
+        return plantPlanRepository.findByIdAndOwnerId(id, ownerId);
+    }
+
+    /**
+     * Updates an existing PlantPlan with the given ID using the provided updated data.
+     *
+     * @param ownerId         The owner of the PlantPlan.
+     * @param id              The unique identifier of the PlantPlan to be updated.
+     * @param update          The updated PlantPlan data. The ID will be set to match the given ID.
+     * @param expectedVersion the version the client based its update on (from {@code If-Match}),
+     *                        or {@code null} to update whatever version is stored
+     * @param mustExist       only update a plan that exists ({@code If-Match}, {@code *} included), never insert
+     * @return The updated {@link PlantPlan} saved in the database, with its new version; fails with
+     *         {@link org.springframework.dao.OptimisticLockingFailureException} if a condition does not hold and
+     *         with {@link PlanIdTakenException} if the id belongs to another owner's plan.
+     * @see PlantPlanService#updatePlantPlan(String, String, PlantPlan, Long, boolean)
+     */
+    public Mono<PlantPlan> updatePlantPlan(String ownerId, String id, PlantPlan update, Long expectedVersion,
+                                           boolean mustExist) {
+        // One findAndModify writes the plan and returns the season it replaced (see PlantPlanService)
+        update.setId(id);
+        update.setOwnerId(ownerId);
+        return plantPlanRepository.replaceFields(update, expectedVersion, mustExist)
+                .onErrorMap(DuplicateKeyException.class, e -> new PlanIdTakenException(id))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(previous -> {
+                    update.setVersion(previous.map(PlantPlan::getVersion).map(version -> version + 1).orElse(1L));
+                    previous.ifPresentOrElse(
+                            old -> counters.moved(ownerId, old.getPlantingSeason(), update.getPlantingSeason()),
+                            () -> counters.added(ownerId, update.getPlantingSeason()));
+                    PlantPlanChange.Operation operation = previous.isPresent()
+                            ? PlantPlanChange.Operation.UPDATE
+                            : PlantPlanChange.Operation.INSERT;
+                    events.publishEvent(new PlantPlanChange(operation, id, ownerId, update));
+                    return update;
+                });
+    }
+
+    /**
+     * Deletes a PlantPlan by its unique identifier.
+     *
+     * @param ownerId The owner of the PlantPlan.
+     * @param id      The unique identifier of the PlantPlan to delete.
+     *                If the ID does not exist (or is another owner's plan), no action is taken.
+     * @return a {@link Mono} completing when the delete is done
+     */
+    public Mono<Void> deletePlantPlan(String ownerId, String id) {
+        return plantPlanRepository.findAndRemove(id, ownerId)
+                .doOnNext(plan -> {
+                    counters.removed(ownerId, plan.getPlantingSeason());
+                    events.publishEvent(new PlantPlanChange(PlantPlanChange.Operation.DELETE, id, ownerId, null));
+                })
+                .then();
+    }
+
+    /**
+     * Retrieves the {@link PlantPlan} entries that match the given planting season.
+     *
+     * @param ownerId the owner whose plans are listed
+     * @param season  the {@link Season} to filter plant plans by
+     * @return a {@link Flux} of matching plant plans
+     */
+    public Flux<PlantPlan> findByPlantingSeason(String ownerId, Season season) {
+        return plantPlanRepository.findByOwnerIdAndPlantingSeason(ownerId, season);
+    }
+
+    /**
+     * Retrieves all {@link PlantPlan} entries that match the specified sunlight needs exactly.
+     *
+     * @param ownerId  the owner whose plans are listed
+     * @param sunlight the sunlight requirement (e.g., "Full Sun", "Partial Shade")
+     * @return a {@link Flux} of matching plant plans
+     */
+    public Flux<PlantPlan> findBySunlightNeeds(String ownerId, String sunlight) {
+        return plantPlanRepository.findByOwnerIdAndSunlightNeeds(ownerId, sunlight);
+    }
+
+    /**
+     * Searches for {@link PlantPlan} entries where the watering frequency contains the given keyword (case-insensitive).
+     *
+     * @param ownerId the owner whose plans are searched
+     * @param keyword a partial or full string to match against the watering frequency field
+     * @return a {@link Flux} of matching plant plans
+     * @see PlantPlanService#searchByWateringFreq(String, String)
+     */
+    public Flux<PlantPlan> searchByWateringFreq(String ownerId, String keyword) {
+        String key = PlantPlanSearchKeys.normalize(keyword);
+        if (key.length() < PlantPlanSearchKeys.GRAM_SIZE) {
+            return plantPlanRepository.findByOwnerIdAndWateringFreqKeyContaining(ownerId, key);
+        }
+        return plantPlanRepository.findByOwnerIdAndWateringFreqGramsAll(ownerId, PlantPlanSearchKeys.grams(key))
+                .filter(plan -> plan.getWateringFreqKey() != null && plan.getWateringFreqKey().contains(key));
+    }
+
+    /**
+     * Searches for {@link PlantPlan} entries where the name contains the given keyword (case-insensitive).
+     *
+     * @param ownerId the owner whose plans are searched
+     * @param keyword a partial or full string to match against the plant name
+     * @return a {@link Flux} of matching plant plans
+     * @see PlantPlanService#searchByName(String, String)
+     */
+    public Flux<PlantPlan> searchByName(String ownerId, String keyword) {
+        String key = PlantPlanSearchKeys.normalize(keyword);
+        if (key.length() < PlantPlanSearchKeys.GRAM_SIZE) {
+            return plantPlanRepository.findByOwnerIdAndNameKeyContaining(ownerId, key);
+        }
+        return plantPlanRepository.findByOwnerIdAndNameGramsAll(ownerId, PlantPlanSearchKeys.grams(key))
+                .filter(plan -> plan.getNameKey() != null && plan.getNameKey().contains(key));
+    }
+
+    /**
+     * Counts the number of {@link PlantPlan} entries that match the specified planting season.
+     *
+     * @param ownerId the owner whose plans are counted
+     * @param season  the planting season to count
+     * @return the number of matching plant plans
+     */
+    public Mono<Long> countByPlantingSeason(String ownerId, Season season) {
+        return counters.isSeeded()
+                ? Mono.just(counters.countBySeason(ownerId, season))
+                : plantPlanRepository.countByOwnerIdAndPlantingSeason(ownerId, season);
+    }
+
+    /**
+     * Retrieves the total number of {@link PlantPlan} entries of an owner in the database.
+     *
+     * @param ownerId the owner whose plans are counted
+     * @return the total count of plant plans
+     */
+    public Mono<Long> getTotalPlansCount(String ownerId) {
+        return counters.isSeeded()
+                ? Mono.just(counters.total(ownerId))
+                : plantPlanRepository.countByOwnerId(ownerId);
+    }
+}
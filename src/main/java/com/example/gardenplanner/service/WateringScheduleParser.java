@@ -0,0 +1,126 @@
+package com.example.gardenplanner.service;
+
+
+import com.example.gardenplanner.model.PlantPlanSearchKeys;
+import com.example.gardenplanner.model.WateringSchedule;
+import com.example.gardenplanner.model.WateringSchedule.Unit;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: WateringScheduleParser.java
+ * Description: Parses free-text watering frequencies into {@link WateringSchedule}s.
+ * - Understands the ways clients write them: "Daily", "Weekly", "Twice a week", "3 times per week", "2x a day",
+ *   "Once every two weeks", "Every 3 days", "Every other day", "Fortnightly", ...
+ * - Results (including "not understood") are memoized per text: the same few frequencies are shared by most plans.
+ * Objective:
+ * *******************************************************
+ */
+
+public final class WateringScheduleParser {
+
+    // The memo is dropped when it grows past this many distinct texts
+    private static final int MAX_MEMOIZED = 10_000;
+
+    private static final String COUNT = "(\\d{1,3}|an?|one|two|three|four|five|six|seven|eight|nine|ten|other)";
+    private static final String UNIT = "(day|week|month)s?";
+
+    // "daily", "weekly", "fortnightly", "twice daily", ...
+    private static final Pattern ADVERB = Pattern.compile(
+            "(?:(once|twice|thrice|" + COUNT + " ?(?:x|times?)) )?(daily|weekly|monthly|fortnightly)");
+    // "twice a week", "3 times per day", "2x a month", "once every two weeks", "every 3 days", "every other day"
+    private static final Pattern PER_PERIOD = Pattern.compile(
+            "(?:(once|twice|thrice|" + COUNT + " ?(?:x|times?)) )?(?:a|an|per|each|every|/|in|on) ?(?:" + COUNT + " )?" + UNIT);
+
+    private static final Map<String, Optional<WateringSchedule>> MEMO = new ConcurrentHashMap<>();
+
+    private WateringScheduleParser() {
+    }
+
+    /**
+     * Parses a watering frequency.
+     *
+     * @param wateringFreq the text (e.g. "Twice a week"); case, whitespace and a leading "water" do not matter
+     * @return the schedule, or empty if the text is null or not understood
+     */
+    public static Optional<WateringSchedule> parse(String wateringFreq) {
+        if (wateringFreq == null) {
+            return Optional.empty();
+        }
+        // Keyed by the raw text: a hit skips normalizing it as well
+        Optional<WateringSchedule> memoized = MEMO.get(wateringFreq);
+        if (memoized != null) {
+            return memoized;
+        }
+        if (MEMO.size() >= MAX_MEMOIZED) {
+            MEMO.clear();
+        }
+        String key = PlantPlanSearchKeys.normalize(wateringFreq);
+        Optional<WateringSchedule> schedule = key.isEmpty() ? Optional.empty() : Optional.ofNullable(parseKey(key));
+        MEMO.put(wateringFreq, schedule);
+        return schedule;
+    }
+
+    private static WateringSchedule parseKey(String key) {
+        String text = key.replaceAll("[.!,;]", "").replaceFirst("^water(?:ed|ing)? ", "").trim();
+
+        Matcher adverb = ADVERB.matcher(text);
+        if (adverb.matches()) {
+            int times = times(adverb.group(1), adverb.group(2));
+            return switch (adverb.group(3)) {
+                case "daily" -> schedule(times, 1, Unit.DAY);
+                case "weekly" -> schedule(times, 1, Unit.WEEK);
+                case "fortnightly" -> schedule(times, 2, Unit.WEEK);
+                default -> schedule(times, 1, Unit.MONTH);
+            };
+        }
+
+        Matcher perPeriod = PER_PERIOD.matcher(text);
+        if (perPeriod.matches()) {
+            int times = times(perPeriod.group(1), perPeriod.group(2));
+            String every = perPeriod.group(3);
+            int period = every == null ? 1 : "other".equals(every) ? 2 : number(every);
+            return schedule(times, period, Unit.valueOf(perPeriod.group(4).toUpperCase()));
+        }
+        return null;
+    }
+
+    // "once" / "twice" / "thrice", or the count before "x" / "times"; none means once
+    private static int times(String phrase, String count) {
+        if (phrase == null) {
+            return 1;
+        }
+        return switch (phrase) {
+            case "once" -> 1;
+            case "twice" -> 2;
+            case "thrice" -> 3;
+            default -> number(count);
+        };
+    }
+
+    private static int number(String word) {
+        return switch (word) {
+            case "a", "an", "one" -> 1;
+            case "two", "other" -> 2;
+            case "three" -> 3;
+            case "four" -> 4;
+            case "five" -> 5;
+            case "six" -> 6;
+            case "seven" -> 7;
+            case "eight" -> 8;
+            case "nine" -> 9;
+            case "ten" -> 10;
+            default -> Integer.parseInt(word);
+        };
+    }
+
+    private static WateringSchedule schedule(int times, int every, Unit unit) {
+        return times < 1 || every < 1 ? null : new WateringSchedule(times, every, unit);
+    }
+}
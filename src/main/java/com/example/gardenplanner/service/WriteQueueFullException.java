@@ -0,0 +1,24 @@
+package com.example.gardenplanner.service;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * *******************************************************
+ * Package: com.example.gardenplanner.service
+ * File: WriteQueueFullException.java
+ * Description: Thrown when the {@link PlantPlanWriteBehindQueue} cannot accept another write, because it is full
+ * or the application is shutting down, or cannot write out a queued write that a direct write has to wait for.
+ * - Mapped to HTTP 503 Service Unavailable, so clients can back off and retry.
+ * Objective:
+ * *******************************************************
+ */
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WriteQueueFullException extends RuntimeException {
+
+    public WriteQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -1,13 +1,28 @@
 package com.example.gardenplanner;
 
+import com.mongodb.reactivestreams.client.MongoClient;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 class GardenplannerApplicationTests {
 
+	@Autowired
+	ApplicationContext context;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void servletModeStartsNoReactiveMongoClient() {
+		assertThat(context.getBeanNamesForType(MongoClient.class)).isEmpty();
+		assertThat(context.getBeanNamesForType(ReactiveMongoTemplate.class)).isEmpty();
+	}
+
 }
@@ -0,0 +1,60 @@
+package com.example.gardenplanner.config;
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.Season;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Payload sizes of a large plan listing in JSON, Smile and CBOR; compression and caching headers of the served
+ * formats are covered by HttpCachingConfigTests. Throughput is compared in PlantPlanJsonBenchmark (jmh profile).
+ */
+class BinaryFormatsConfigTests {
+
+	private static final TypeReference<List<PlantPlan>> PLAN_LIST = new TypeReference<>() { };
+
+	private final BinaryFormatsConfig config = new BinaryFormatsConfig();
+	private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+	private final ObjectMapper smile = config.smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+	private final ObjectMapper cbor = config.cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+
+	@Test
+	void binaryFormatsRoundTripAndAreSmallerThanJson() throws Exception {
+		List<PlantPlan> plans = plans(1000);
+		byte[] jsonBytes = json.writerFor(PLAN_LIST).writeValueAsBytes(plans);
+		byte[] smileBytes = smile.writerFor(PLAN_LIST).writeValueAsBytes(plans);
+		byte[] cborBytes = cbor.writerFor(PLAN_LIST).writeValueAsBytes(plans);
+
+		assertThat(smile.readValue(smileBytes, PLAN_LIST)).isEqualTo(plans);
+		assertThat(cbor.readValue(cborBytes, PLAN_LIST)).isEqualTo(plans);
+
+		// Smile back-references repeated field names and short values, so a list shrinks far more than by CBOR's encoding
+		assertThat(smileBytes.length).isLessThan(jsonBytes.length * 3 / 4);
+		assertThat(cborBytes.length).isLessThan(jsonBytes.length);
+	}
+
+	private static List<PlantPlan> plans(int count) {
+		String[] names = {"Tomato", "Basil", "Rose", "Lavender", "Mint", "Pepper", "Lettuce", "Sunflower"};
+		List<PlantPlan> plans = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			PlantPlan plan = new PlantPlan();
+			plan.setId(new ObjectId().toHexString());
+			plan.setName(names[i % names.length] + " " + i);
+			plan.setPlantingSeason(Season.values()[i % Season.values().length]);
+			plan.setSunlightNeeds(i % 2 == 0 ? "Full Sun" : "Partial Shade");
+			plan.setWateringFreq(i % 3 == 0 ? "Daily" : "Twice a week");
+			plan.setNotes("Keep the soil moist and mulch in hot weather.");
+			plan.setVersion((long) i % 5);
+			plans.add(plan);
+		}
+		return plans;
+	}
+}
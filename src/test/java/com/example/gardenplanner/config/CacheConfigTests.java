@@ -0,0 +1,61 @@
+package com.example.gardenplanner.config;
+
+import com.example.gardenplanner.model.Season;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Owner-scoped eviction keeps the entries of other owners and seasons, and falls back to clearing non-Caffeine caches.
+ */
+class CacheConfigTests {
+
+	@Test
+	void evictsOnlyTheOwnersEntriesFromACaffeineCache() {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager(CacheConfig.PLAN_CALENDAR);
+		Cache cache = cacheManager.getCache(CacheConfig.PLAN_CALENDAR);
+		cache.put("alice:SUMMER", "alice summer");
+		cache.put("alice:2026-06-01/2026-06-07", "alice week");
+		cache.put("alicia:SUMMER", "alicia summer");
+		cache.put("bob:SUMMER", "bob summer");
+
+		CacheConfig.evictOwner(cacheManager, CacheConfig.PLAN_CALENDAR, "alice");
+
+		assertThat(cache.get("alice:SUMMER")).isNull();
+		assertThat(cache.get("alice:2026-06-01/2026-06-07")).isNull();
+		assertThat(cache.get("alicia:SUMMER")).isNotNull();
+		assertThat(cache.get("bob:SUMMER")).isNotNull();
+	}
+
+	@Test
+	void evictsOnlyTheOwnersListingsOfTheGivenSeasons() {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager(CacheConfig.PLANS_BY_SEASON);
+		Cache cache = cacheManager.getCache(CacheConfig.PLANS_BY_SEASON);
+		cache.put("alice:SPRING", "alice spring");
+		cache.put("alice:SUMMER", "alice summer");
+		cache.put("alice:WINTER", "alice winter");
+		cache.put("bob:SPRING", "bob spring");
+
+		CacheConfig.evictSeasons(cacheManager, "alice", Season.SPRING, null, Season.SUMMER);
+
+		assertThat(cache.get("alice:SPRING")).isNull();
+		assertThat(cache.get("alice:SUMMER")).isNull();
+		assertThat(cache.get("alice:WINTER")).isNotNull();
+		assertThat(cache.get("bob:SPRING")).isNotNull();
+	}
+
+	@Test
+	void clearsOtherCachesAndIgnoresMissingOnes() {
+		ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PLAN_CALENDAR);
+		Cache cache = cacheManager.getCache(CacheConfig.PLAN_CALENDAR);
+		cache.put("bob:SUMMER", "bob summer");
+
+		CacheConfig.evictOwner(cacheManager, CacheConfig.PLAN_CALENDAR, "alice");
+		CacheConfig.evictOwner(cacheManager, "unknown", "alice");
+
+		assertThat(cache.get("bob:SUMMER")).isNull();
+	}
+}
@@ -0,0 +1,126 @@
+package com.example.gardenplanner.config;
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.service.PlantPlanService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * GET /api/plans through the running server: gzip, JSON and CBOR bodies, Vary: Accept and per-format ETags.
+ * The plans come from a mocked service, so no MongoDB is needed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class HttpCachingConfigTests {
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@MockitoBean
+	PlantPlanService service;
+
+	// Unlike RestTemplate's Apache client, it neither sends Accept-Encoding nor decompresses on its own
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@BeforeEach
+	void setUp() {
+		when(service.getAllPlantPlans(anyString())).thenReturn(plans(200));
+	}
+
+	@Test
+	void compressesJsonAndVariesOnAccept() throws Exception {
+		HttpResponse<InputStream> response = client.send(get(MediaType.APPLICATION_JSON_VALUE)
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip").build(), HttpResponse.BodyHandlers.ofInputStream());
+
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).contains("gzip");
+		assertThat(vary(response)).contains("accept", "accept-encoding");
+		try (InputStream body = new GZIPInputStream(response.body())) {
+			assertThat(objectMapper.readTree(body)).hasSize(200);
+		}
+	}
+
+	@Test
+	void servesCborWithItsOwnETagAndAnswersMatchingRequestsWith304() throws Exception {
+		HttpResponse<byte[]> json = client.send(get(MediaType.APPLICATION_JSON_VALUE).build(),
+				HttpResponse.BodyHandlers.ofByteArray());
+		HttpResponse<byte[]> cbor = client.send(get(MediaType.APPLICATION_CBOR_VALUE).build(),
+				HttpResponse.BodyHandlers.ofByteArray());
+
+		assertThat(cbor.statusCode()).isEqualTo(200);
+		assertThat(cbor.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValueSatisfying(
+				type -> assertThat(MediaType.parseMediaType(type).isCompatibleWith(MediaType.APPLICATION_CBOR)).isTrue());
+		assertThat(vary(cbor)).contains("accept");
+		String jsonETag = json.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+		String cborETag = cbor.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+		assertThat(jsonETag).startsWith("W/").isNotEqualTo(cborETag);
+
+		HttpResponse<byte[]> revalidated = client.send(get(MediaType.APPLICATION_CBOR_VALUE)
+				.header(HttpHeaders.IF_NONE_MATCH, cborETag).build(), HttpResponse.BodyHandlers.ofByteArray());
+		HttpResponse<byte[]> otherFormat = client.send(get(MediaType.APPLICATION_JSON_VALUE)
+				.header(HttpHeaders.IF_NONE_MATCH, cborETag).build(), HttpResponse.BodyHandlers.ofByteArray());
+
+		assertThat(revalidated.statusCode()).isEqualTo(304);
+		assertThat(revalidated.body()).isEmpty();
+		assertThat(vary(revalidated)).contains("accept");
+		assertThat(otherFormat.statusCode()).isEqualTo(200);
+	}
+
+	private HttpRequest.Builder get(String accept) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/plans"))
+				.header(HttpHeaders.ACCEPT, accept);
+	}
+
+	// Every field name listed in the Vary headers, lower-cased
+	private static List<String> vary(HttpResponse<?> response) {
+		List<String> names = new ArrayList<>();
+		for (String value : response.headers().allValues(HttpHeaders.VARY)) {
+			for (String name : value.split(",")) {
+				names.add(name.trim().toLowerCase(Locale.ROOT));
+			}
+		}
+		return names;
+	}
+
+	private static List<PlantPlan> plans(int count) {
+		List<PlantPlan> plans = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			PlantPlan plan = new PlantPlan();
+			plan.setId(new ObjectId().toHexString());
+			plan.setOwnerId(PlantPlan.DEFAULT_OWNER);
+			plan.setName("Tomato " + i);
+			plan.setPlantingSeason(Season.values()[i % Season.values().length]);
+			plan.setSunlightNeeds("Full Sun");
+			plan.setWateringFreq("Twice a week");
+			plan.setNotes("Keep the soil moist and mulch in hot weather.");
+			plan.setVersion(0L);
+			plans.add(plan);
+		}
+		return plans;
+	}
+}
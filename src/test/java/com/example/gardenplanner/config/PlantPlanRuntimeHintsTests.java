@@ -0,0 +1,35 @@
+package com.example.gardenplanner.config;
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanSummary;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reflection hints the AOT build relies on for the MongoDB mapping, Jackson and the .env loader.
+ */
+class PlantPlanRuntimeHintsTests {
+
+	private final RuntimeHints hints = new RuntimeHints();
+
+	@Test
+	void registersMappedTypesWithTheirLombokAccessors() {
+		new PlantPlanRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+		assertThat(RuntimeHintsPredicates.reflection().onType(PlantPlan.class)
+				.withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+				.accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(PlantPlan.class, "getOwnerId")).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(PlantPlan.class, "setWateringFreq")).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onType(PlantPlanSummary.class)).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onType(PlantPlanRepository.OwnerSeasonCount.class)).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onType(DotenvEnvironmentPostProcessor.class)
+				.withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+				.accepts(hints);
+	}
+}
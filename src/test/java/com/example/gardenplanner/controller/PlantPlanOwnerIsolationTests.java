@@ -0,0 +1,141 @@
+package com.example.gardenplanner.controller;
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanSearchKeys;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+/**
+ * Another owner's plan id through the running server: reads, PUT, DELETE and search behave as if it did not exist,
+ * while an insert under a taken id is a 409. The repository is a map of plans shared by all owners, like the
+ * collection, so no MongoDB is needed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PlantPlanOwnerIsolationTests {
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@MockitoBean
+	PlantPlanRepository repository;
+
+	// Every stored plan by id; ids are unique across owners
+	private final Map<String, PlantPlan> plans = new ConcurrentHashMap<>();
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@BeforeEach
+	void setUp() {
+		plans.put("p1", plan("p1", "alice", "Lavender"));
+
+		when(repository.findByIdAndOwnerId(anyString(), anyString())).thenAnswer(invocation ->
+				ownedBy(invocation.getArgument(0), invocation.getArgument(1)));
+		when(repository.findAndRemove(anyString(), anyString())).thenAnswer(invocation ->
+				ownedBy(invocation.getArgument(0), invocation.getArgument(1))
+						.map(plan -> plans.remove(plan.getId())));
+		when(repository.findByOwnerIdAndNameGramsAll(anyString(), anyCollection())).thenAnswer(invocation ->
+				plans.values().stream().filter(plan -> plan.getOwnerId().equals(invocation.getArgument(0))).toList());
+		when(repository.insert(any(PlantPlan.class))).thenAnswer(invocation -> {
+			PlantPlan plan = invocation.getArgument(0);
+			if (plans.putIfAbsent(plan.getId(), plan) != null) {
+				throw new DuplicateKeyException("E11000 duplicate key error: " + plan.getId());
+			}
+			return plan;
+		});
+		// Like the upsert filtered by id and owner: another owner's id fails on the unique _id
+		when(repository.replaceFields(any(PlantPlan.class), isNull(), eq(false))).thenAnswer(invocation -> {
+			PlantPlan plan = invocation.getArgument(0);
+			PlantPlan stored = plans.get(plan.getId());
+			if (stored != null && !stored.getOwnerId().equals(plan.getOwnerId())) {
+				throw new DuplicateKeyException("E11000 duplicate key error: " + plan.getId());
+			}
+			plans.put(plan.getId(), plan);
+			return Optional.ofNullable(stored);
+		});
+	}
+
+	@Test
+	void anotherOwnersPlanIsNotFoundAndLeftUntouched() throws Exception {
+		assertThat(send("bob", HttpRequest.newBuilder(uri("/p1")).GET()).statusCode()).isEqualTo(404);
+		assertThat(send("bob", HttpRequest.newBuilder(uri("/p1"))
+				.PUT(json(plan(null, null, "Mint")))).statusCode()).isEqualTo(404);
+		assertThat(send("bob", HttpRequest.newBuilder(uri("/p1")).DELETE()).statusCode()).isEqualTo(204);
+		HttpResponse<String> search = send("bob", HttpRequest.newBuilder(uri("/search?keyword=lavender")).GET());
+		assertThat(objectMapper.readTree(search.body())).isEmpty();
+
+		assertThat(plans.get("p1").getOwnerId()).isEqualTo("alice");
+		assertThat(plans.get("p1").getName()).isEqualTo("Lavender");
+		HttpResponse<String> own = send("alice", HttpRequest.newBuilder(uri("/p1")).GET());
+		assertThat(own.statusCode()).isEqualTo(200);
+		assertThat(objectMapper.readTree(send("alice", HttpRequest.newBuilder(uri("/search?keyword=lavender")).GET())
+				.body())).hasSize(1);
+	}
+
+	@Test
+	void insertingUnderATakenIdIsAConflict() throws Exception {
+		HttpResponse<String> response = send("alice", HttpRequest.newBuilder(uri("/add-plan"))
+				.POST(json(plan("p1", null, "Rosemary"))));
+
+		assertThat(response.statusCode()).isEqualTo(409);
+		assertThat(plans.get("p1").getName()).isEqualTo("Lavender");
+	}
+
+	private Optional<PlantPlan> ownedBy(String id, String ownerId) {
+		return Optional.ofNullable(plans.get(id)).filter(plan -> plan.getOwnerId().equals(ownerId));
+	}
+
+	private HttpResponse<String> send(String ownerId, HttpRequest.Builder request) throws Exception {
+		return client.send(request.header(OwnerId.HEADER, ownerId)
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private HttpRequest.BodyPublisher json(PlantPlan plan) throws Exception {
+		return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(plan));
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + "/api/plans" + path);
+	}
+
+	private static PlantPlan plan(String id, String ownerId, String name) {
+		PlantPlan plan = new PlantPlan();
+		plan.setId(id);
+		plan.setOwnerId(ownerId);
+		plan.setName(name);
+		plan.setPlantingSeason(Season.SPRING);
+		plan.setSunlightNeeds("Full Sun");
+		plan.setVersion(0L);
+		PlantPlanSearchKeys.apply(plan);
+		return plan;
+	}
+}
@@ -0,0 +1,166 @@
+package com.example.gardenplanner.controller;
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.repository.ReactivePlantPlanRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * The reactive mode through the running WebFlux server: ETags, If-Match on PUT, another owner's id and taken ids
+ * answer as in the servlet mode. The repository is a map of plans shared by all owners, so no MongoDB is needed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactivePlantPlanControllerTests {
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	ApplicationContext context;
+
+	@MockitoBean
+	ReactivePlantPlanRepository repository;
+
+	// Every stored plan by id; ids are unique across owners
+	private final Map<String, PlantPlan> plans = new ConcurrentHashMap<>();
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@BeforeEach
+	void setUp() {
+		plans.put("p1", plan("p1", "alice", "Lavender", 3L));
+
+		when(repository.findByIdAndOwnerId(anyString(), anyString())).thenAnswer(invocation ->
+				Mono.justOrEmpty(ownedBy(invocation.getArgument(0), invocation.getArgument(1))));
+		when(repository.insert(any(PlantPlan.class))).thenAnswer(invocation -> {
+			PlantPlan plan = invocation.getArgument(0);
+			if (plans.putIfAbsent(plan.getId(), plan) != null) {
+				return Mono.error(new DuplicateKeyException("E11000 duplicate key error: " + plan.getId()));
+			}
+			return Mono.just(plan);
+		});
+		// Like the findAndModify filtered by id, owner and version: another owner's id fails on the unique _id
+		when(repository.replaceFields(any(PlantPlan.class), any(), anyBoolean())).thenAnswer(invocation -> {
+			PlantPlan plan = invocation.getArgument(0);
+			Long expectedVersion = invocation.getArgument(1);
+			boolean mustExist = invocation.getArgument(2);
+			PlantPlan stored = plans.get(plan.getId());
+			boolean matches = stored != null && stored.getOwnerId().equals(plan.getOwnerId())
+					&& (expectedVersion == null || expectedVersion.equals(stored.getVersion()));
+			if (!matches && (expectedVersion != null || mustExist)) {
+				return Mono.error(new OptimisticLockingFailureException("PlantPlan " + plan.getId() + " not matched"));
+			}
+			if (stored != null && !matches) {
+				return Mono.error(new DuplicateKeyException("E11000 duplicate key error: " + plan.getId()));
+			}
+			plan.setVersion(stored == null ? 1L : stored.getVersion() + 1);
+			plans.put(plan.getId(), plan);
+			return Mono.justOrEmpty(stored);
+		});
+	}
+
+	@Test
+	void runsOnTheReactiveMongoTemplate() {
+		assertThat(context.getBeanNamesForType(ReactiveMongoTemplate.class)).isNotEmpty();
+	}
+
+	@Test
+	void returnsThePlanWithItsVersionAsETag() throws Exception {
+		HttpResponse<String> own = send("alice", HttpRequest.newBuilder(uri("/p1")).GET());
+
+		assertThat(own.statusCode()).isEqualTo(200);
+		assertThat(own.headers().firstValue(HttpHeaders.ETAG)).hasValue("\"3\"");
+		assertThat(send("bob", HttpRequest.newBuilder(uri("/p1")).GET()).statusCode()).isEqualTo(404);
+	}
+
+	@Test
+	void updatesOnlyIfTheETagStillMatches() throws Exception {
+		HttpResponse<String> stale = send("alice", HttpRequest.newBuilder(uri("/p1"))
+				.header(HttpHeaders.IF_MATCH, "\"2\"").PUT(json(plan(null, null, "Mint", null))));
+		assertThat(stale.statusCode()).isEqualTo(412);
+		assertThat(plans.get("p1").getName()).isEqualTo("Lavender");
+
+		HttpResponse<String> current = send("alice", HttpRequest.newBuilder(uri("/p1"))
+				.header(HttpHeaders.IF_MATCH, "\"3\"").PUT(json(plan(null, null, "Mint", null))));
+		assertThat(current.statusCode()).isEqualTo(200);
+		assertThat(current.headers().firstValue(HttpHeaders.ETAG)).hasValue("\"4\"");
+		assertThat(plans.get("p1").getName()).isEqualTo("Mint");
+
+		HttpResponse<String> missing = send("alice", HttpRequest.newBuilder(uri("/p2"))
+				.header(HttpHeaders.IF_MATCH, "*").PUT(json(plan(null, null, "Sage", null))));
+		assertThat(missing.statusCode()).isEqualTo(412);
+		assertThat(plans).doesNotContainKey("p2");
+	}
+
+	@Test
+	void anotherOwnersIdIsNotFoundAndATakenIdIsAConflict() throws Exception {
+		assertThat(send("bob", HttpRequest.newBuilder(uri("/p1"))
+				.PUT(json(plan(null, null, "Mint", null)))).statusCode()).isEqualTo(404);
+		assertThat(send("alice", HttpRequest.newBuilder(uri("/add-plan"))
+				.POST(json(plan("p1", null, "Rosemary", null)))).statusCode()).isEqualTo(409);
+
+		assertThat(plans.get("p1").getOwnerId()).isEqualTo("alice");
+		assertThat(plans.get("p1").getName()).isEqualTo("Lavender");
+	}
+
+	private PlantPlan ownedBy(String id, String ownerId) {
+		PlantPlan plan = plans.get(id);
+		return plan != null && plan.getOwnerId().equals(ownerId) ? plan : null;
+	}
+
+	private HttpResponse<String> send(String ownerId, HttpRequest.Builder request) throws Exception {
+		return client.send(request.header(OwnerId.HEADER, ownerId)
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private HttpRequest.BodyPublisher json(PlantPlan plan) throws Exception {
+		return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(plan));
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + "/api/plans" + path);
+	}
+
+	private static PlantPlan plan(String id, String ownerId, String name, Long version) {
+		PlantPlan plan = new PlantPlan();
+		plan.setId(id);
+		plan.setOwnerId(ownerId);
+		plan.setName(name);
+		plan.setPlantingSeason(Season.SPRING);
+		plan.setSunlightNeeds("Full Sun");
+		plan.setVersion(version);
+		return plan;
+	}
+}
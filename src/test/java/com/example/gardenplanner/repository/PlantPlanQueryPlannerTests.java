@@ -0,0 +1,69 @@
+package com.example.gardenplanner.repository;
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanQuery;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.repository.PlantPlanQueryPlanner.PlannedQuery;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Index choice, criteria order, sort and limit of planned combined queries.
+ */
+class PlantPlanQueryPlannerTests {
+
+	@Test
+	void linesEqualityFiltersUpWithTheLongestIndexPrefix() {
+		PlannedQuery planned = PlantPlanQueryPlanner.plan("alice",
+				new PlantPlanQuery("summer", "Full Sun", null, "Basil", null, null), 20);
+
+		assertThat(planned.index()).isEqualTo(PlantPlan.INDEX_OWNER_SEASON_SUNLIGHT_NAME);
+		Document filter = planned.query().getQueryObject();
+		assertThat(filter.keySet()).containsExactly("ownerId", "plantingSeason", "sunlightNeeds", "nameKey", "nameGrams");
+		assertThat(filter.get("ownerId")).isEqualTo("alice");
+		assertThat(filter.get("plantingSeason")).isEqualTo(Season.SUMMER);
+		assertThat(planned.query().getLimit()).isEqualTo(20);
+		// The caller hints the index once it knows it exists
+		assertThat(planned.query().getHint()).isNull();
+	}
+
+	@Test
+	void prefersTheIndexWhoseNextKeyServesTheSort() {
+		PlannedQuery planned = PlantPlanQueryPlanner.plan("alice",
+				new PlantPlanQuery(null, "Shade", null, null, "-name", null), 10);
+
+		assertThat(planned.index()).isEqualTo(PlantPlan.INDEX_OWNER_SUNLIGHT_NAME);
+		assertThat(planned.query().getSortObject()).isEqualTo(new Document("nameKey", -1).append("id", 1));
+	}
+
+	@Test
+	void scopesAnUnfilteredQueryToTheOwnerInIdOrder() {
+		PlannedQuery planned = PlantPlanQueryPlanner.plan("alice", new PlantPlanQuery(), 50);
+
+		assertThat(planned.index()).isEqualTo(PlantPlan.INDEX_OWNER_ID);
+		assertThat(planned.query().getQueryObject()).isEqualTo(new Document("ownerId", "alice"));
+		assertThat(planned.query().getSortObject()).isEqualTo(new Document("id", 1));
+	}
+
+	@Test
+	void skipsTrigramsForKeywordsShorterThanAGram() {
+		PlannedQuery planned = PlantPlanQueryPlanner.plan("alice",
+				new PlantPlanQuery(null, null, "Da", null, null, null), 10);
+
+		assertThat(planned.index()).isEqualTo(PlantPlan.INDEX_OWNER_WATERING);
+		assertThat(planned.query().getQueryObject().keySet()).containsExactly("ownerId", "wateringFreqKey");
+	}
+
+	@Test
+	void rejectsUnknownSeasonsAndSortFields() {
+		assertThatThrownBy(() -> PlantPlanQueryPlanner.plan("alice",
+				new PlantPlanQuery("monsoon", null, null, null, null, null), 10))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> PlantPlanQueryPlanner.plan("alice",
+				new PlantPlanQuery(null, null, null, null, "colour", null), 10))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.gardenplanner.repository;
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.Season;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Only unconditional writes upsert; a write that must find its plan fails instead of creating it.
+ */
+class PlantPlanWritesImplTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final PlantPlanWrites writes = new PlantPlanWritesImpl(mongoTemplate);
+
+	@Test
+	void upsertsOnlyWithoutConditions() {
+		writes.replaceFields(plan(), null, false);
+
+		assertThat(options().isUpsert()).isTrue();
+	}
+
+	@Test
+	void failsInsteadOfCreatingAPlanThatMustExist() {
+		// The mocked findAndModify matches nothing, as after a concurrent delete
+		assertThatThrownBy(() -> writes.replaceFields(plan(), null, true))
+				.isInstanceOf(OptimisticLockingFailureException.class);
+
+		assertThat(options().isUpsert()).isFalse();
+	}
+
+	private FindAndModifyOptions options() {
+		ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+		verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class), options.capture(), eq(PlantPlan.class));
+		return options.getValue();
+	}
+
+	private static PlantPlan plan() {
+		PlantPlan plan = new PlantPlan();
+		plan.setId("p1");
+		plan.setOwnerId("alice");
+		plan.setName("Basil");
+		plan.setPlantingSeason(Season.SUMMER);
+		plan.setSunlightNeeds("Full Sun");
+		return plan;
+	}
+}
@@ -0,0 +1,149 @@
+package com.example.gardenplanner.service;
+
+import com.example.gardenplanner.model.BulkItemResult;
+import com.example.gardenplanner.model.BulkWriteReport;
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanChange;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import jakarta.validation.Validation;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk import of JSON arrays and NDJSON: per-item report, invalid items, duplicate ids and counters, against a
+ * mocked MongoTemplate backed by a map of stored seasons.
+ */
+class PlantPlanBulkServiceTests {
+
+	private static final List<String> ITEMS = List.of(
+			"{\"name\":\"Basil\",\"plantingSeason\":\"SUMMER\",\"sunlightNeeds\":\"Full Sun\"}",
+			"{\"id\":\"p1\",\"name\":\"Garlic\",\"plantingSeason\":\"AUTUMN\",\"sunlightNeeds\":\"Full Sun\"}",
+			"{\"plantingSeason\":\"SUMMER\",\"sunlightNeeds\":\"Full Sun\"}",
+			"{\"id\":\"p2\",\"name\":\"Kale\",\"plantingSeason\":\"SUMMER\",\"sunlightNeeds\":\"Shade\"}",
+			"{\"id\":\"p2\",\"name\":\"Kale\",\"plantingSeason\":\"WINTER\",\"sunlightNeeds\":\"Shade\"}");
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final BulkOperations bulk = mock(BulkOperations.class);
+	private final PlantPlanCounters counters = new PlantPlanCounters(mock(PlantPlanRepository.class));
+	// Season of each stored plan of "alice", by id
+	private final Map<String, Season> stored = new HashMap<>();
+	// Operations of the pending bulk write: the upserted id and season, or a null id for an insert
+	private final List<Map.Entry<String, Season>> operations = new ArrayList<>();
+	private final List<PlantPlanChange> changes = new ArrayList<>();
+	private PlantPlanBulkService service;
+
+	@BeforeEach
+	void setUp() {
+		stored.put("p1", Season.SPRING);
+		counters.added("alice", Season.SPRING);
+
+		when(mongoTemplate.find(any(Query.class), eq(PlantPlan.class))).thenAnswer(invocation -> stored.entrySet()
+				.stream().map(entry -> storedPlan(entry.getKey(), entry.getValue())).toList());
+		when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(PlantPlan.class))).thenReturn(bulk);
+		when(bulk.insert(any(PlantPlan.class))).thenAnswer(invocation -> {
+			operations.add(new AbstractMap.SimpleEntry<>(null, ((PlantPlan) invocation.getArgument(0)).getPlantingSeason()));
+			return bulk;
+		});
+		when(bulk.upsert(any(Query.class), any(Update.class))).thenAnswer(invocation -> {
+			String id = ((Query) invocation.getArgument(0)).getQueryObject().getString("id");
+			Document set = (Document) ((Update) invocation.getArgument(1)).getUpdateObject().get("$set");
+			operations.add(new AbstractMap.SimpleEntry<>(id, (Season) set.get("plantingSeason")));
+			return bulk;
+		});
+		when(bulk.execute()).thenAnswer(invocation -> execute());
+
+		service = new PlantPlanBulkService(mongoTemplate, Validation.buildDefaultValidatorFactory().getValidator(),
+				new ObjectMapper(), new MappingJackson2SmileHttpMessageConverter(),
+				new MappingJackson2CborHttpMessageConverter(), counters, event -> changes.add((PlantPlanChange) event),
+				new ConcurrentMapCacheManager(), 2);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+	void reportsEveryItemWritesTheLastOfDuplicateIdsAndCountsWhatWasWritten(String contentType) throws Exception {
+		String body = contentType.equals(MediaType.APPLICATION_JSON_VALUE)
+				? "[" + String.join(",", ITEMS) + "]"
+				: String.join("\n", ITEMS) + "\n";
+
+		BulkWriteReport report = service.importPlans("alice",
+				new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), MediaType.parseMediaType(contentType));
+
+		assertThat(report.getItems()).extracting(BulkItemResult::getIndex, BulkItemResult::getStatus).containsExactly(
+				tuple(0, BulkItemResult.Status.CREATED),
+				tuple(1, BulkItemResult.Status.UPDATED),
+				tuple(2, BulkItemResult.Status.INVALID),
+				tuple(3, BulkItemResult.Status.SUPERSEDED),
+				tuple(4, BulkItemResult.Status.CREATED));
+		assertThat(report.getItems().get(0).getId()).isNotNull();
+		assertThat(report.getItems()).extracting(BulkItemResult::getId).containsSequence("p1", null, "p2", "p2");
+		assertThat(report.getFailures()).extracting(BulkItemResult::getIndex).containsExactly(2);
+		assertThat(report.getReceived()).isEqualTo(5);
+		assertThat(report.getCreated()).isEqualTo(2);
+		assertThat(report.getUpdated()).isEqualTo(1);
+		assertThat(report.getInvalid()).isEqualTo(1);
+		assertThat(report.getSuperseded()).isEqualTo(1);
+
+		// Only the later p2 was sent; p1 moved from spring to autumn
+		assertThat(stored).containsEntry("p1", Season.AUTUMN).containsEntry("p2", Season.WINTER).hasSize(3);
+		assertThat(counters.countBySeason("alice", Season.SPRING)).isZero();
+		assertThat(counters.countBySeason("alice", Season.SUMMER)).isEqualTo(1);
+		assertThat(counters.countBySeason("alice", Season.AUTUMN)).isEqualTo(1);
+		assertThat(counters.countBySeason("alice", Season.WINTER)).isEqualTo(1);
+		assertThat(counters.total("alice")).isEqualTo(3);
+		assertThat(changes).extracting(PlantPlanChange::getOperation).containsExactly(PlantPlanChange.Operation.INSERT,
+				PlantPlanChange.Operation.UPDATE, PlantPlanChange.Operation.INSERT);
+	}
+
+	// Applies the pending operations to the stored seasons; upserts of ids not stored yet insert
+	private BulkWriteResult execute() {
+		List<BulkWriteUpsert> upserts = new ArrayList<>();
+		for (int i = 0; i < operations.size(); i++) {
+			String id = operations.get(i).getKey();
+			if (id == null) {
+				stored.put("new-" + i, operations.get(i).getValue());
+				continue;
+			}
+			if (!stored.containsKey(id)) {
+				upserts.add(new BulkWriteUpsert(i, new BsonObjectId()));
+			}
+			stored.put(id, operations.get(i).getValue());
+		}
+		operations.clear();
+		return BulkWriteResult.acknowledged(0, 0, 0, 0, upserts, List.of());
+	}
+
+	private static PlantPlan storedPlan(String id, Season season) {
+		PlantPlan plan = new PlantPlan();
+		plan.setId(id);
+		plan.setOwnerId("alice");
+		plan.setPlantingSeason(season);
+		plan.setVersion(1L);
+		return plan;
+	}
+}
@@ -0,0 +1,154 @@
+package com.example.gardenplanner.service;
+
+import com.example.gardenplanner.controller.OwnerId;
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Change feed fan-out, owner filtering, Last-Event-ID replay and slow subscribers, fed in-process like the "local" change feed source.
+ */
+class PlantPlanChangeFeedTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private PlantPlanChangeFeed feed;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		feed = new PlantPlanChangeFeed(3, Duration.ofMinutes(1), 4, registry);
+		mockMvc = MockMvcBuilders.standaloneSetup(new ChangesController(feed)).build();
+	}
+
+	@Test
+	void sendsChangesToConnectedSubscribers() throws Exception {
+		MvcResult subscriber = subscribe(null);
+		await().until(() -> feed.subscriberCount() == 1);
+
+		publish(1);
+		publish(2);
+
+		await().untilAsserted(() -> assertThat(subscriber.getResponse().getContentAsString())
+				.contains("id:e1", "id:e2", "event:insert", "\"planId\":\"p2\""));
+	}
+
+	@Test
+	void sendsOnlyTheSubscribersOwnChanges() throws Exception {
+		MvcResult other = mockMvc.perform(get("/changes").header(OwnerId.HEADER, "alice")).andReturn();
+		MvcResult own = subscribe(null);
+		await().until(() -> feed.subscriberCount() == 2);
+
+		publish(1);
+		// A delete whose owner is unknown could be anyone's: no subscriber receives it
+		feed.publish("e2", new PlantPlanChange(PlantPlanChange.Operation.DELETE, "p9", null, null));
+		feed.publish("e3", new PlantPlanChange(PlantPlanChange.Operation.DELETE, "p8", "alice", null));
+
+		await().untilAsserted(() -> assertThat(own.getResponse().getContentAsString()).contains("id:e1"));
+		await().untilAsserted(() -> assertThat(other.getResponse().getContentAsString()).contains("id:e3"));
+		assertThat(own.getResponse().getContentAsString()).doesNotContain("id:e2", "id:e3");
+		assertThat(other.getResponse().getContentAsString()).doesNotContain("id:e1", "id:e2");
+	}
+
+	@Test
+	void replaysMissedChangesAfterLastEventId() throws Exception {
+		for (int i = 1; i <= 5; i++) {
+			publish(i);
+		}
+
+		MvcResult reconnected = subscribe("e3");
+
+		await().untilAsserted(() -> assertThat(reconnected.getResponse().getContentAsString())
+				.contains("id:e4", "id:e5")
+				.doesNotContain("id:e3"));
+		assertThat(feed.subscriberCount()).isEqualTo(1);
+	}
+
+	@Test
+	void sendsResetWhenLastEventIdIsNoLongerKept() throws Exception {
+		for (int i = 1; i <= 5; i++) {
+			publish(i);
+		}
+
+		MvcResult reconnected = subscribe("e1");
+
+		await().untilAsserted(() -> assertThat(reconnected.getResponse().getContentAsString())
+				.contains("event:" + PlantPlanChangeFeed.RESET_EVENT));
+		assertThat(feed.subscriberCount()).isZero();
+	}
+
+	@Test
+	void disconnectsOnlyASubscriberThatStopsReading() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		SseEmitter stuck = new SseEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) throws IOException {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				throw new IOException("Broken pipe");
+			}
+		};
+		feed.subscribe(PlantPlan.DEFAULT_OWNER, null, stuck);
+		MvcResult reading = subscribe(null);
+		await().until(() -> feed.subscriberCount() == 2);
+
+		// One at a time, so only the stuck subscriber falls behind
+		for (int i = 1; i <= 10; i++) {
+			publish(i);
+			String id = "id:e" + i;
+			await().untilAsserted(() -> assertThat(reading.getResponse().getContentAsString()).contains(id));
+		}
+
+		assertThat(feed.subscriberCount()).isEqualTo(1);
+		assertThat(registry.counter("plantplan.change.feed.lagging").count()).isEqualTo(1);
+		release.countDown();
+	}
+
+	private MvcResult subscribe(String lastEventId) throws Exception {
+		return lastEventId == null
+				? mockMvc.perform(get("/changes")).andReturn()
+				: mockMvc.perform(get("/changes").header("Last-Event-ID", lastEventId)).andReturn();
+	}
+
+	private void publish(int n) {
+		PlantPlan plan = new PlantPlan();
+		plan.setId("p" + n);
+		plan.setName("Plan " + n);
+		feed.publish("e" + n, new PlantPlanChange(PlantPlanChange.Operation.INSERT, plan.getId(),
+				PlantPlan.DEFAULT_OWNER, plan));
+	}
+
+	@RestController
+	static class ChangesController {
+		private final PlantPlanChangeFeed feed;
+
+		ChangesController(PlantPlanChangeFeed feed) {
+			this.feed = feed;
+		}
+
+		@GetMapping("/changes")
+		SseEmitter changes(@RequestHeader(value = OwnerId.HEADER, defaultValue = PlantPlan.DEFAULT_OWNER) String ownerId,
+						   @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+			return feed.subscribe(ownerId, lastEventId);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.gardenplanner.service;
+
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import com.example.gardenplanner.repository.PlantPlanRepository.OwnerSeasonCount;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counter reconciles correct drift by a delta and never undo a change made while the aggregation ran.
+ */
+class PlantPlanCountersTests {
+
+	private final PlantPlanRepository repository = mock(PlantPlanRepository.class);
+	private final PlantPlanCounters counters = new PlantPlanCounters(repository);
+
+	@Test
+	void correctsDriftFromWritesOfOtherInstances() {
+		counters.added("alice", Season.SPRING);
+		counters.added("bob", Season.AUTUMN);
+		when(repository.countByOwnerAndSeason()).thenReturn(List.of(
+				new OwnerSeasonCount("alice", Season.SPRING, 3),
+				new OwnerSeasonCount("alice", Season.SUMMER, 1)));
+
+		counters.reconcile();
+
+		assertThat(counters.isSeeded()).isTrue();
+		assertThat(counters.countBySeason("alice", Season.SPRING)).isEqualTo(3);
+		assertThat(counters.countBySeason("alice", Season.SUMMER)).isEqualTo(1);
+		assertThat(counters.total("alice")).isEqualTo(4);
+		assertThat(counters.total("bob")).isZero();
+	}
+
+	@Test
+	void reconcilesStaleOwnersOnTheirOwnUntilCorrected() {
+		counters.added("alice", Season.SPRING);
+		counters.added("bob", Season.SPRING);
+		when(repository.countByOwnerAndSeasonOf(anyCollection())).thenReturn(List.of(
+				new OwnerSeasonCount("alice", Season.SPRING, 2)));
+
+		counters.reconcileStale();
+		verify(repository, never()).countByOwnerAndSeasonOf(anyCollection());
+
+		counters.markStale(List.of("alice"));
+		counters.reconcileStale();
+		counters.reconcileStale();
+
+		verify(repository, times(1)).countByOwnerAndSeasonOf(anyCollection());
+		assertThat(counters.total("alice")).isEqualTo(2);
+		assertThat(counters.total("bob")).isEqualTo(1);
+	}
+
+	@Test
+	void keepsChangesMadeWhileTheAggregationRan() {
+		counters.added("alice", Season.SPRING);
+		when(repository.countByOwnerAndSeason()).thenAnswer(invocation -> {
+			// A write lands after MongoDB counted, before the counters are corrected
+			counters.added("alice", Season.SUMMER);
+			return List.of(new OwnerSeasonCount("alice", Season.SPRING, 5));
+		});
+
+		counters.reconcile();
+
+		assertThat(counters.countBySeason("alice", Season.SPRING)).isEqualTo(1);
+		assertThat(counters.countBySeason("alice", Season.SUMMER)).isEqualTo(1);
+		assertThat(counters.total("alice")).isEqualTo(2);
+
+		// The next reconcile, with no write in between, applies the difference
+		when(repository.countByOwnerAndSeason()).thenReturn(List.of(
+				new OwnerSeasonCount("alice", Season.SPRING, 5),
+				new OwnerSeasonCount("alice", Season.SUMMER, 1)));
+		counters.reconcile();
+
+		assertThat(counters.total("alice")).isEqualTo(6);
+	}
+}
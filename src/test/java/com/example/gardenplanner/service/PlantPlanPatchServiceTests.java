@@ -0,0 +1,114 @@
+package com.example.gardenplanner.service;
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanChange;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * JSON Merge Patch validation, version conflicts and season counting, against a mocked MongoTemplate.
+ */
+class PlantPlanPatchServiceTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final PlantPlanCounters counters = new PlantPlanCounters(mock(PlantPlanRepository.class));
+	private final List<PlantPlanChange> changes = new ArrayList<>();
+	private PlantPlanPatchService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new PlantPlanPatchService(mongoTemplate, Validation.buildDefaultValidatorFactory().getValidator(),
+				objectMapper, counters, event -> changes.add((PlantPlanChange) event), new ConcurrentMapCacheManager());
+	}
+
+	@Test
+	void rejectsUnknownFieldsWrongTypesAndBrokenConstraintsBeforeWriting() {
+		ObjectNode patch = objectMapper.createObjectNode()
+				.put("ownerId", "mallory")
+				.put("plantingSeason", "MONSOON")
+				.put("name", " ")
+				.putNull("sunlightNeeds");
+
+		assertThatThrownBy(() -> service.patchPlantPlan("alice", "p1", patch, null))
+				.isInstanceOfSatisfying(InvalidPatchException.class, e -> assertThat(e.getErrors()).containsExactly(
+						"ownerId: cannot be patched",
+						"plantingSeason: invalid value",
+						"name: Name is required",
+						"sunlightNeeds: Sunlight needs is required"));
+		verifyNoInteractions(mongoTemplate);
+	}
+
+	@Test
+	void reportsAVersionConflictWhenThePlanExistsAtAnotherVersion() {
+		when(mongoTemplate.exists(any(Query.class), eq(PlantPlan.class))).thenReturn(true);
+		ObjectNode patch = objectMapper.createObjectNode().put("wateringFreq", "Every 3 days");
+
+		assertThatThrownBy(() -> service.patchPlantPlan("alice", "p1", patch, 3L))
+				.isInstanceOf(OptimisticLockingFailureException.class);
+		assertThat(changes).isEmpty();
+	}
+
+	@Test
+	void returnsNothingForAPlanTheOwnerDoesNotHave() {
+		ObjectNode patch = objectMapper.createObjectNode().put("wateringFreq", "Every 3 days");
+
+		assertThat(service.patchPlantPlan("alice", "p1", patch, null)).isEmpty();
+		assertThat(changes).isEmpty();
+	}
+
+	@Test
+	void writesOnlyThePatchedFieldsAndCountsTheSeasonChange() {
+		counters.added("alice", Season.SPRING);
+		PlantPlan previous = new PlantPlan();
+		previous.setPlantingSeason(Season.SPRING);
+		PlantPlan stored = plan(Season.SUMMER);
+		when(mongoTemplate.findOne(any(Query.class), eq(PlantPlan.class))).thenReturn(previous);
+		when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+				eq(PlantPlan.class))).thenReturn(stored);
+
+		ObjectNode patch = objectMapper.createObjectNode().put("plantingSeason", "SUMMER").putNull("notes");
+
+		assertThat(service.patchPlantPlan("alice", "p1", patch, 3L)).contains(stored);
+		verify(mongoTemplate).findAndModify(any(Query.class), eq(new Update()
+						.set("plantingSeason", Season.SUMMER).unset("notes").inc("version", 1)),
+				any(FindAndModifyOptions.class), eq(PlantPlan.class));
+		assertThat(counters.countBySeason("alice", Season.SPRING)).isZero();
+		assertThat(counters.countBySeason("alice", Season.SUMMER)).isEqualTo(1);
+		assertThat(changes).extracting(PlantPlanChange::getPlan).containsExactly(stored);
+	}
+
+	private static PlantPlan plan(Season season) {
+		PlantPlan plan = new PlantPlan();
+		plan.setId("p1");
+		plan.setOwnerId("alice");
+		plan.setName("Basil");
+		plan.setPlantingSeason(season);
+		plan.setSunlightNeeds("Full Sun");
+		plan.setVersion(4L);
+		return plan;
+	}
+}
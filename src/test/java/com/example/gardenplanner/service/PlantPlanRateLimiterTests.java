@@ -0,0 +1,77 @@
+package com.example.gardenplanner.service;
+
+import com.example.gardenplanner.repository.MongoPoolBulkhead;
+import com.example.gardenplanner.service.PlantPlanRateLimiter.Decision;
+import com.example.gardenplanner.service.PlantPlanRateLimiter.Tier;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-client token buckets of each tier, and load shedding on request latency and connection pool waiters.
+ */
+class PlantPlanRateLimiterTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final MongoPoolBulkhead bulkhead = new MongoPoolBulkhead(registry);
+
+	@Test
+	void rejectsClientOverBudgetWithRetryAfter() {
+		PlantPlanRateLimiter limiter = limiter(Duration.ofSeconds(1));
+
+		assertThat(limiter.tryAcquire("ip:1", Tier.EXPENSIVE).allowed()).isTrue();
+		assertThat(limiter.tryAcquire("ip:1", Tier.EXPENSIVE).allowed()).isTrue();
+		Decision rejected = limiter.tryAcquire("ip:1", Tier.EXPENSIVE);
+
+		assertThat(rejected.allowed()).isFalse();
+		assertThat(rejected.reason()).isEqualTo("rate");
+		assertThat(rejected.retryAfterSeconds()).isBetween(1L, 2L);
+		// Other clients and the cheap budget of the same client are not affected
+		assertThat(limiter.tryAcquire("ip:2", Tier.EXPENSIVE).allowed()).isTrue();
+		assertThat(limiter.tryAcquire("ip:1", Tier.CHEAP).allowed()).isTrue();
+		assertThat(registry.get("plantplan.ratelimit.rejected").tags("tier", "expensive", "reason", "rate").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void shedsExpensiveRequestsWhileLatencyIsHigh() throws InterruptedException {
+		PlantPlanRateLimiter limiter = limiter(Duration.ofMillis(100));
+
+		limiter.recordLatency(Duration.ofSeconds(2).toNanos());
+		Thread.sleep(150);
+		limiter.recordLatency(Duration.ofMillis(1).toNanos());
+
+		assertThat(limiter.isOverloaded()).isTrue();
+		Decision shed = limiter.tryAcquire("ip:1", Tier.EXPENSIVE);
+		assertThat(shed.allowed()).isFalse();
+		assertThat(shed.reason()).isEqualTo("shed");
+		assertThat(shed.retryAfterSeconds()).isEqualTo(2);
+		assertThat(limiter.tryAcquire("ip:1", Tier.CHEAP).allowed()).isTrue();
+	}
+
+	@Test
+	void shedsWhileCallersQueueForPooledConnections() {
+		PlantPlanRateLimiter limiter = limiter(Duration.ofSeconds(1));
+		ServerId server = new ServerId(new ClusterId(), new ServerAddress());
+
+		for (int i = 0; i < 51; i++) {
+			bulkhead.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(server, i));
+		}
+
+		assertThat(bulkhead.waiting()).isEqualTo(51);
+		assertThat(limiter.isOverloaded()).isTrue();
+		assertThat(limiter.tryAcquire("ip:1", Tier.EXPENSIVE).reason()).isEqualTo("shed");
+		assertThat(limiter.tryAcquire("ip:1", Tier.CHEAP).allowed()).isTrue();
+	}
+
+	private PlantPlanRateLimiter limiter(Duration window) {
+		return new PlantPlanRateLimiter(5, 1, 2, 0.5, Duration.ofMinutes(1), 1000,
+				window, Duration.ofMillis(500), 50, Duration.ofSeconds(2), bulkhead, registry);
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.gardenplanner.service;
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanSuggestion;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Ranking, typo tolerance, owner isolation and updates of the in-memory plan search index.
+ */
+class PlantPlanSearchIndexTests {
+
+	private static final String OWNER = PlantPlan.DEFAULT_OWNER;
+
+	private PlantPlanSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		PlantPlanChangeFeed feed = new PlantPlanChangeFeed(0, Duration.ofMinutes(1), 256, registry);
+		index = new PlantPlanSearchIndex(mock(PlantPlanRepository.class), feed, 0.3, registry);
+
+		index.index(plan("1", "Tomato", "Stake early"));
+		index.index(plan("2", "Cherry Tomato", null));
+		index.index(plan("3", "Basil", "Keep near the tomatoes"));
+		index.index(plan("4", "Lavender", null));
+	}
+
+	@Test
+	void findsMisspelledNames() {
+		assertThat(index.search(OWNER, "tomatoe", 10))
+				.extracting(PlantPlanSuggestion::getId)
+				.startsWith("1")
+				.contains("2")
+				.doesNotContain("4");
+	}
+
+	@Test
+	void ranksPrefixMatchesForAutocomplete() {
+		assertThat(index.search(OWNER, "bas", 10))
+				.extracting(PlantPlanSuggestion::getId)
+				.containsExactly("3");
+	}
+
+	@Test
+	void searchesOnlyTheOwnersPlans() {
+		PlantPlan other = plan("5", "Tomatillo", null);
+		other.setOwnerId("alice");
+		index.index(other);
+
+		assertThat(index.search("alice", "tomato", 10)).extracting(PlantPlanSuggestion::getId).containsExactly("5");
+		assertThat(index.search(OWNER, "tomatillo", 10)).extracting(PlantPlanSuggestion::getId).doesNotContain("5");
+	}
+
+	@Test
+	void followsUpdatesAndDeletes() {
+		index.index(plan("4", "Rosemary", null));
+		index.remove("1");
+
+		assertThat(index.search(OWNER, "lavender", 10)).isEmpty();
+		assertThat(index.search(OWNER, "rosemary", 10)).extracting(PlantPlanSuggestion::getId).containsExactly("4");
+		assertThat(index.search(OWNER, "tomato", 10)).extracting(PlantPlanSuggestion::getId).doesNotContain("1");
+		assertThat(index.size()).isEqualTo(3);
+		assertThat(index.estimatedBytes()).isPositive();
+	}
+
+	private static PlantPlan plan(String id, String name, String notes) {
+		PlantPlan plan = new PlantPlan();
+		plan.setId(id);
+		plan.setOwnerId(OWNER);
+		plan.setName(name);
+		plan.setPlantingSeason(Season.SUMMER);
+		plan.setSunlightNeeds("Full Sun");
+		plan.setNotes(notes);
+		return plan;
+	}
+}
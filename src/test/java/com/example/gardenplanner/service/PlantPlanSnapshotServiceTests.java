@@ -0,0 +1,197 @@
+package com.example.gardenplanner.service;
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanSnapshotJob;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Snapshot export and import through a local store and a mocked collection: the documents round-trip unchanged,
+ * progress and counts are reported, and imported plans reach the counters and the search index.
+ */
+class PlantPlanSnapshotServiceTests {
+
+	@TempDir
+	Path directory;
+
+	@SuppressWarnings("unchecked")
+	private final MongoCollection<Document> collection = mock(MongoCollection.class);
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final PlantPlanCounters counters = mock(PlantPlanCounters.class);
+	private final PlantPlanSearchIndex searchIndex = mock(PlantPlanSearchIndex.class);
+	private final List<List<WriteModel<Document>>> bulkWrites = new ArrayList<>();
+	private PlantPlanSnapshotService service;
+
+	@BeforeEach
+	void setUp() {
+		MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+		converter.afterPropertiesSet();
+		when(mongoTemplate.getCollectionName(PlantPlan.class)).thenReturn("plantplans");
+		when(mongoTemplate.getCollection("plantplans")).thenReturn(collection);
+		when(mongoTemplate.getConverter()).thenReturn(converter);
+		// An empty collection: every replace by id is an upsert
+		when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenAnswer(invocation -> {
+			List<WriteModel<Document>> batch = List.copyOf(invocation.getArgument(0));
+			bulkWrites.add(batch);
+			return upserted(batch.size());
+		});
+		service = new PlantPlanSnapshotService(mongoTemplate, counters, searchIndex, new ConcurrentMapCacheManager(),
+				new LocalPlantPlanSnapshotStore(directory), 2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	void exportsAndImportsEveryDocumentUnchanged() throws Exception {
+		List<Document> documents = List.of(
+				plan("Basil", "alice"),
+				plan("Mint", "bob"),
+				plan("Sage", null));
+		cursorOver(documents);
+
+		PlantPlanSnapshotJob export = await(service.startExport());
+
+		assertThat(export.getStatus()).isEqualTo(PlantPlanSnapshotJob.Status.COMPLETED);
+		assertThat(export.getProcessed()).isEqualTo(3);
+		assertThat(export.getProgress()).isEqualTo(1.0);
+		assertThat(export.getFileSize()).isEqualTo(Files.size(directory.resolve(export.getFile())));
+		assertThat(service.listSnapshots()).containsExactly(export.getFile());
+		assertThat(directory.resolve(export.getFile() + ".part")).doesNotExist();
+
+		PlantPlanSnapshotJob restore = await(service.startImport(export.getFile()));
+
+		assertThat(restore.getStatus()).isEqualTo(PlantPlanSnapshotJob.Status.COMPLETED);
+		assertThat(restore.getProcessed()).isEqualTo(3);
+		assertThat(restore.getInserted()).isEqualTo(3);
+		assertThat(restore.getFailed()).isZero();
+		assertThat(restore.getProgress()).isEqualTo(1.0);
+		// Batches of two, each document upserted as it was exported, a missing owner filled in
+		assertThat(bulkWrites).extracting(List::size).containsExactly(2, 1);
+		List<Document> replacements = bulkWrites.stream().flatMap(List::stream)
+				.map(model -> ((ReplaceOneModel<Document>) model).getReplacement())
+				.toList();
+		assertThat(replacements.subList(0, 2)).containsExactlyElementsOf(documents.subList(0, 2));
+		assertThat(replacements.get(2)).isEqualTo(new Document(documents.get(2)).append("ownerId", PlantPlan.DEFAULT_OWNER));
+		assertThat(replacements.get(0).get("version")).isEqualTo(7L);
+		verify(searchIndex, times(3)).index(any(PlantPlan.class));
+		verify(counters).reconcile();
+	}
+
+	@Test
+	void countsUnreadableLinesAndRefusedDocuments() throws Exception {
+		Document refused = plan("Mint", "bob");
+		writeSnapshot("plantplans-1.ndjson.gz", plan("Basil", "alice").toJson(), "{not json", refused.toJson());
+		when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenThrow(new MongoBulkWriteException(
+				BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(new BulkWriteUpsert(0, new BsonObjectId())), List.of()),
+				List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)),
+				null, new ServerAddress(), Set.of()));
+
+		PlantPlanSnapshotJob job = await(service.startImport("plantplans-1.ndjson.gz"));
+
+		assertThat(job.getStatus()).isEqualTo(PlantPlanSnapshotJob.Status.COMPLETED);
+		assertThat(job.getProcessed()).isEqualTo(3);
+		assertThat(job.getInserted()).isEqualTo(1);
+		assertThat(job.getFailed()).isEqualTo(2);
+		assertThat(job.getError()).startsWith("Line 2:");
+		// Only the document MongoDB accepted is indexed
+		verify(searchIndex, times(1)).index(any(PlantPlan.class));
+	}
+
+	@Test
+	void refusesNamesOutsideTheStoreAndMissingSnapshots() {
+		assertThatThrownBy(() -> service.startImport("../application.properties"))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> service.startImport("plantplans-missing.ndjson.gz"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void cursorOver(List<Document> documents) {
+		FindIterable<Document> find = mock(FindIterable.class);
+		MongoCursor<Document> cursor = mock(MongoCursor.class);
+		Iterator<Document> iterator = documents.iterator();
+		when(collection.estimatedDocumentCount()).thenReturn((long) documents.size());
+		when(collection.find()).thenReturn(find);
+		when(find.batchSize(anyInt())).thenReturn(find);
+		when(find.cursor()).thenReturn(cursor);
+		when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+		when(cursor.next()).thenAnswer(invocation -> iterator.next());
+	}
+
+	private void writeSnapshot(String name, String... lines) throws Exception {
+		try (Writer out = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(directory.resolve(name))), UTF_8)) {
+			for (String line : lines) {
+				out.write(line + "\n");
+			}
+		}
+	}
+
+	private static PlantPlanSnapshotJob await(PlantPlanSnapshotJob job) throws InterruptedException {
+		for (int i = 0; i < 500 && job.getFinishedAt() == null; i++) {
+			Thread.sleep(10);
+		}
+		assertThat(job.getFinishedAt()).as("job finished").isNotNull();
+		return job;
+	}
+
+	private static BulkWriteResult upserted(int count) {
+		return BulkWriteResult.acknowledged(0, 0, 0, 0,
+				IntStream.range(0, count).mapToObj(i -> new BulkWriteUpsert(i, new BsonObjectId())).toList(), List.of());
+	}
+
+	private static Document plan(String name, String ownerId) {
+		Document plan = new Document("_id", new ObjectId()).append("name", name).append("plantingSeason", "SUMMER")
+				.append("version", 7L);
+		if (ownerId != null) {
+			plan.append("ownerId", ownerId);
+		}
+		return plan;
+	}
+}
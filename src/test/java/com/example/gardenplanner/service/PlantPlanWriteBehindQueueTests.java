@@ -0,0 +1,222 @@
+package com.example.gardenplanner.service;
+
+import com.example.gardenplanner.model.PlantPlan;
+import com.example.gardenplanner.model.PlantPlanChange;
+import com.example.gardenplanner.model.Season;
+import com.example.gardenplanner.repository.PlantPlanRepository;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.bson.BsonObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Write-behind validation, coalescing, the queue bound, and retries up to shutdown, against a mocked MongoTemplate.
+ */
+class PlantPlanWriteBehindQueueTests {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final BulkOperations bulk = mock(BulkOperations.class);
+	private final PlantPlanRepository repository = mock(PlantPlanRepository.class);
+	private final PlantPlanCounters counters = new PlantPlanCounters(repository);
+	// Upserts sent since the last bulk write; with no stored plans, each one inserts
+	private int upserts;
+	private final List<PlantPlanChange> changes = new ArrayList<>();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private PlantPlanWriteBehindQueue queue;
+
+	@BeforeEach
+	void setUp() {
+		when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(PlantPlan.class))).thenReturn(bulk);
+		when(bulk.upsert(any(Query.class), any(Update.class))).thenAnswer(invocation -> {
+			upserts++;
+			return bulk;
+		});
+		when(bulk.execute()).thenAnswer(invocation -> inserted());
+		// Only flush() writes: the interval never elapses during a test
+		queue = new PlantPlanWriteBehindQueue(mongoTemplate, Validation.buildDefaultValidatorFactory().getValidator(),
+				counters, new ConcurrentMapCacheManager(), event -> changes.add((PlantPlanChange) event), true, 2, 10,
+				Duration.ofHours(1), Duration.ofSeconds(5), registry);
+	}
+
+	@AfterEach
+	void tearDown() {
+		queue.shutdown();
+	}
+
+	@Test
+	void combinesWritesToTheSamePlanIntoOneUpsert() {
+		PlantPlan added = queue.add("public", plan("Basil"));
+		queue.update("public", added.getId(), plan("Thai Basil"));
+		queue.update("public", added.getId(), plan("Sweet Basil"));
+
+		assertThat(added.getId()).isNotNull();
+		assertThat(queue.pendingCount()).isEqualTo(1);
+		queue.flush();
+
+		verify(bulk, times(1)).upsert(any(Query.class), any(Update.class));
+		assertThat(queue.pendingCount()).isZero();
+		assertThat(changes).singleElement().satisfies(change -> {
+			assertThat(change.getOperation()).isEqualTo(PlantPlanChange.Operation.INSERT);
+			assertThat(change.getPlan().getName()).isEqualTo("Sweet Basil");
+		});
+		assertThat(registry.get("plantplan.writebehind.coalesced").counter().count()).isEqualTo(2);
+	}
+
+	@Test
+	void refusesNewPlansWhenFullButStillTakesUpdatesToQueuedOnes() {
+		PlantPlan first = queue.add("public", plan("Basil"));
+		queue.add("public", plan("Mint"));
+
+		assertThatThrownBy(() -> queue.add("public", plan("Sage"))).isInstanceOf(WriteQueueFullException.class);
+		queue.update("public", first.getId(), plan("Thai Basil"));
+		assertThat(queue.pendingCount()).isEqualTo(2);
+	}
+
+	@Test
+	void refusesInvalidPlansBeforeQueueingThem() {
+		PlantPlan plan = plan(" ");
+		plan.setSunlightNeeds(null);
+
+		assertThatThrownBy(() -> queue.update("public", "p1", plan))
+				.isInstanceOfSatisfying(InvalidPlanException.class, e -> assertThat(e.getErrors()).containsExactly(
+						"name: Name is required",
+						"sunlightNeeds: Sunlight needs is required"));
+		assertThat(queue.pendingCount()).isZero();
+	}
+
+	@Test
+	void countsPlansBeingWrittenAgainstTheBound() {
+		List<Throwable> refused = new ArrayList<>();
+		when(bulk.execute()).thenAnswer(invocation -> {
+			// The batch has left the queue but may still be queued again, so there is no room yet
+			try {
+				queue.add("public", plan("Sage"));
+			} catch (WriteQueueFullException e) {
+				refused.add(e);
+			}
+			throw new DataAccessResourceFailureException("MongoDB unreachable");
+		}).thenAnswer(invocation -> inserted());
+		queue.add("public", plan("Basil"));
+		queue.add("public", plan("Mint"));
+
+		queue.flush();
+
+		assertThat(refused).hasSize(1);
+		assertThat(queue.pendingCount()).isEqualTo(2);
+		assertThatThrownBy(() -> queue.add("public", plan("Sage"))).isInstanceOf(WriteQueueFullException.class);
+	}
+
+	@Test
+	void aDeleteDropsTheQueuedWriteSoTheFlushDoesNotBringThePlanBack() {
+		PlantPlan queued = queue.update("public", "p1", plan("Basil"));
+		queue.add("alice", plan("Mint"));
+
+		// What the controller does before deleting the plan directly
+		queue.discard("public", queued.getId());
+		queue.flush();
+
+		verify(bulk, times(1)).upsert(any(Query.class), any(Update.class));
+		assertThat(changes).extracting(PlantPlanChange::getOwnerId).containsExactly("alice");
+		assertThat(queue.pendingCount()).isZero();
+	}
+
+	@Test
+	void writesOnePlansQueuedWriteBeforeADirectWrite() {
+		queue.update("public", "p1", plan("Basil"));
+		queue.add("alice", plan("Mint"));
+
+		queue.flush("public", "p1");
+
+		verify(bulk, times(1)).upsert(any(Query.class), any(Update.class));
+		assertThat(changes).extracting(PlantPlanChange::getPlanId).containsExactly("p1");
+		assertThat(queue.pendingCount()).isEqualTo(1);
+	}
+
+	@Test
+	void keepsFailedBatchesQueuedAndWritesThemOnShutdown() {
+		when(bulk.execute())
+				.thenThrow(new DataAccessResourceFailureException("MongoDB unreachable"))
+				.thenAnswer(invocation -> inserted());
+		queue.add("public", plan("Basil"));
+		queue.add("alice", plan("Basil"));
+
+		queue.flush();
+		assertThat(queue.pendingCount()).isEqualTo(2);
+		assertThat(changes).isEmpty();
+		// Part of the batch may have been written, so both owners are counted again from MongoDB
+		counters.reconcileStale();
+		verify(repository).countByOwnerAndSeasonOf(argThat(owners -> Set.copyOf(owners).equals(Set.of("public", "alice"))));
+
+		queue.shutdown();
+		assertThat(queue.pendingCount()).isZero();
+		assertThat(changes).hasSize(2);
+		assertThatThrownBy(() -> queue.add("public", plan("Mint"))).isInstanceOf(WriteQueueFullException.class);
+	}
+
+	@Test
+	void updatesOnlyTheVersionReadAndCountsAndPublishesWhatWasWritten() {
+		counters.added("public", Season.SPRING);
+		PlantPlan stored = new PlantPlan();
+		stored.setId("p1");
+		stored.setOwnerId("public");
+		stored.setPlantingSeason(Season.SPRING);
+		stored.setVersion(3L);
+		when(mongoTemplate.find(any(Query.class), eq(PlantPlan.class))).thenReturn(List.of(stored));
+		when(bulk.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+		queue.update("public", "p1", plan("Basil"));
+		queue.flush();
+
+		ArgumentCaptor<Query> filter = ArgumentCaptor.forClass(Query.class);
+		verify(bulk).upsert(filter.capture(), any(Update.class));
+		assertThat(filter.getValue().getQueryObject().get("version")).isEqualTo(3L);
+		assertThat(counters.countBySeason("public", Season.SPRING)).isZero();
+		assertThat(counters.countBySeason("public", Season.SUMMER)).isEqualTo(1);
+		assertThat(counters.total("public")).isEqualTo(1);
+		assertThat(changes).singleElement().satisfies(change -> {
+			assertThat(change.getOperation()).isEqualTo(PlantPlanChange.Operation.UPDATE);
+			assertThat(change.getPlan().getVersion()).isEqualTo(4L);
+		});
+	}
+
+	private BulkWriteResult inserted() {
+		List<BulkWriteUpsert> inserted = IntStream.range(0, upserts).mapToObj(i -> new BulkWriteUpsert(i, new BsonObjectId())).toList();
+		upserts = 0;
+		return BulkWriteResult.acknowledged(0, 0, 0, 0, inserted, List.of());
+	}
+
+	private static PlantPlan plan(String name) {
+		PlantPlan plan = new PlantPlan();
+		plan.setName(name);
+		plan.setPlantingSeason(Season.SUMMER);
+		plan.setSunlightNeeds("Full Sun");
+		return plan;
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.gardenplanner.service;
+
+import com.example.gardenplanner.model.WateringSchedule;
+import com.example.gardenplanner.model.WateringSchedule.Unit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Free-text watering frequencies and the days their schedules fall on.
+ */
+class WateringScheduleParserTests {
+
+	@ParameterizedTest
+	@CsvSource(delimiter = '|', value = {
+			"Daily                 | 1 | 1 | DAY",
+			"twice daily           | 2 | 1 | DAY",
+			"Every day             | 1 | 1 | DAY",
+			"Every 3 days          | 1 | 3 | DAY",
+			"every other day       | 1 | 2 | DAY",
+			"2x a day              | 2 | 1 | DAY",
+			"Weekly                | 1 | 1 | WEEK",
+			"Twice a week          | 2 | 1 | WEEK",
+			"3 times per week      | 3 | 1 | WEEK",
+			"  Once every two weeks| 1 | 2 | WEEK",
+			"Fortnightly           | 1 | 2 | WEEK",
+			"Water once a month.   | 1 | 1 | MONTH"
+	})
+	void parsesCommonFrequencies(String text, int times, int every, Unit unit) {
+		assertThat(WateringScheduleParser.parse(text)).contains(new WateringSchedule(times, every, unit));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"", "when dry", "often", "every 0 days", "0 times a week"})
+	void rejectsWhatItDoesNotUnderstand(String text) {
+		assertThat(WateringScheduleParser.parse(text)).isEmpty();
+	}
+
+	@Test
+	void spreadsWateringsOverTheWeek() {
+		WateringSchedule twiceAWeek = WateringScheduleParser.parse("Twice a week").orElseThrow();
+		LocalDate monday = LocalDate.of(2026, 10, 19);
+
+		int[] week = IntStream.range(0, 7).map(day -> twiceAWeek.timesOn(monday.plusDays(day))).toArray();
+
+		// Monday and Thursday
+		assertThat(week).containsExactly(1, 0, 0, 1, 0, 0, 0);
+	}
+}